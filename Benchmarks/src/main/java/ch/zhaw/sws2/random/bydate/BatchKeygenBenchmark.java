@@ -0,0 +1,74 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Key derivation of the search with {@link BatchKeygen}, with either
+ * MD5 implementation. One operation is one candidate.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class BatchKeygenBenchmark
+{
+    private static final int BATCH_SIZE = 1000;
+
+    @Param( { "vector", "scalar" } )
+    public String md5;
+
+    private BatchKeygen keygen;
+    private long        timeInput;
+    private byte[]      ivs  = new byte[ BATCH_SIZE * BatchKeygen.BLOCK_BYTES ];
+    private byte[]      keys = new byte[ BATCH_SIZE * BatchKeygen.BLOCK_BYTES ];
+    private int         usec;
+
+    @Setup
+    public void setUp()
+    {
+        keygen = new BatchKeygen( "scalar".equals( md5 ) ? MultiBufferMd5.scalar() : MultiBufferMd5.create() );
+        timeInput = BatchKeygen.timeInput( BenchmarkData.SECONDS, 0, 0 );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( BATCH_SIZE )
+    public byte[] deriveKeys()
+    {
+        keygen.derive( timeInput, nextUsec(), BATCH_SIZE, ivs, keys );
+        return keys;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( BATCH_SIZE )
+    public byte[] deriveIvs()
+    {
+        keygen.derive( timeInput, nextUsec(), BATCH_SIZE, ivs, null );
+        return ivs;
+    }
+
+    private int nextUsec()
+    {
+        int first = usec;
+        usec = (usec + BATCH_SIZE) % (int)Constants.USECS_PER_SECOND;
+        return first;
+    }
+}
@@ -0,0 +1,61 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+
+/**
+ * Fixed inputs shared by the benchmarks.
+ * <p>
+ * <p>All data is generated from fixed seeds, so every run and every
+ * release measures the same work.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+final class BenchmarkData
+{
+    /**
+     * Start of the searched time window, 2016-03-31T21:14:31+02:00
+     */
+    static final long SECONDS = 1459451671L;
+
+    /**
+     * Number of candidates searched per benchmark invocation, the
+     * default chunk size of {@link Crack}
+     */
+    static final int CHUNK_USECS = 10000;
+
+    private static final String TEXT = "In dem Gedicht \"Todesfuge\" von Paul Celan wird die Vernichtung "
+        + "der Juden in den Konzentrationslagern beschrieben. Schwarze Milch der Fruehe wir trinken sie abends. ";
+
+    private BenchmarkData()
+    {
+    }
+
+    /**
+     * @param length number of bytes
+     * @param seed   seed of the generator
+     * @return random bytes
+     */
+    static byte[] randomBytes( int length, long seed )
+    {
+        byte[] bytes = new byte[ length ];
+        new Random( seed ).nextBytes( bytes );
+        return bytes;
+    }
+
+    /**
+     * @param length number of bytes
+     * @return German prose, repeated as often as needed
+     */
+    static byte[] text( int length )
+    {
+        byte[] text = TEXT.getBytes( StandardCharsets.UTF_8 );
+        byte[] bytes = new byte[ length ];
+        for ( int i = 0; i < length; i++ ) {
+            bytes[ i ] = text[ i % text.length ];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,82 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks once per thread count and writes the results of
+ * every run as JSON, so they can be compared between releases.
+ * <p>
+ * <p>Usage: BenchmarkRunner [--threads n,m,...] [--out dir] [regexp...]</p>
+ * <p>
+ * <p>--threads thread counts to run with. Defaults to 1 and the number
+ * of available processors.
+ * --out     directory of the result files jmh-threads-n.json. Defaults
+ * to the current directory.
+ * regexp    benchmarks to run, see JMH's -include. Defaults to all.</p>
+ * <p>
+ * <p>Single runs with other JMH options are possible with
+ * {@code java -cp benchmarks.jar org.openjdk.jmh.Main}.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class BenchmarkRunner
+{
+    private BenchmarkRunner()
+    {
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args command-line arguments; see class description for more
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        TreeSet<Integer> threadCounts = new TreeSet<>();
+        threadCounts.add( 1 );
+        threadCounts.add( Runtime.getRuntime().availableProcessors() );
+        File outputDirectory = new File( "." );
+        List<String> includes = new ArrayList<>();
+
+        for ( int i = 0; i < args.length; i++ ) {
+            if ( "--threads".equals( args[ i ] ) && i + 1 < args.length ) {
+                threadCounts.clear();
+                for ( String count : args[ ++i ].split( "," ) ) {
+                    threadCounts.add( Integer.parseInt( count.trim() ) );
+                }
+            } else if ( "--out".equals( args[ i ] ) && i + 1 < args.length ) {
+                outputDirectory = new File( args[ ++i ] );
+            } else {
+                includes.add( args[ i ] );
+            }
+        }
+        if ( includes.isEmpty() ) {
+            includes.add( BenchmarkRunner.class.getPackage().getName() + ".*Benchmark" );
+        }
+        outputDirectory.mkdirs();
+
+        for ( int threads : threadCounts ) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                .threads( threads )
+                .resultFormat( ResultFormatType.JSON )
+                .result( new File( outputDirectory, String.format( "jmh-threads-%d.json", threads ) ).getPath() );
+            for ( String include : includes ) {
+                options.include( include );
+            }
+            new Runner( options.build() ).run();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * End-to-end search: candidates per second of {@link BruteForcer#search(long, int, int)}
+ * over a fixed window of {@link #WINDOW_SECONDS} seconds, which every
+ * thread sweeps chunk by chunk as a worker of {@link Crack} does. One
+ * operation is one candidate; with several benchmark threads, the
+ * total is the throughput of that many workers.
+ * <p>
+ * <p>The ciphertext and header IV are random, so no candidate matches
+ * and the whole window is searched.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class CandidateLoopBenchmark
+{
+    private static final int WINDOW_SECONDS = 8;
+
+    @Param( { "AES/CTR/NoPadding", "AES/CBC/NoPadding", "AES/ECB/NoPadding" } )
+    public String cipherSpec;
+
+    @Param( { "decrypt", "iv-match" } )
+    public String strategy;
+
+    private BruteForcer bruteForcer;
+    private long        chunk;
+
+    @Setup
+    public void setUp()
+    {
+        byte[] headerIv = BenchmarkData.randomBytes( BatchKeygen.BLOCK_BYTES, 3 );
+        byte[] encryptedData = BenchmarkData.randomBytes( Crack.DECRYPT_MAX_BYTES, 4 );
+        // a board that never stops the search
+        CandidateBoard board = new CandidateBoard( 10, 0 );
+        bruteForcer = new BruteForcer( cipherSpec, ZoneOffset.UTC, SearchStrategy.fromName( strategy ), headerIv,
+            encryptedData, board, null, false, new SearchMetrics( 0, 0 ) );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( BenchmarkData.CHUNK_USECS )
+    public void search()
+    {
+        long chunksPerSecond = Constants.USECS_PER_SECOND / BenchmarkData.CHUNK_USECS;
+        long second = BenchmarkData.SECONDS + (chunk / chunksPerSecond) % WINDOW_SECONDS;
+        int firstUsec = (int)(chunk % chunksPerSecond) * BenchmarkData.CHUNK_USECS;
+        chunk++;
+        bruteForcer.search( second, firstUsec, BenchmarkData.CHUNK_USECS );
+    }
+}
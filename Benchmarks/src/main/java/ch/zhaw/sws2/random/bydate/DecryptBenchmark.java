@@ -0,0 +1,83 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Decryption of one candidate the way {@link BruteForcer} does it:
+ * re-initialising the worker's {@link CryptoContext} with the candidate
+ * key and IV, then decrypting either only the first block (early reject)
+ * or all {@link Crack#DECRYPT_MAX_BYTES} bytes.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class DecryptBenchmark
+{
+    private static final int CANDIDATES = 1024;
+
+    @Param( { "AES/CTR/NoPadding", "AES/CBC/NoPadding", "AES/CBC/PKCS5Padding", "AES/ECB/NoPadding" } )
+    public String cipherSpec;
+
+    private CryptoContext crypto;
+    private byte[]        ivs  = new byte[ CANDIDATES * BatchKeygen.BLOCK_BYTES ];
+    private byte[]        keys = new byte[ CANDIDATES * BatchKeygen.BLOCK_BYTES ];
+    private byte[]        encryptedData;
+    private byte[]        decryptedContent = new byte[ Crack.DECRYPT_MAX_BYTES ];
+    private int           candidate;
+
+    @Setup
+    public void setUp()
+    {
+        crypto = new CryptoContext( cipherSpec );
+        new BatchKeygen().derive( BatchKeygen.timeInput( BenchmarkData.SECONDS, 0, 0 ), 0, CANDIDATES, ivs, keys );
+        encryptedData = BenchmarkData.randomBytes( Crack.DECRYPT_MAX_BYTES, 1 );
+    }
+
+    @Benchmark
+    public byte[] firstBlock()
+        throws GeneralSecurityException
+    {
+        int offset = nextOffset();
+        Cipher cipher = crypto.initDecrypt( keys, offset, ivs, offset );
+        cipher.update( encryptedData, 0, cipher.getBlockSize(), decryptedContent, 0 );
+        return decryptedContent;
+    }
+
+    @Benchmark
+    public byte[] full()
+        throws GeneralSecurityException
+    {
+        int offset = nextOffset();
+        Cipher cipher = crypto.initDecrypt( keys, offset, ivs, offset );
+        cipher.update( encryptedData, 0, encryptedData.length, decryptedContent, 0 );
+        return decryptedContent;
+    }
+
+    private int nextOffset()
+    {
+        candidate = (candidate + 1) % CANDIDATES;
+        return candidate * BatchKeygen.BLOCK_BYTES;
+    }
+}
@@ -0,0 +1,62 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidParameterSpecException;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Key derivation of a single candidate with {@link NetscapeKeygen}, as
+ * used by ByDate. See {@link BatchKeygenBenchmark} for the derivation
+ * used by the search.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class KeygenBenchmark
+{
+    private MyFakeSystemImpl system;
+    private NetscapeKeygen   keygen;
+
+    @Setup
+    public void setUp()
+    {
+        system = new MyFakeSystemImpl( BenchmarkData.SECONDS * Constants.USECS_PER_SECOND, ZoneOffset.UTC );
+        keygen = new NetscapeKeygen( system, "AES" );
+    }
+
+    @Benchmark
+    public byte[] makeKey()
+        throws NoSuchAlgorithmException, InvalidParameterSpecException
+    {
+        keygen.makeKey();
+        system.addMicroseconds( 1 );
+        return keygen.getKey();
+    }
+
+    @Benchmark
+    public byte[] makeIv()
+    {
+        keygen.makeIv();
+        system.addMicroseconds( 1 );
+        return keygen.getIv();
+    }
+}
@@ -0,0 +1,71 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Rating of decrypted data: the entropy score of {@link BruteForcer}'s
+ * rating over {@link Crack#DECRYPT_MAX_BYTES} bytes and the first block
+ * check of the early reject, for plaintext and for the random-looking
+ * output of a wrong key. The chain is magic,utf8,bigram, see
+ * {@link ScorerChain}, with a bigram model of the benchmark text.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class ScoringBenchmark
+{
+    @Param( { "text", "random" } )
+    public String content;
+
+    private EntropyScorer scorer = new EntropyScorer();
+    private ScorerChain   chain;
+    private byte[]        data;
+
+    @Setup
+    public void setUp()
+    {
+        data = "text".equals( content ) ? BenchmarkData.text( Crack.DECRYPT_MAX_BYTES )
+            : BenchmarkData.randomBytes( Crack.DECRYPT_MAX_BYTES, 2 );
+        chain = new ScorerChain( Arrays.asList( new MagicScorer(), new Utf8Scorer(),
+            new BigramScorer( Collections.singletonList( BenchmarkData.text( 2 * Crack.DECRYPT_MAX_BYTES ) ) ) ) );
+    }
+
+    @Benchmark
+    public double rating()
+    {
+        return scorer.score( data, data.length );
+    }
+
+    @Benchmark
+    public double chainRating()
+    {
+        return chain.score( data, data.length );
+    }
+
+    @Benchmark
+    public boolean firstBlockPlausible()
+    {
+        return PlaintextFilter.isPlausible( data, BatchKeygen.BLOCK_BYTES );
+    }
+}
@@ -0,0 +1,119 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Rates data by how well it fits the byte bigrams of sample texts.
+ * <p>
+ * <p>Every language is a table of 65536 floats, -log2 P(b | a) for the
+ * byte b following the byte a, estimated from a sample text of the
+ * language. Bigrams missing from the sample fall back to the frequency
+ * of b alone, and bytes missing from the sample get a small additive
+ * share, so every bigram has a finite cost. The rating is the average
+ * over the bigrams of the data, i.e. the cross-entropy in bits per byte, and
+ * with several languages the lowest of them. Text in one of the
+ * languages is rated around 3 to 4, well below the 7 to 8 of the
+ * Shannon entropy; random data hits mostly bigrams never seen in the
+ * sample and is rated above 10. Bytes are modeled, not characters, so
+ * e.g. the UTF-8 umlauts of a German sample are learned as well.</p>
+ * <p>
+ * <p>The tables are computed once; instances are immutable.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class BigramScorer
+    implements Scorer
+{
+    /**
+     * Pseudo-count added to every byte value
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * Weight of the byte frequency in P(b | a), counted like one bigram
+     */
+    private static final double BACKOFF = 1;
+
+    private final float[][] costs;
+
+    /**
+     * Constructor.
+     *
+     * @param samples one sample text per language
+     */
+    public BigramScorer( List<byte[]> samples )
+    {
+        if ( samples.isEmpty() ) {
+            throw new IllegalArgumentException( "No sample texts" );
+        }
+        costs = new float[ samples.size() ][];
+        for ( int i = 0; i < costs.length; i++ ) {
+            costs[ i ] = getCosts( samples.get( i ) );
+        }
+    }
+
+    /**
+     * Reads the sample texts of the languages.
+     *
+     * @param files one sample text per language
+     * @return the scorer
+     * @throws IOException if a file can't be read
+     */
+    public static BigramScorer fromFiles( List<File> files )
+        throws IOException
+    {
+        List<byte[]> samples = new ArrayList<>();
+        for ( File file : files ) {
+            samples.add( Files.readAllBytes( file.toPath() ) );
+        }
+        return new BigramScorer( samples );
+    }
+
+    private static float[] getCosts( byte[] sample )
+    {
+        int[] counts = new int[ 256 * 256 ];
+        int[] firstCounts = new int[ 256 ];
+        int[] byteCounts = new int[ 256 ];
+        for ( int i = 0; i < sample.length; i++ ) {
+            byteCounts[ sample[ i ] & 0xFF ]++;
+            if ( i > 0 ) {
+                int first = sample[ i - 1 ] & 0xFF;
+                counts[ first << 8 | (sample[ i ] & 0xFF) ]++;
+                firstCounts[ first ]++;
+            }
+        }
+        float[] costs = new float[ counts.length ];
+        for ( int bigram = 0; bigram < costs.length; bigram++ ) {
+            double byteProbability = (byteCounts[ bigram & 0xFF ] + SMOOTHING) / (sample.length + 256 * SMOOTHING);
+            double probability = (counts[ bigram ] + BACKOFF * byteProbability) / (firstCounts[ bigram >>> 8 ] + BACKOFF);
+            costs[ bigram ] = (float)(-Math.log( probability ) / Math.log( 2 ));
+        }
+        return costs;
+    }
+
+    @Override
+    public double score( byte[] data, int length )
+    {
+        if ( length < 2 ) {
+            return NO_OPINION;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for ( float[] table : costs ) {
+            double sum = 0;
+            int previous = data[ 0 ] & 0xFF;
+            for ( int i = 1; i < length; i++ ) {
+                int current = data[ i ] & 0xFF;
+                sum += table[ previous << 8 | current ];
+                previous = current;
+            }
+            best = Math.min( best, sum / (length - 1) );
+        }
+        return best;
+    }
+}
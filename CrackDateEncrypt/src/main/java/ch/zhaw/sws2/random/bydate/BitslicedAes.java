@@ -0,0 +1,376 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+
+/**
+ * Pure-Java bitsliced AES-128 that encrypts one block under each of up
+ * to 64 different keys at once.
+ * <p>
+ * <p>Bit i of every long belongs to lane (key) i. The state and every
+ * round key are 128 longs, one per bit: long {@code 8 * b + k} holds bit
+ * k (LSB first) of byte b of all 64 lanes. The cipher then only needs
+ * AND, XOR and NOT on longs, so all lanes are processed by the same
+ * instructions and there is no per-key JCE overhead.</p>
+ * <p>
+ * <p>The S-box is the 113 gate circuit by Boyar and Peralta.
+ * The key schedule is bitsliced as well, so keys that differ in every
+ * lane cost the same as a single one.</p>
+ * <p>
+ * <p>Instances are not thread safe.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class BitslicedAes
+{
+    /**
+     * Number of keys processed at once
+     */
+    public static final int LANES = Long.SIZE;
+
+    /**
+     * Block and key size in bytes
+     */
+    public static final int BLOCK_BYTES = 16;
+
+    private static final int   ROUNDS          = 10;
+    private static final int   BITS            = 8;
+    private static final int[] ROUND_CONSTANTS = { 0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, 0x80, 0x1B, 0x36 };
+
+    private final long[][] roundKeys = new long[ ROUNDS + 1 ][ BLOCK_BYTES * BITS ];
+    private final long[]   state     = new long[ BLOCK_BYTES * BITS ];
+    private final long[]   shifted   = new long[ BLOCK_BYTES * BITS ];
+    private final long[]   word      = new long[ 4 * BITS ];
+
+    /**
+     * Encrypts one block per lane. Lane i uses the key at
+     * {@code keysOffset + 16 * i} and the block at {@code blocksOffset + 16 * i}.
+     * The result stays bitsliced; read it with {@link #getBlocks(byte[], int, int)}
+     * or {@link #getMismatchingLanes(byte[], byte[])}.
+     *
+     * @param keys         array containing the keys
+     * @param keysOffset   offset of the first key
+     * @param blocks       array containing the plaintext blocks
+     * @param blocksOffset offset of the first block
+     * @param count        number of lanes, 1 &lt;= count &lt;= {@link #LANES}
+     */
+    public void encrypt( byte[] keys, int keysOffset, byte[] blocks, int blocksOffset, int count )
+    {
+        if ( count < 1 || count > LANES ) {
+            throw new IllegalArgumentException( String.format( "Invalid number of lanes: %d", count ) );
+        }
+        slice( keys, keysOffset, count, roundKeys[ 0 ] );
+        expandKeys();
+        slice( blocks, blocksOffset, count, state );
+
+        xor( state, roundKeys[ 0 ] );
+        for ( int round = 1; round <= ROUNDS; round++ ) {
+            for ( int b = 0; b < BLOCK_BYTES; b++ ) {
+                subByte( state, b * BITS );
+            }
+            shiftRows();
+            if ( round < ROUNDS ) {
+                mixColumns();
+            }
+            xor( state, roundKeys[ round ] );
+        }
+    }
+
+    /**
+     * Converts the encrypted blocks back to bytes.
+     *
+     * @param output receives the blocks, 16 bytes per lane
+     * @param offset offset of the first block
+     * @param count  number of lanes to convert
+     */
+    public void getBlocks( byte[] output, int offset, int count )
+    {
+        for ( int lane = 0; lane < count; lane++ ) {
+            for ( int b = 0; b < BLOCK_BYTES; b++ ) {
+                int value = 0;
+                for ( int k = 0; k < BITS; k++ ) {
+                    value |= (int)((state[ b * BITS + k ] >>> lane) & 1) << k;
+                }
+                output[ offset + lane * BLOCK_BYTES + b ] = (byte)value;
+            }
+        }
+    }
+
+    /**
+     * Compares the encrypted blocks of all lanes with the same expected
+     * block, without converting them back to bytes.
+     *
+     * @param expected expected block
+     * @param mask     bits of the expected block to compare, per byte
+     * @return a long with bit i set if lane i differs in a compared bit
+     */
+    public long getMismatchingLanes( byte[] expected, byte[] mask )
+    {
+        long mismatches = 0;
+        for ( int b = 0; b < BLOCK_BYTES; b++ ) {
+            for ( int k = 0; k < BITS; k++ ) {
+                if ( ((mask[ b ] >>> k) & 1) != 0 ) {
+                    long expectedBits = ((expected[ b ] >>> k) & 1) != 0 ? -1L : 0L;
+                    mismatches |= state[ b * BITS + k ] ^ expectedBits;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Transposes count blocks of 16 bytes into 128 bitsliced longs.
+     */
+    private static void slice( byte[] bytes, int offset, int count, long[] sliced )
+    {
+        Arrays.fill( sliced, 0 );
+        for ( int lane = 0; lane < count; lane++ ) {
+            int base = offset + lane * BLOCK_BYTES;
+            for ( int b = 0; b < BLOCK_BYTES; b++ ) {
+                int value = bytes[ base + b ];
+                for ( int k = 0; k < BITS; k++ ) {
+                    sliced[ b * BITS + k ] |= (long)((value >>> k) & 1) << lane;
+                }
+            }
+        }
+    }
+
+    private static void xor( long[] target, long[] source )
+    {
+        for ( int i = 0; i < target.length; i++ ) {
+            target[ i ] ^= source[ i ];
+        }
+    }
+
+    /**
+     * AES-128 key schedule on the bitsliced round key 0.
+     */
+    private void expandKeys()
+    {
+        for ( int round = 1; round <= ROUNDS; round++ ) {
+            long[] previous = roundKeys[ round - 1 ];
+            long[] current = roundKeys[ round ];
+
+            // RotWord of the last word of the previous round key, then SubWord
+            for ( int b = 0; b < 4; b++ ) {
+                System.arraycopy( previous, (12 + (b + 1) % 4) * BITS, word, b * BITS, BITS );
+                subByte( word, b * BITS );
+            }
+            int roundConstant = ROUND_CONSTANTS[ round - 1 ];
+            for ( int k = 0; k < BITS; k++ ) {
+                if ( ((roundConstant >>> k) & 1) != 0 ) {
+                    word[ k ] = ~word[ k ];
+                }
+            }
+
+            for ( int i = 0; i < 4 * BITS; i++ ) {
+                current[ i ] = previous[ i ] ^ word[ i ];
+            }
+            for ( int i = 4 * BITS; i < BLOCK_BYTES * BITS; i++ ) {
+                current[ i ] = previous[ i ] ^ current[ i - 4 * BITS ];
+            }
+        }
+    }
+
+    /**
+     * State byte {@code row + 4 * column} moves to column {@code column - row}.
+     */
+    private void shiftRows()
+    {
+        for ( int row = 0; row < 4; row++ ) {
+            for ( int column = 0; column < 4; column++ ) {
+                int from = row + 4 * ((column + row) % 4);
+                System.arraycopy( state, from * BITS, shifted, (row + 4 * column) * BITS, BITS );
+            }
+        }
+        System.arraycopy( shifted, 0, state, 0, state.length );
+    }
+
+    private void mixColumns()
+    {
+        for ( int column = 0; column < 4; column++ ) {
+            int a0 = (4 * column) * BITS;
+            int a1 = a0 + BITS;
+            int a2 = a1 + BITS;
+            int a3 = a2 + BITS;
+            // b_i = a_i ^ t ^ xtime(a_i ^ a_(i+1)) with t = a0 ^ a1 ^ a2 ^ a3
+            long carry01 = state[ a0 + 7 ] ^ state[ a1 + 7 ];
+            long carry12 = state[ a1 + 7 ] ^ state[ a2 + 7 ];
+            long carry23 = state[ a2 + 7 ] ^ state[ a3 + 7 ];
+            long carry30 = state[ a3 + 7 ] ^ state[ a0 + 7 ];
+            for ( int k = BITS - 1; k >= 0; k-- ) {
+                long t = state[ a0 + k ] ^ state[ a1 + k ] ^ state[ a2 + k ] ^ state[ a3 + k ];
+                long x01 = xtimeBit( state, a0, a1, k, carry01 );
+                long x12 = xtimeBit( state, a1, a2, k, carry12 );
+                long x23 = xtimeBit( state, a2, a3, k, carry23 );
+                long x30 = xtimeBit( state, a3, a0, k, carry30 );
+                shifted[ k ] = state[ a0 + k ] ^ t ^ x01;
+                shifted[ BITS + k ] = state[ a1 + k ] ^ t ^ x12;
+                shifted[ 2 * BITS + k ] = state[ a2 + k ] ^ t ^ x23;
+                shifted[ 3 * BITS + k ] = state[ a3 + k ] ^ t ^ x30;
+            }
+            System.arraycopy( shifted, 0, state, a0, 4 * BITS );
+        }
+    }
+
+    /**
+     * Bit k of xtime(x ^ y), where carry is bit 7 of x ^ y.
+     * xtime multiplies by 2 modulo x^8 + x^4 + x^3 + x + 1.
+     */
+    private static long xtimeBit( long[] bytes, int x, int y, int k, long carry )
+    {
+        long shiftedIn = k == 0 ? 0 : bytes[ x + k - 1 ] ^ bytes[ y + k - 1 ];
+        return (k == 0 || k == 1 || k == 3 || k == 4) ? shiftedIn ^ carry : shiftedIn;
+    }
+
+    /**
+     * Replaces the byte at offset by its S-box value, using the 113 gate
+     * circuit by Boyar and Peralta: a linear layer, the inversion in
+     * GF(2^8) in a tower field and another linear layer that includes the
+     * affine transform.
+     */
+    private static void subByte( long[] bytes, int offset )
+    {
+        long x0 = bytes[ offset + 7 ];
+        long x1 = bytes[ offset + 6 ];
+        long x2 = bytes[ offset + 5 ];
+        long x3 = bytes[ offset + 4 ];
+        long x4 = bytes[ offset + 3 ];
+        long x5 = bytes[ offset + 2 ];
+        long x6 = bytes[ offset + 1 ];
+        long x7 = bytes[ offset ];
+
+        // top linear transformation
+        long y14 = x3 ^ x5;
+        long y13 = x0 ^ x6;
+        long y9 = x0 ^ x3;
+        long y8 = x0 ^ x5;
+        long t0 = x1 ^ x2;
+        long y1 = t0 ^ x7;
+        long y4 = y1 ^ x3;
+        long y12 = y13 ^ y14;
+        long y2 = y1 ^ x0;
+        long y5 = y1 ^ x6;
+        long y3 = y5 ^ y8;
+        long t1 = x4 ^ y12;
+        long y15 = t1 ^ x5;
+        long y20 = t1 ^ x1;
+        long y6 = y15 ^ x7;
+        long y10 = y15 ^ t0;
+        long y11 = y20 ^ y9;
+        long y7 = x7 ^ y11;
+        long y17 = y10 ^ y11;
+        long y19 = y10 ^ y8;
+        long y16 = t0 ^ y11;
+        long y21 = y13 ^ y16;
+        long y18 = x0 ^ y16;
+
+        // non-linear section
+        long t2 = y12 & y15;
+        long t3 = y3 & y6;
+        long t4 = t3 ^ t2;
+        long t5 = y4 & x7;
+        long t6 = t5 ^ t2;
+        long t7 = y13 & y16;
+        long t8 = y5 & y1;
+        long t9 = t8 ^ t7;
+        long t10 = y2 & y7;
+        long t11 = t10 ^ t7;
+        long t12 = y9 & y11;
+        long t13 = y14 & y17;
+        long t14 = t13 ^ t12;
+        long t15 = y8 & y10;
+        long t16 = t15 ^ t12;
+        long t17 = t4 ^ t14;
+        long t18 = t6 ^ t16;
+        long t19 = t9 ^ t14;
+        long t20 = t11 ^ t16;
+        long t21 = t17 ^ y20;
+        long t22 = t18 ^ y19;
+        long t23 = t19 ^ y21;
+        long t24 = t20 ^ y18;
+
+        long t25 = t21 ^ t22;
+        long t26 = t21 & t23;
+        long t27 = t24 ^ t26;
+        long t28 = t25 & t27;
+        long t29 = t28 ^ t22;
+        long t30 = t23 ^ t24;
+        long t31 = t22 ^ t26;
+        long t32 = t31 & t30;
+        long t33 = t32 ^ t24;
+        long t34 = t23 ^ t33;
+        long t35 = t27 ^ t33;
+        long t36 = t24 & t35;
+        long t37 = t36 ^ t34;
+        long t38 = t27 ^ t36;
+        long t39 = t29 & t38;
+        long t40 = t25 ^ t39;
+
+        long t41 = t40 ^ t37;
+        long t42 = t29 ^ t33;
+        long t43 = t29 ^ t40;
+        long t44 = t33 ^ t37;
+        long t45 = t42 ^ t41;
+        long z0 = t44 & y15;
+        long z1 = t37 & y6;
+        long z2 = t33 & x7;
+        long z3 = t43 & y16;
+        long z4 = t40 & y1;
+        long z5 = t29 & y7;
+        long z6 = t42 & y11;
+        long z7 = t45 & y17;
+        long z8 = t41 & y10;
+        long z9 = t44 & y12;
+        long z10 = t37 & y3;
+        long z11 = t33 & y4;
+        long z12 = t43 & y13;
+        long z13 = t40 & y5;
+        long z14 = t29 & y2;
+        long z15 = t42 & y9;
+        long z16 = t45 & y14;
+        long z17 = t41 & y8;
+
+        // bottom linear transformation
+        long t46 = z15 ^ z16;
+        long t47 = z10 ^ z11;
+        long t48 = z5 ^ z13;
+        long t49 = z9 ^ z10;
+        long t50 = z2 ^ z12;
+        long t51 = z2 ^ z5;
+        long t52 = z7 ^ z8;
+        long t53 = z0 ^ z3;
+        long t54 = z6 ^ z7;
+        long t55 = z16 ^ z17;
+        long t56 = z12 ^ t48;
+        long t57 = t50 ^ t53;
+        long t58 = z4 ^ t46;
+        long t59 = z3 ^ t54;
+        long t60 = t46 ^ t57;
+        long t61 = z14 ^ t57;
+        long t62 = t52 ^ t58;
+        long t63 = t49 ^ t58;
+        long t64 = z4 ^ t59;
+        long t65 = t61 ^ t62;
+        long t66 = z1 ^ t63;
+        long s0 = t59 ^ t63;
+        long s6 = t56 ^ ~t62;
+        long s7 = t48 ^ ~t60;
+        long t67 = t64 ^ t65;
+        long s3 = t53 ^ t66;
+        long s4 = t51 ^ t66;
+        long s5 = t47 ^ t65;
+        long s1 = t64 ^ ~s3;
+        long s2 = t55 ^ ~t67;
+
+        bytes[ offset + 7 ] = s0;
+        bytes[ offset + 6 ] = s1;
+        bytes[ offset + 5 ] = s2;
+        bytes[ offset + 4 ] = s3;
+        bytes[ offset + 3 ] = s4;
+        bytes[ offset + 2 ] = s5;
+        bytes[ offset + 1 ] = s6;
+        bytes[ offset ] = s7;
+    }
+}
@@ -1,25 +1,20 @@
 package ch.zhaw.sws2.random.bydate;
 
-import java.security.AlgorithmParameters;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidParameterSpecException;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.DoubleAccumulator;
 
 import javax.crypto.*;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
 
 
 /**
  * <p>BruteForcer to brute force the "Netscape encryption".
- * Multiple BruteForcers can be used and run in parallel to
- * search different parts of the keyspace at the same time.
+ * A BruteForcer searches one chunk of the keyspace at a time
+ * (a second and a range of microseconds within it), see
+ * {@link KeyspacePartitioner}. It keeps per-candidate state
+ * and must therefore only be used by one thread; multiple
+ * BruteForcers run in parallel to search different chunks
+ * at the same time.
  * Bruteforcing stops when the assigned keyspace has been
  * searched or when one of the BruteForcers finds a candidate
  * that is considered "good enough" based on the rating of the
@@ -33,26 +28,154 @@ import javax.crypto.spec.SecretKeySpec;
  */
 public class BruteForcer
 {
-    private static final double             LN2              = Math.log( 2.0 );
-    private static       AtomicBoolean      isContinueSearch = new AtomicBoolean( true );
-    private              TreeSet<Candidate> set              = new TreeSet<>( Comparator.comparingDouble( Candidate::getRating ) );
-    private              byte[]             decryptedContent = new byte[ Crack.DECRYPT_MAX_BYTES ];
+    private byte[]        decryptedContent = new byte[ Crack.DECRYPT_MAX_BYTES ];
+    private Scorer        scorer;
+    /**
+     * The scorer if it is the entropy alone, which rates while decrypting
+     */
+    private EntropyScorer entropyScorer;
+    /**
+     * Whether a first block the scorer has no opinion on must pass the {@link PlaintextFilter}
+     */
+    private boolean       textFilter;
+
+    /**
+     * Default threshold below which a candidate stops the search
+     */
+    public static final double RATING_THRESHOLD_TO_STOP_SEARCHING = 1;
+
+    /**
+     * Candidates rated below this threshold are published to the board
+     */
+    private static final double RATING_THRESHOLD_TO_REPORT = 7.5;
 
-    private static final double RATING_THRESHOLD_TO_STOP_SEARCHING = 1;
+    /**
+     * Minimum number of known plaintext bytes for a match to stop the search
+     */
+    private static final int MIN_CONFIRMING_BYTES = 8;
+
+    /**
+     * Number of consecutive microseconds whose keys are derived at once
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of bytes decrypted between two sequential tests of the
+     * {@link EntropyScorer}, a multiple of every block size
+     */
+    private static final int SCORE_STEP_BYTES = 64;
 
     private MyFakeSystemImpl system;
-    private NetscapeKeygen   keygen;
+    private BatchKeygen      keygen = new BatchKeygen();
+    private byte[]           ivs    = new byte[ BATCH_SIZE * BatchKeygen.BLOCK_BYTES ];
+    private byte[]           keys   = new byte[ BATCH_SIZE * BatchKeygen.BLOCK_BYTES ];
     private String           cipherSpec;
-    private double           currentMinRating;
     private String           cipherAlgorithm;
+    private SearchStrategy   strategy;
+    private byte[]           headerIv;
+    private byte[]           encryptedData;
+    private ZoneId           zone;
+    private CandidateBoard   board;
+    private PlaintextDeriver plaintext;
+    private KnownPlaintext   knownPlaintext;
+    private CryptoContext    crypto;
+    private ModeTester       tester;
+    private byte[]           keystream;
+    private BitslicedAes     bitsliced;
+    private byte[]           keystreams;
+    private byte[]           expectedKeystream;
+    private byte[]           keystreamMask;
+    private SearchMetrics.Counters counters;
 
-    public BruteForcer( String cipherSpec, long uSeconds, ZonedDateTime date )
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec    cipher specification like e.g., AES/CTR/NoPadding
+     * @param zone          time zone of the searched dates
+     * @param strategy      strategy used to test the candidates
+     * @param headerIv      IV read from the header of the encrypted file,
+     *                      required for {@link SearchStrategy#IV_MATCH}
+     * @param encryptedData all encrypted data following the header
+     * @param board          board shared by all BruteForcers of a search
+     * @param knownPlaintext known plaintext prefix, required for
+     *                       {@link SearchStrategy#KNOWN_PLAINTEXT}
+     * @param useBitsliced   whether to compute keystream block 0 with
+     *                       {@link BitslicedAes} instead of the JCE (AES/CTR only)
+     * @param metrics        metrics of the search; the BruteForcer registers
+     *                       the counters of its thread
+     */
+    public BruteForcer( String cipherSpec, ZoneId zone, SearchStrategy strategy, byte[] headerIv, byte[] encryptedData,
+                        CandidateBoard board, KnownPlaintext knownPlaintext, boolean useBitsliced, SearchMetrics metrics )
+    {
+        this( cipherSpec, zone, strategy, headerIv, encryptedData, true, board, knownPlaintext, useBitsliced, metrics,
+            new EntropyScorer(), false );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec    cipher specification like e.g., AES/CTR/NoPadding
+     * @param zone          time zone of the searched dates
+     * @param strategy      strategy used to test the candidates
+     * @param headerIv      IV read from the header of the encrypted file,
+     *                      required for {@link SearchStrategy#IV_MATCH}
+     * @param encryptedData encrypted data following the header
+     * @param complete      whether the encrypted data goes up to the end
+     *                      of the file, see {@link ModeTester}
+     * @param board          board shared by all BruteForcers of a search
+     * @param knownPlaintext known plaintext prefix, required for
+     *                       {@link SearchStrategy#KNOWN_PLAINTEXT}
+     * @param useBitsliced   whether to compute keystream block 0 with
+     *                       {@link BitslicedAes} instead of the JCE (AES/CTR only)
+     * @param metrics        metrics of the search; the BruteForcer registers
+     *                       the counters of its thread
+     * @param scorer         rates the candidates, used by this BruteForcer
+     *                       only, see {@link ScorerChain#forWorker()}
+     * @param textFilter     whether to reject candidates whose first block
+     *                       doesn't look like text, see {@link PlaintextFilter}
+     */
+    public BruteForcer( String cipherSpec, ZoneId zone, SearchStrategy strategy, byte[] headerIv, byte[] encryptedData,
+                        boolean complete, CandidateBoard board, KnownPlaintext knownPlaintext, boolean useBitsliced,
+                        SearchMetrics metrics, Scorer scorer, boolean textFilter )
     {
-        System.out.println(uSeconds);
-        this.system = new MyFakeSystemImpl( uSeconds, date.getZone() );
+        if ( strategy == SearchStrategy.IV_MATCH && headerIv == null ) {
+            throw new IllegalArgumentException( "IV matching requires the IV from the file header" );
+        }
+        if ( strategy == SearchStrategy.KNOWN_PLAINTEXT ) {
+            if ( knownPlaintext == null || !cipherSpec.contains( "CTR" ) ) {
+                throw new IllegalArgumentException( "Known plaintext search requires CTR mode and a known plaintext" );
+            }
+        }
+        this.crypto = new CryptoContext( cipherSpec );
+        this.tester = new ModeTester( cipherSpec, crypto, encryptedData, complete );
+        if ( strategy == SearchStrategy.KNOWN_PLAINTEXT ) {
+            this.keystream = new byte[ crypto.getBlockSize() ];
+        }
+        if ( useBitsliced ) {
+            if ( !cipherSpec.startsWith( "AES/CTR/" ) ) {
+                throw new IllegalArgumentException( "The bitsliced engine requires AES in CTR mode" );
+            }
+            this.bitsliced = new BitslicedAes();
+            this.keystreams = new byte[ BitslicedAes.LANES * BitslicedAes.BLOCK_BYTES ];
+            if ( strategy == SearchStrategy.KNOWN_PLAINTEXT ) {
+                this.expectedKeystream = new byte[ BitslicedAes.BLOCK_BYTES ];
+                this.keystreamMask = new byte[ BitslicedAes.BLOCK_BYTES ];
+                knownPlaintext.getExpectedKeystream( encryptedData, 0, expectedKeystream, keystreamMask );
+            }
+        }
+        this.knownPlaintext = knownPlaintext;
         this.cipherSpec = cipherSpec;
         this.cipherAlgorithm = getCipherAlgorithmFromSpec( cipherSpec );
-
+        this.strategy = strategy;
+        this.headerIv = headerIv;
+        this.encryptedData = encryptedData;
+        this.zone = zone;
+        this.board = board;
+        this.plaintext = new PlaintextDeriver( cipherSpec, encryptedData, complete );
+        this.counters = metrics.register();
+        this.scorer = scorer;
+        this.entropyScorer = scorer instanceof EntropyScorer ? (EntropyScorer)scorer : null;
+        this.textFilter = textFilter;
     }
 
     private static String getCipherAlgorithmFromSpec( String cipherSpec )
@@ -60,50 +183,235 @@ public class BruteForcer
         return cipherSpec.split( "/" )[ 0 ];
     }
 
-    public Candidate getBestCandidate()
+    /**
+     * Searches count microseconds of the given second, starting at firstUsec.
+     * Returns early if the board has stopped the search.
+     *
+     * @param secondsSinceEpoch second to search
+     * @param firstUsec         first microsecond to search
+     * @param count             number of microseconds to search
+     */
+    public void search( long secondsSinceEpoch, int firstUsec, int count )
     {
-        return set.first();
+        system = new MyFakeSystemImpl( secondsSinceEpoch * Constants.USECS_PER_SECOND + firstUsec, zone );
+        long timeInput = BatchKeygen.timeInput( secondsSinceEpoch, system.getpid(), system.getppid() );
+        int end = firstUsec + count;
+        for ( int batchUsec = firstUsec; batchUsec < end && !board.isStopped(); batchUsec += BATCH_SIZE ) {
+            int batchSize = Math.min( BATCH_SIZE, end - batchUsec );
+            counters.add( SearchMetrics.Counter.KEYS_TESTED, batchSize );
+            if ( strategy == SearchStrategy.IV_MATCH ) {
+                if ( searchIvMatch( timeInput, batchUsec, batchSize ) ) {
+                    return;
+                }
+            } else if ( strategy == SearchStrategy.KNOWN_PLAINTEXT ) {
+                if ( bitsliced != null ) {
+                    searchKnownPlaintextBitsliced( timeInput, batchUsec, batchSize );
+                } else {
+                    searchKnownPlaintext( timeInput, batchUsec, batchSize );
+                }
+            } else if ( bitsliced != null && encryptedData.length > BitslicedAes.BLOCK_BYTES ) {
+                searchDecryptBitsliced( timeInput, batchUsec, batchSize );
+            } else {
+                searchDecrypt( timeInput, batchUsec, batchSize );
+            }
+        }
+        counters.add( SearchMetrics.Counter.CHUNKS_DONE, 1 );
     }
 
-    public void run( byte[] encryptedData )
+    private void searchDecrypt( long timeInput, int firstUsec, int batchSize )
     {
-        System.out.println( "running" );
-       // for(long i = 0; i < 660; i = i + 30) {
-            long usecOffset = 0;
-        system.addMicroseconds( 19*30*Constants.SECONDS_PER_MINUTE*Constants.USECS_PER_SECOND );
-        //    system.addMicroseconds( i * Constants.SECONDS_PER_MINUTE * Constants.USECS_PER_SECOND);
-            while ( usecOffset < Constants.USECS_PER_SECOND ) {
-                try {
-                    keygen = new NetscapeKeygen( system, cipherAlgorithm );
-                    decrypt( encryptedData );
-                    double rating = getRating();
-                    //System.out.println(rating);
-                    if ( rating < 7.5 ) {
-                        System.out.println( new String( decryptedContent ) );
-                        System.out.println( getRating() );
+        keygen.derive( timeInput, firstUsec, batchSize, ivs, keys );
+        for ( int i = 0; i < batchSize; i++ ) {
+            try {
+                decryptAndRate( i * BatchKeygen.BLOCK_BYTES, true );
+            } catch ( BadPaddingException e ) {
+                // wrong key
+            }
+            system.addMicroseconds( 1 );
+        }
+    }
+
+    /**
+     * Like {@link #searchDecrypt(long, int, int)}, but the first block of
+     * every group of {@link BitslicedAes#LANES} candidates is decrypted at
+     * once by {@link BitslicedAes}. Only candidates whose first block
+     * passes {@link #isPlausibleStart(int)} are
+     * decrypted by the JCE and rated.
+     */
+    private void searchDecryptBitsliced( long timeInput, int firstUsec, int batchSize )
+    {
+        keygen.derive( timeInput, firstUsec, batchSize, ivs, keys );
+        for ( int lane0 = 0; lane0 < batchSize; lane0 += BitslicedAes.LANES ) {
+            int lanes = Math.min( BitslicedAes.LANES, batchSize - lane0 );
+            int base = lane0 * BatchKeygen.BLOCK_BYTES;
+            bitsliced.encrypt( keys, base, ivs, base, lanes );
+            bitsliced.getBlocks( keystreams, 0, lanes );
+            for ( int lane = 0; lane < lanes; lane++ ) {
+                for ( int i = 0; i < BitslicedAes.BLOCK_BYTES; i++ ) {
+                    decryptedContent[ i ] = (byte)(keystreams[ lane * BitslicedAes.BLOCK_BYTES + i ] ^ encryptedData[ i ]);
+                }
+                if ( isPlausibleStart( BitslicedAes.BLOCK_BYTES ) ) {
+                    counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+                    try {
+                        decryptAndRate( base + lane * BatchKeygen.BLOCK_BYTES, false );
+                    } catch ( BadPaddingException e ) {
+                        // wrong key
                     }
-                    system.addMicroseconds( 1 );
-                    usecOffset++;
-                } catch ( Exception e ) {
-                    e.printStackTrace();
                 }
+                system.addMicroseconds( 1 );
             }
-      //  }
+        }
     }
 
-    private boolean updateRating( boolean continueSearch )
+    /**
+     * Publishes a candidate to the board.
+     *
+     * @return true if the board has kept the candidate
+     */
+    private boolean publish( Candidate candidate )
     {
-        double rating = getRating();
-        if ( rating < currentMinRating ) {
-            currentMinRating = rating;
+        if ( !board.publish( candidate ) ) {
+            return false;
+        }
+        counters.add( SearchMetrics.Counter.PUBLISHED, 1 );
+        System.out.println( candidate );
+        return true;
+    }
 
-            set.add( new Candidate( system, decryptedContent, rating ) );
-            if ( rating < RATING_THRESHOLD_TO_STOP_SEARCHING ) {
-                continueSearch = false;
-                isContinueSearch.set( false );
+    /**
+     * Searches by comparing the IV derived for each candidate with the
+     * IV stored in the file header. This costs two MD5 digests and a
+     * 16 byte comparison per candidate. The IV is derived from the same
+     * seed as the key, so only the matching candidate is decrypted and rated.
+     *
+     * @return true if the IV has been found
+     */
+    private boolean searchIvMatch( long timeInput, int firstUsec, int batchSize )
+    {
+        keygen.derive( timeInput, firstUsec, batchSize, ivs, null );
+        for ( int i = 0; i < batchSize; i++ ) {
+            if ( isHeaderIv( i * BatchKeygen.BLOCK_BYTES ) ) {
+                counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+                system.addMicroseconds( i );
+                keygen.derive( timeInput, firstUsec + i, 1, ivs, keys );
+                try {
+                    decrypt( 0 );
+                } catch ( BadPaddingException e ) {
+                    throw new IllegalStateException( e );
+                }
+                double rating = getRating();
+                Candidate candidate = new Candidate( system, rating, plaintext );
+                if ( board.publish( candidate ) ) {
+                    counters.add( SearchMetrics.Counter.PUBLISHED, 1 );
+                }
+                // the IV is derived from the same seed as the key, so this is the one
+                board.stop();
+                System.out.println( "IV match: " + candidate );
+                return true;
             }
         }
-        return continueSearch;
+        system.addMicroseconds( batchSize );
+        return false;
+    }
+
+    /**
+     * Searches by encrypting the first CTR counter block, which is the IV,
+     * with each candidate key. The result is keystream block 0, so the
+     * candidate is only decrypted and rated if keystream XOR ciphertext
+     * matches the known plaintext. This costs one block operation per
+     * candidate.
+     */
+    private void searchKnownPlaintext( long timeInput, int firstUsec, int batchSize )
+    {
+        keygen.derive( timeInput, firstUsec, batchSize, ivs, keys );
+        for ( int i = 0; i < batchSize; i++ ) {
+            int offset = i * BatchKeygen.BLOCK_BYTES;
+            crypto.encryptBlock( keys, offset, ivs, offset, keystream, 0 );
+            if ( knownPlaintext.matchesKeystream( keystream, 0, encryptedData, 0, keystream.length ) ) {
+                counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+                try {
+                    confirmKnownPlaintext( offset );
+                } catch ( BadPaddingException e ) {
+                    throw new IllegalStateException( e );
+                }
+            }
+            system.addMicroseconds( 1 );
+        }
+    }
+
+    /**
+     * Like {@link #searchKnownPlaintext(long, int, int)}, but keystream
+     * block 0 of {@link BitslicedAes#LANES} candidates is computed at once
+     * and compared with the expected keystream while still bitsliced.
+     */
+    private void searchKnownPlaintextBitsliced( long timeInput, int firstUsec, int batchSize )
+    {
+        keygen.derive( timeInput, firstUsec, batchSize, ivs, keys );
+        for ( int lane0 = 0; lane0 < batchSize; lane0 += BitslicedAes.LANES ) {
+            int lanes = Math.min( BitslicedAes.LANES, batchSize - lane0 );
+            int base = lane0 * BatchKeygen.BLOCK_BYTES;
+            bitsliced.encrypt( keys, base, ivs, base, lanes );
+            long matches = ~bitsliced.getMismatchingLanes( expectedKeystream, keystreamMask );
+            if ( lanes < BitslicedAes.LANES ) {
+                matches &= (1L << lanes) - 1;
+            }
+            for ( ; matches != 0; matches &= matches - 1 ) {
+                int lane = Long.numberOfTrailingZeros( matches );
+                counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+                system.addMicroseconds( lane0 + lane );
+                try {
+                    confirmKnownPlaintext( base + lane * BatchKeygen.BLOCK_BYTES );
+                } catch ( BadPaddingException e ) {
+                    throw new IllegalStateException( e );
+                }
+                system.addMicroseconds( -(lane0 + lane) );
+            }
+        }
+        system.addMicroseconds( batchSize );
+    }
+
+    private void confirmKnownPlaintext( int offset )
+        throws BadPaddingException
+    {
+        decrypt( offset );
+        if ( !knownPlaintext.matches( decryptedContent ) ) {
+            return;
+        }
+        Candidate candidate = new Candidate( system, getRating(), plaintext );
+        if ( board.publish( candidate ) ) {
+            counters.add( SearchMetrics.Counter.PUBLISHED, 1 );
+        }
+        if ( knownPlaintext.getKnownCount() >= MIN_CONFIRMING_BYTES ) {
+            board.stop();
+        }
+        System.out.println( "Known plaintext match: " + candidate );
+    }
+
+    /**
+     * Publishes a well rated GCM candidate if its tag matches, which
+     * confirms the key and stops the search, see {@link ModeTester#verifyTag(byte[], int, byte[], int)}.
+     */
+    private void confirmTag( int offset, double rating )
+    {
+        if ( !tester.verifyTag( keys, offset, ivs, offset ) ) {
+            return;
+        }
+        Candidate candidate = new Candidate( system, rating, plaintext );
+        if ( board.publish( candidate ) ) {
+            counters.add( SearchMetrics.Counter.PUBLISHED, 1 );
+        }
+        board.stop();
+        System.out.println( "Tag match: " + candidate );
+    }
+
+    private boolean isHeaderIv( int offset )
+    {
+        for ( int i = 0; i < BatchKeygen.BLOCK_BYTES; i++ ) {
+            if ( ivs[ offset + i ] != headerIv[ i ] ) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -114,45 +422,152 @@ public class BruteForcer
      */
     private double getRating()
     {
-        Map<Character, Integer> map = new HashMap<>();
-        // count the occurrences of each value
-        for ( byte sequence : decryptedContent ) {
-            Character character = new Character( (char)(sequence & 0xFF) );
-            if ( !map.containsKey( character ) ) {
-                map.put( character, 0 );
-            }
-            map.put( character, map.get( character ) + 1 );
-        }
+        counters.add( SearchMetrics.Counter.RATED, 1 );
+        return scorer.score( decryptedContent, getRatedLength() );
+    }
+
+    /**
+     * @return number of bytes rated: all of {@link #decryptedContent} for
+     * the entropy as ever, only the decrypted bytes for other scorers,
+     * which would take the zeros after short data for part of the text
+     */
+    private int getRatedLength()
+    {
+        return entropyScorer != null ? decryptedContent.length : tester.getCiphertextLength();
+    }
+
+    /**
+     * @return rating below which candidates are published: the threshold
+     * to report or the worst rating on a full board
+     */
+    private double getThreshold()
+    {
+        return Math.min( RATING_THRESHOLD_TO_REPORT, board.getAcceptLimit() );
+    }
 
-        // calculate the entropy
-        Double result = 0.0;
-        for ( Character sequence : map.keySet() ) {
-            Double frequency = (double)map.get( sequence ) / decryptedContent.length;
-            result -= frequency * (Math.log( frequency ) / Math.log( 2 ));
+    /**
+     * Checks the first decrypted block with the scorer. If the scorer has
+     * no opinion on it, the block passes, or with {@link #textFilter}
+     * must pass the {@link PlaintextFilter}, which rejects binary
+     * plaintexts like images.
+     *
+     * @param length number of bytes decrypted
+     * @return true if the rest of the data is worth decrypting
+     */
+    private boolean isPlausibleStart( int length )
+    {
+        double rating = scorer.scoreStart( decryptedContent, length );
+        if ( Double.isNaN( rating ) ) {
+            return !textFilter || PlaintextFilter.isPlausible( decryptedContent, length );
         }
-        return result;
+        return rating < getThreshold();
     }
 
-    private void decrypt( byte[] encryptedData )
+    /**
+     * Decrypts the data with the key and IV at the given offset of
+     * {@link #keys} and {@link #ivs}, see {@link ModeTester#decrypt(byte[], int, byte[], int, byte[])}.
+     *
+     * @param offset offset of the key and IV
+     */
+    private void decrypt( int offset )
         throws BadPaddingException
     {
-        Cipher cipher;
-        try {
-            keygen.makeKey();
-            cipher = Cipher.getInstance( cipherSpec );
-            AlgorithmParameters algParam = keygen.getAlgorithmParameters();
-            algParam.init( new IvParameterSpec( keygen.getIv() ) );
+        tester.decrypt( keys, offset, ivs, offset, decryptedContent );
+    }
 
-            SecretKeySpec skeySpec = keygen.getSecretKeySpec();
-            cipher.init( Cipher.DECRYPT_MODE, skeySpec, algParam );
+    /**
+     * Decrypts the data with the key and IV at the given offset of
+     * {@link #keys} and {@link #ivs}, rates it while decrypting it and
+     * publishes it if it is good enough.
+     * <p>
+     * <p>With early reject, only the first cipher block is decrypted at
+     * first, by {@link ModeTester#decryptFirstBlock(byte[], int, byte[], int, byte[])}.
+     * The rest of the data is only decrypted if that block passes
+     * {@link #isPlausibleStart(int)}, which almost all wrong keys fail if
+     * the scorer or the text filter judges the first block.</p>
+     * <p>
+     * <p>If the scorer is the {@link EntropyScorer} alone and the JCE
+     * decrypts the mode as the data comes, the data is
+     * decrypted {@link #SCORE_STEP_BYTES} at a time and added to the
+     * scorer. The candidate is abandoned as
+     * soon as {@link EntropyScorer#isClearlyAbove(double)} shows that it
+     * won't be rated below the threshold to report nor make it onto the
+     * board, which takes a few hundred bytes for a wrong key. Candidates
+     * that are not abandoned are rated on all of the data.</p>
+     * <p>
+     * <p>A GCM candidate that is good enough is only published if its
+     * tag matches, if the data includes the tag.</p>
+     *
+     * @param offset      offset of the key and IV
+     * @param earlyReject whether to check the first block before decrypting the rest
+     */
+    private void decryptAndRate( int offset, boolean earlyReject )
+        throws BadPaddingException
+    {
+        // without a first block to check, there is no first stage to pass
+        if ( earlyReject && tester.decryptFirstBlock( keys, offset, ivs, offset, decryptedContent ) ) {
+            if ( !isPlausibleStart( tester.getBlockSize() ) ) {
+                return;
+            }
+            counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+        }
 
-            cipher.update( encryptedData, 0, encryptedData.length, decryptedContent, 0 );
+        double rating;
+        if ( entropyScorer == null || !tester.isStreaming() ) {
+            decrypt( offset );
+            rating = getRating();
+        } else {
+            try {
+                Cipher cipher = crypto.initDecrypt( keys, offset, ivs, offset );
+                if ( !decryptWhileRating( cipher ) ) {
+                    counters.add( SearchMetrics.Counter.ABANDONED, 1 );
+                    return;
+                }
+            } catch ( InvalidKeyException
+                | InvalidAlgorithmParameterException | ShortBufferException e ) {
+                entropyScorer.reset();
+                throw new IllegalStateException( e );
+            }
+            counters.add( SearchMetrics.Counter.RATED, 1 );
+            rating = entropyScorer.finish();
+        }
+        if ( rating < RATING_THRESHOLD_TO_REPORT && board.accepts( rating ) ) {
+            if ( tester.hasTag() ) {
+                confirmTag( offset, rating );
+            } else {
+                publish( new Candidate( system, rating, plaintext ) );
+            }
+        }
+    }
 
-        } catch ( NoSuchAlgorithmException
-            | NoSuchPaddingException | InvalidParameterSpecException
-            | InvalidKeyException
-            | InvalidAlgorithmParameterException | ShortBufferException e ) {
-            throw new IllegalStateException( e );
+    /**
+     * Decrypts the rest of the data {@link #SCORE_STEP_BYTES} at a time
+     * and adds it to the {@link EntropyScorer}, see
+     * {@link #decryptAndRate(int, boolean)}.
+     *
+     * @param cipher cipher initialized to decrypt the data
+     * @return false if the candidate has been abandoned; otherwise the
+     * scorer holds all of {@link #decryptedContent}
+     */
+    private boolean decryptWhileRating( Cipher cipher )
+        throws ShortBufferException
+    {
+        double threshold = getThreshold();
+        int inputOffset = 0;
+        int outputOffset = 0;
+        while ( inputOffset < encryptedData.length ) {
+            int length = Math.min( SCORE_STEP_BYTES, encryptedData.length - inputOffset );
+            int decrypted = cipher.update( encryptedData, inputOffset, length, decryptedContent, outputOffset );
+            entropyScorer.add( decryptedContent, outputOffset, outputOffset + decrypted );
+            inputOffset += length;
+            outputOffset += decrypted;
+            if ( inputOffset < encryptedData.length && entropyScorer.isClearlyAbove( threshold ) ) {
+                entropyScorer.reset();
+                return false;
+            }
         }
+        // the same bytes as getRating(), so the rating doesn't change
+        entropyScorer.add( decryptedContent, outputOffset, decryptedContent.length );
+        return true;
     }
 }
\ No newline at end of file
@@ -12,6 +12,13 @@ import java.util.Arrays;
  * 
  * <p>Useful to store promising results that a human 
  * can look at when the brute forcing process has ended.<p> 
+ *
+ * <p>A candidate is packed into its time in microseconds
+ * since the epoch and a float rating, about 32 bytes per
+ * candidate. The decrypted data is not kept but derived
+ * again from the time by a {@link PlaintextDeriver} when
+ * it is looked at, so millions of candidates fit into
+ * some tens of MB.</p>
  *  
  * @author Bernhard Tellenbach &lt;tebe@zhaw.ch&gt;
  * @version 1.0
@@ -19,37 +26,95 @@ import java.util.Arrays;
  */
 public class Candidate {
   private static final int MAX_PLAINTEXT_RETURN = 50;
-  private final byte[] buffer;
-  private final double rating;
-  private final long secondsSinceEpoch;
-  private final int usecs;
+  private final long usecsSinceEpoch;
+  private final float rating;
+  private final PlaintextDeriver plaintext;
 
   
   /**Constructor.
    * @param system system used to decrypt the data
-   * @param buffer decrypted data
    * @param rating rating of this candidate 
+   * @param plaintext derives the decrypted data when needed
    */
-  public Candidate(MySystem system, byte[] buffer, double rating) {
-    this.buffer = Arrays.copyOf(buffer,buffer.length);
-    this.secondsSinceEpoch = system.getSecondsSinceEpoch();
-    this.usecs = system.getUsecs();
-    this.rating = rating;
+  public Candidate(MySystem system, double rating, PlaintextDeriver plaintext) {
+    this(system.getSecondsSinceEpoch(), system.getUsecs(), rating, plaintext);
+  }
+
+  /**Constructor.
+   * @param secondsSinceEpoch seconds since the epoch of this candidate
+   * @param usecs microseconds of this candidate
+   * @param rating rating of this candidate 
+   * @param plaintext derives the decrypted data when needed
+   */
+  public Candidate(long secondsSinceEpoch, int usecs, double rating,
+      PlaintextDeriver plaintext) {
+    this.usecsSinceEpoch = secondsSinceEpoch * Constants.USECS_PER_SECOND
+        + usecs;
+    this.rating = (float) rating;
+    this.plaintext = plaintext;
+  }
+
+  /**Decrypts the data again, see {@link PlaintextDeriver}.
+   * @return the decrypted data
+   */
+  public byte[] getBuffer() {
+    return plaintext.derive(getSecondsSinceEpoch(), getUsecs());
   }
 
   /**
-   * @return the entropy of this candidate
+   * @return the rating of this candidate, with float precision
    */
   public double getRating() {
     return rating;
   }
 
+  /**
+   * @return the seconds since the epoch of this candidate
+   */
+  public long getSecondsSinceEpoch() {
+    return Math.floorDiv(usecsSinceEpoch, Constants.USECS_PER_SECOND);
+  }
+
+  /**
+   * @return the microseconds of this candidate
+   */
+  public int getUsecs() {
+    return (int) Math.floorMod(usecsSinceEpoch, Constants.USECS_PER_SECOND);
+  }
+
+  /**Formats this candidate as a single line of text without line
+   * break: "seconds usecs rating". Used by {@link Checkpoint} and the
+   * {@link Coordinator} protocol.
+   * @return the record
+   */
+  public String toRecord() {
+    return getSecondsSinceEpoch() + " " + getUsecs() + " "
+        + Float.toString(rating);
+  }
+
+  /**Parses a record written by {@link #toRecord()}.
+   * @param record the record
+   * @param plaintext derives the decrypted data of the candidate
+   * @return the candidate
+   * @throws IllegalArgumentException if the record is invalid
+   */
+  public static Candidate fromRecord(String record,
+      PlaintextDeriver plaintext) {
+    String[] fields = record.split(" ");
+    if (fields.length != 3) {
+      throw new IllegalArgumentException("Invalid candidate: " + record);
+    }
+    return new Candidate(Long.parseLong(fields[0]),
+        Integer.parseInt(fields[1]), Double.parseDouble(fields[2]),
+        plaintext);
+  }
+
   @Override
   public String toString() {
     
-    return "Candidate [ secondsSinceEpoch=" + secondsSinceEpoch 
-        + ", usecs=" + usecs + ", rating=" + rating + ", buffer=" 
-        + new String(Arrays.copyOf(buffer,  
+    return "Candidate [ secondsSinceEpoch=" + getSecondsSinceEpoch() 
+        + ", usecs=" + getUsecs() + ", rating=" + rating + ", buffer=" 
+        + new String(Arrays.copyOf(getBuffer(),  
             MAX_PLAINTEXT_RETURN), StandardCharsets.UTF_8) + "]";
   }
 }
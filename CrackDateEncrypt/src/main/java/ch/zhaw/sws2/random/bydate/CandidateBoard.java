@@ -0,0 +1,150 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Keeps the best candidates found by all {@link BruteForcer}s and
+ * tells them when to stop searching.
+ * <p>
+ * <p>The board is bounded to a fixed number of candidates and is
+ * lock-free: candidates are kept in a {@link ConcurrentSkipListSet}
+ * ordered by rating, then by time, so candidates with equal ratings
+ * don't replace each other. Once the board is full, the rating of
+ * its worst candidate is published through a volatile field, so
+ * workers can drop worse candidates without touching the set.</p>
+ * <p>
+ * <p>As soon as a candidate rated below the stop threshold is
+ * published, the search is stopped.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class CandidateBoard
+{
+    private static final Comparator<Candidate> ORDER = Comparator.comparingDouble( Candidate::getRating )
+        .thenComparingLong( Candidate::getSecondsSinceEpoch )
+        .thenComparingInt( Candidate::getUsecs );
+
+    private final ConcurrentSkipListSet<Candidate> candidates = new ConcurrentSkipListSet<>( ORDER );
+    private final AtomicInteger                    size       = new AtomicInteger();
+    private final AtomicBoolean                    stopped    = new AtomicBoolean();
+    private final int                              capacity;
+    private final double                           stopThreshold;
+    private volatile double worstRating = Double.POSITIVE_INFINITY;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity      maximum number of candidates kept
+     * @param stopThreshold candidates rated below this stop the search
+     */
+    public CandidateBoard( int capacity, double stopThreshold )
+    {
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid capacity: %d", capacity ) );
+        }
+        this.capacity = capacity;
+        this.stopThreshold = stopThreshold;
+    }
+
+    /**
+     * Cheap check whether a candidate with this rating would make it
+     * onto the board. Use it before creating the candidate.
+     *
+     * @param rating rating of the candidate
+     * @return false if the board is full of better candidates
+     */
+    public boolean accepts( double rating )
+    {
+        return rating < worstRating || rating < stopThreshold;
+    }
+
+    /**
+     * @return the rating below which candidates are accepted, see
+     * {@link #accepts(double)}; infinite until the board is full
+     */
+    public double getAcceptLimit()
+    {
+        return Math.max( worstRating, stopThreshold );
+    }
+
+    /**
+     * Publishes a candidate. Stops the search if the candidate is
+     * rated below the stop threshold, after it is on the board, so
+     * whoever sees the board stopped also sees the candidate.
+     *
+     * @param candidate candidate to publish
+     * @return true if the candidate is on the board
+     */
+    public boolean publish( Candidate candidate )
+    {
+        boolean published = add( candidate );
+        if ( candidate.getRating() < stopThreshold ) {
+            stop();
+        }
+        return published;
+    }
+
+    private boolean add( Candidate candidate )
+    {
+        if ( !accepts( candidate.getRating() ) || !candidates.add( candidate ) ) {
+            return false;
+        }
+        if ( size.incrementAndGet() > capacity ) {
+            if ( candidates.pollLast() != null ) {
+                size.decrementAndGet();
+            }
+        }
+        if ( size.get() >= capacity ) {
+            try {
+                worstRating = candidates.last().getRating();
+            } catch ( NoSuchElementException e ) {
+                // emptied concurrently, keep the previous bound
+            }
+        }
+        return candidates.contains( candidate );
+    }
+
+    /**
+     * Stops the search, e.g. after a confirmed hit.
+     */
+    public void stop()
+    {
+        stopped.set( true );
+    }
+
+    /**
+     * @return true if the workers should stop searching
+     */
+    public boolean isStopped()
+    {
+        return stopped.get();
+    }
+
+    /**
+     * @return the best candidate, or null if there is none
+     */
+    public Candidate getBestCandidate()
+    {
+        try {
+            return candidates.first();
+        } catch ( NoSuchElementException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the candidates on the board, best first
+     */
+    public List<Candidate> getCandidates()
+    {
+        return new ArrayList<>( candidates );
+    }
+}
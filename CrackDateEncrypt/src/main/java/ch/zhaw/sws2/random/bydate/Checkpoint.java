@@ -0,0 +1,269 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Append-only journal of the progress of a search, so that an
+ * interrupted search can be resumed.
+ * <p>
+ * <p>The journal is a text file. The first line describes the search;
+ * a journal is only resumed by the same search. Then follow lines
+ * "done from to" with ranges of chunk numbers (see
+ * {@link KeyspacePartitioner}) that have been searched completely, and
+ * lines "best record" with the best candidates found so far, see
+ * {@link Candidate#toRecord()}. Later "best" lines add to earlier
+ * ones.</p>
+ * <p>
+ * <p>Completed chunks are collected in memory and appended, merged
+ * into ranges, every {@link #FLUSH_SECONDS} seconds and when the
+ * journal is closed or the JVM shuts down, e.g. on Ctrl-C; each flush
+ * is synced to disk. A line cut short by a crash, even one of the
+ * header, is ignored and overwritten on resume, so at most the chunks
+ * of the last flush interval are searched again. Any other invalid
+ * line stops the resume with an error and leaves the journal as it
+ * is.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class Checkpoint
+    implements KeyspacePartitioner.CompletedChunks, AutoCloseable
+{
+    /**
+     * Seconds between two flushes of the journal
+     */
+    public static final long FLUSH_SECONDS = 30;
+
+    private static final String MAGIC  = "crack-checkpoint 1";
+    private static final String SEARCH = "search ";
+    private static final String DONE   = "done";
+    private static final String BEST   = "best";
+
+    private final BitSet                   done    = new BitSet();
+    private final BitSet                   pending = new BitSet();
+    private final List<Candidate>          restoredCandidates = new ArrayList<>();
+    private final CandidateBoard           board;
+    private final FileOutputStream         out;
+    private final ScheduledExecutorService scheduler;
+    private final Thread                   shutdownHook = new Thread( this::flushQuietly, "checkpoint-shutdown" );
+    private       List<Candidate>          writtenCandidates = new ArrayList<>();
+
+    /**
+     * Constructor. Opens the journal and starts flushing it periodically.
+     *
+     * @param file      journal file
+     * @param search    description of the search; a journal of a different search is not resumed
+     * @param resume     whether to continue an existing journal instead of starting a new one
+     * @param chunkCount number of chunks of the search, see {@link KeyspacePartitioner#getChunkCount()}
+     * @param board      board whose best candidates are journaled
+     * @param plaintext  derives the decrypted data of restored candidates
+     * @throws IOException if the journal can't be read or written, or belongs to another search
+     * @throws IllegalArgumentException if the search has more chunks than the journal can hold
+     */
+    public Checkpoint( File file, String search, boolean resume, long chunkCount, CandidateBoard board,
+        PlaintextDeriver plaintext )
+        throws IOException
+    {
+        if ( chunkCount > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( String.format( "Too many chunks to journal: %d", chunkCount ) );
+        }
+        this.board = board;
+        long validLength = 0;
+        if ( resume && file.exists() ) {
+            validLength = read( file, search, plaintext );
+        }
+        if ( validLength == 0 ) {
+            Files.write( file.toPath(), getHeader( search ).getBytes( StandardCharsets.UTF_8 ) );
+        } else {
+            try ( RandomAccessFile truncate = new RandomAccessFile( file, "rw" ) ) {
+                truncate.setLength( validLength );
+            }
+        }
+        out = new FileOutputStream( file, true );
+
+        for ( Candidate candidate : restoredCandidates ) {
+            board.publish( candidate );
+        }
+        writtenCandidates = board.getCandidates();
+        scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "checkpoint" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        scheduler.scheduleWithFixedDelay( this::flushQuietly, FLUSH_SECONDS, FLUSH_SECONDS, TimeUnit.SECONDS );
+        Runtime.getRuntime().addShutdownHook( shutdownHook );
+    }
+
+    /**
+     * Reads a journal.
+     *
+     * @return length of the complete lines of the journal, 0 if it was
+     * cut short within its header and is started anew
+     */
+    private long read( File file, String search, PlaintextDeriver plaintext )
+        throws IOException
+    {
+        String content = new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+        if ( getHeader( search ).startsWith( content ) ) {
+            return 0;
+        }
+        int end = content.lastIndexOf( '\n' ) + 1;
+        String[] lines = content.substring( 0, end ).split( "\n" );
+        if ( lines.length < 2 || !MAGIC.equals( lines[ 0 ] ) ) {
+            throw new IOException( String.format( "%s is not a checkpoint", file ) );
+        }
+        if ( !(SEARCH + search).equals( lines[ 1 ] ) ) {
+            throw new IOException( String.format( "%s belongs to another search: %s", file, lines[ 1 ] ) );
+        }
+        for ( int i = 2; i < lines.length; i++ ) {
+            if ( !readLine( lines[ i ], plaintext ) ) {
+                throw new IOException( String.format( "Invalid line %d in %s: %s", i + 1, file, lines[ i ] ) );
+            }
+        }
+        return content.substring( 0, end ).getBytes( StandardCharsets.UTF_8 ).length;
+    }
+
+    private static String getHeader( String search )
+    {
+        return MAGIC + "\n" + SEARCH + search + "\n";
+    }
+
+    /**
+     * Reads a "done" or "best" line of a journal.
+     *
+     * @return false if the line is neither or can't be parsed
+     */
+    private boolean readLine( String line, PlaintextDeriver plaintext )
+    {
+        String[] fields = line.split( " " );
+        try {
+            if ( DONE.equals( fields[ 0 ] ) && fields.length == 3 ) {
+                int from = Integer.parseInt( fields[ 1 ] );
+                int to = Integer.parseInt( fields[ 2 ] );
+                if ( from < 0 || to < from || to == Integer.MAX_VALUE ) {
+                    return false;
+                }
+                done.set( from, to + 1 );
+                return true;
+            } else if ( BEST.equals( fields[ 0 ] ) && fields.length > 1 ) {
+                restoredCandidates.add( Candidate.fromRecord( line.substring( BEST.length() + 1 ), plaintext ) );
+                return true;
+            }
+        } catch ( IllegalArgumentException e ) {
+            // not a number or not a candidate
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of chunks searched completely so far
+     */
+    public synchronized int getDoneChunkCount()
+    {
+        return done.cardinality();
+    }
+
+    /**
+     * @param partitioner partitioner of the search
+     * @return the number of candidates in the chunks searched completely so far
+     */
+    public synchronized long getDoneKeyCount( KeyspacePartitioner partitioner )
+    {
+        long keys = 0;
+        for ( int chunk = done.nextSetBit( 0 ); chunk >= 0; chunk = done.nextSetBit( chunk + 1 ) ) {
+            keys += partitioner.getChunkKeyCount( chunk );
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized boolean isDone( long chunk )
+    {
+        return chunk <= Integer.MAX_VALUE && done.get( (int)chunk );
+    }
+
+    @Override
+    public synchronized void markDone( long chunk )
+    {
+        // the chunk count has been checked by the constructor
+        done.set( (int)chunk );
+        pending.set( (int)chunk );
+    }
+
+    /**
+     * Appends the chunks completed and the best candidates found since
+     * the last flush, and syncs the journal to disk.
+     *
+     * @throws IOException if the journal can't be written
+     */
+    public void flush()
+        throws IOException
+    {
+        synchronized ( out ) {
+            StringBuilder lines = new StringBuilder();
+            synchronized ( this ) {
+                for ( int from = pending.nextSetBit( 0 ); from >= 0; from = pending.nextSetBit( from ) ) {
+                    int to = pending.nextClearBit( from );
+                    lines.append( String.format( Locale.ROOT, "%s %d %d\n", DONE, from, to - 1 ) );
+                    from = to;
+                }
+                pending.clear();
+            }
+            List<Candidate> candidates = board.getCandidates();
+            for ( Candidate candidate : candidates ) {
+                if ( !writtenCandidates.contains( candidate ) ) {
+                    lines.append( BEST ).append( ' ' ).append( candidate.toRecord() ).append( '\n' );
+                }
+            }
+            writtenCandidates = candidates;
+            if ( lines.length() > 0 ) {
+                out.write( lines.toString().getBytes( StandardCharsets.UTF_8 ) );
+                out.getFD().sync();
+            }
+        }
+    }
+
+    private void flushQuietly()
+    {
+        try {
+            flush();
+        } catch ( IOException e ) {
+            System.err.println( "Can't write checkpoint: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * Stops the periodic flushes, flushes a last time and closes the journal.
+     *
+     * @throws IOException if the journal can't be written
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        scheduler.shutdownNow();
+        try {
+            Runtime.getRuntime().removeShutdownHook( shutdownHook );
+        } catch ( IllegalStateException e ) {
+            // the JVM is shutting down, the hook flushes as well
+        }
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}
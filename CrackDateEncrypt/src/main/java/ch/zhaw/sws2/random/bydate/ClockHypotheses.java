@@ -0,0 +1,191 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Guesses how the clock of the encrypting host relates to a timespec.
+ * <p>
+ * <p>A hypothesis is either an offset "+HH:MM" or "-HH:MM[:SS]" that
+ * is added to the timespec, e.g. for a clock set to the wrong time
+ * zone, or a zone id like "Europe/Zurich", meaning that the local date
+ * and time of the timespec were read off a clock in that zone, which
+ * also covers mistakes around DST changes.</p>
+ * <p>
+ * <p>The windows of all hypotheses are merged into one
+ * {@link SecondRanges}, so overlapping hypotheses don't search any
+ * second twice, and every hit is attributed to the hypotheses whose
+ * windows contain it.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class ClockHypotheses
+{
+    /**
+     * The hypothesis used if none are given: the clock of the
+     * encrypting host ran 9.5 hours ahead of the timespec
+     */
+    public static final String DEFAULT = "+09:30";
+
+    /**
+     * Microsecond where a proximity search starts: the timespec only
+     * gives the second, so start in its middle
+     */
+    public static final int HINT_USEC = 500000;
+
+    private static final Pattern OFFSET = Pattern.compile( "([+-])(\\d{1,2}):(\\d{2})(?::(\\d{2}))?" );
+
+    private final List<Hypothesis> hypotheses;
+
+    private ClockHypotheses( List<Hypothesis> hypotheses )
+    {
+        this.hypotheses = hypotheses;
+    }
+
+    /**
+     * Parses a comma-separated list of hypotheses.
+     *
+     * @param list the hypotheses, e.g. "+09:30,+10:30,Asia/Kolkata"
+     * @return the hypotheses
+     * @throws IllegalArgumentException if a hypothesis is invalid
+     */
+    public static ClockHypotheses parse( String list )
+    {
+        List<Hypothesis> hypotheses = new ArrayList<>();
+        for ( String item : list.split( "," ) ) {
+            String label = item.trim();
+            Matcher offset = OFFSET.matcher( label );
+            if ( offset.matches() ) {
+                long seconds = Long.parseLong( offset.group( 2 ) ) * Constants.SECONDS_PER_HOUR
+                    + Long.parseLong( offset.group( 3 ) ) * Constants.SECONDS_PER_MINUTE
+                    + (offset.group( 4 ) == null ? 0 : Long.parseLong( offset.group( 4 ) ));
+                hypotheses.add( new Hypothesis( label, null, "-".equals( offset.group( 1 ) ) ? -seconds : seconds ) );
+                continue;
+            }
+            try {
+                hypotheses.add( new Hypothesis( label, ZoneId.of( label ), 0 ) );
+            } catch ( DateTimeException e ) {
+                throw new IllegalArgumentException( String.format( "Clock hypothesis must be an offset like +09:30 or a zone, got %s",
+                    label ) );
+            }
+        }
+        return new ClockHypotheses( hypotheses );
+    }
+
+    /**
+     * @return number of hypotheses
+     */
+    public int size()
+    {
+        return hypotheses.size();
+    }
+
+    /**
+     * @param timespec    the claimed date and time
+     * @param windowStart first second to search, relative to the second of a hypothesis
+     * @param windowEnd   last second to search (inclusive), relative to the second of a hypothesis
+     * @return the window of every hypothesis as {start, end} pair, see {@link SecondRanges}
+     */
+    public List<long[]> getWindows( ZonedDateTime timespec, long windowStart, long windowEnd )
+    {
+        List<long[]> windows = new ArrayList<>();
+        for ( Hypothesis hypothesis : hypotheses ) {
+            long second = hypothesis.getSecond( timespec );
+            windows.add( new long[] { second + windowStart, second + windowEnd } );
+        }
+        return windows;
+    }
+
+    /**
+     * @param timespec the claimed date and time
+     * @return the most likely time of every hypothesis in microseconds
+     * since the epoch, where a {@link SearchOrder#PROXIMITY} search starts
+     */
+    public long[] getHintUsecs( ZonedDateTime timespec )
+    {
+        long[] hints = new long[ hypotheses.size() ];
+        for ( int i = 0; i < hints.length; i++ ) {
+            hints[ i ] = hypotheses.get( i ).getSecond( timespec ) * Constants.USECS_PER_SECOND + HINT_USEC;
+        }
+        return hints;
+    }
+
+    /**
+     * Attributes a hit to the hypotheses that explain it.
+     *
+     * @param timespec    the claimed date and time
+     * @param windowStart first second searched, relative to the second of a hypothesis
+     * @param windowEnd   last second searched (inclusive), relative to the second of a hypothesis
+     * @param second      second of the hit
+     * @param usecs       microsecond of the hit
+     * @return the hypotheses whose windows contain the hit, closest
+     * first, each with the offset of the hit from the timespec shifted
+     * by the hypothesis
+     */
+    public List<String> explain( ZonedDateTime timespec, long windowStart, long windowEnd, long second, int usecs )
+    {
+        List<long[]> explaining = new ArrayList<>();
+        for ( int i = 0; i < hypotheses.size(); i++ ) {
+            long hypothesisSecond = hypotheses.get( i ).getSecond( timespec );
+            if ( second >= hypothesisSecond + windowStart && second <= hypothesisSecond + windowEnd ) {
+                long distance = (second - hypothesisSecond) * Constants.USECS_PER_SECOND + usecs;
+                explaining.add( new long[] { i, distance } );
+            }
+        }
+        explaining.sort( Comparator.comparingLong( entry -> Math.abs( entry[ 1 ] ) ) );
+        List<String> labels = new ArrayList<>();
+        for ( long[] entry : explaining ) {
+            labels.add( String.format( Locale.ROOT, "%s (%+.6f s)", hypotheses.get( (int)entry[ 0 ] ).label,
+                (double)entry[ 1 ] / Constants.USECS_PER_SECOND ) );
+        }
+        return Collections.unmodifiableList( labels );
+    }
+
+    @Override
+    public String toString()
+    {
+        List<String> labels = new ArrayList<>();
+        for ( Hypothesis hypothesis : hypotheses ) {
+            labels.add( hypothesis.label );
+        }
+        return String.join( ",", labels );
+    }
+
+    /**
+     * A single guess.
+     */
+    private static final class Hypothesis
+    {
+        private final String label;
+        private final ZoneId zone;
+        private final long   offsetSeconds;
+
+        Hypothesis( String label, ZoneId zone, long offsetSeconds )
+        {
+            this.label = label;
+            this.zone = zone;
+            this.offsetSeconds = offsetSeconds;
+        }
+
+        /**
+         * @return the second of the encrypting host's clock at the timespec
+         */
+        long getSecond( ZonedDateTime timespec )
+        {
+            if ( zone != null ) {
+                return timespec.toLocalDateTime().atZone( zone ).toEpochSecond();
+            }
+            return timespec.toEpochSecond() + offsetSeconds;
+        }
+    }
+}
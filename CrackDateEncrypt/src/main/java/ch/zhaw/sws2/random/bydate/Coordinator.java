@@ -0,0 +1,363 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Spreads one search across {@link Worker} processes on any number of
+ * hosts by leasing ranges of positions in the search order of a
+ * {@link KeyspacePartitioner} to them over TCP, so the search keeps
+ * its order when it is spread.
+ * <p>
+ * <p>The protocol is line based, UTF-8 text. A worker opens with
+ * "hello search", where search describes the search it was started
+ * with; the coordinator closes the connection to workers of another
+ * search. It then sends "lease from to" for the positions from up to,
+ * but excluding, to. While it works on a lease, the worker sends
+ * "alive" every {@link Worker#HEARTBEAT_SECONDS} seconds and "hit
+ * record" for every new candidate on its board as soon as it is found
+ * (see {@link Candidate#toRecord()}). When it is done it sends "done
+ * from to" and gets the next lease. A worker whose board has been
+ * stopped, e.g. by an IV match or a known plaintext whatever its
+ * rating, sends "found" after its hits instead. The coordinator sends
+ * "stop" to every worker when all chunks are done, a worker sent
+ * "found" or a hit is rated below the stop threshold of its
+ * {@link CandidateBoard}.</p>
+ * <p>
+ * <p>A worker holds one lease at a time. If its connection breaks or
+ * it stays silent for {@link #LEASE_TIMEOUT_SECONDS} seconds, its
+ * lease is given to the next worker that asks for one.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class Coordinator
+{
+    /**
+     * Seconds of silence after which a worker is considered dead
+     */
+    public static final long LEASE_TIMEOUT_SECONDS = 6 * Worker.HEARTBEAT_SECONDS;
+
+    /**
+     * Default number of positions, i.e. chunks, per lease
+     */
+    public static final int LEASE_CHUNKS = 1000;
+
+    static final String HELLO = "hello";
+    static final String LEASE = "lease";
+    static final String ALIVE = "alive";
+    static final String HIT   = "hit";
+    static final String DONE  = "done";
+    static final String FOUND = "found";
+    static final String STOP  = "stop";
+
+    private static final int ACCEPT_TIMEOUT_MILLIS = 1000;
+
+    private final KeyspacePartitioner                  partitioner;
+    private final String                               search;
+    private final CandidateBoard                       board;
+    private final PlaintextDeriver                     plaintext;
+    private final KeyspacePartitioner.CompletedChunks completed;
+    private final SearchMetrics                        metrics;
+    private final int                                  leaseChunks;
+    private final Deque<long[]>                        returned    = new ArrayDeque<>();
+    private final Set<Connection>                      connections = ConcurrentHashMap.newKeySet();
+    private final ServerSocket                         server;
+    private       long                                 nextPosition;
+    private       int                                  leased;
+    private       boolean                              finished;
+
+    /**
+     * Constructor. Starts listening for workers.
+     *
+     * @param port        TCP port to listen on, 0 for any free port
+     * @param partitioner partitioner of the search
+     * @param search      description of the search, see {@link Worker}
+     * @param board       board that collects the hits of all workers
+     * @param plaintext   derives the decrypted data of the hits
+     * @param completed   chunks searched before, receives the chunks done by the workers
+     * @param metrics     metrics of the search
+     * @param leaseChunks number of chunks per lease
+     * @throws IOException if the port can't be opened
+     */
+    public Coordinator( int port, KeyspacePartitioner partitioner, String search, CandidateBoard board, PlaintextDeriver plaintext,
+                        KeyspacePartitioner.CompletedChunks completed, SearchMetrics metrics, int leaseChunks )
+        throws IOException
+    {
+        if ( leaseChunks <= 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid lease size: %d", leaseChunks ) );
+        }
+        this.partitioner = partitioner;
+        this.search = search;
+        this.board = board;
+        this.plaintext = plaintext;
+        this.completed = completed;
+        this.metrics = metrics;
+        this.leaseChunks = leaseChunks;
+        this.server = new ServerSocket();
+        server.bind( new InetSocketAddress( port ) );
+        server.setSoTimeout( ACCEPT_TIMEOUT_MILLIS );
+    }
+
+    /**
+     * @return the TCP port the coordinator listens on
+     */
+    public int getPort()
+    {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Serves workers until all chunks are done or a hit is confirmed,
+     * then stops all workers.
+     *
+     * @throws IOException if accepting workers fails
+     */
+    public void run()
+        throws IOException
+    {
+        try {
+            while ( !isFinished() ) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch ( SocketTimeoutException e ) {
+                    continue;
+                }
+                Connection connection = new Connection( socket );
+                connections.add( connection );
+                Thread thread = new Thread( connection, "coordinator-" + socket.getRemoteSocketAddress() );
+                thread.setDaemon( true );
+                thread.start();
+            }
+        } finally {
+            server.close();
+            for ( Connection connection : connections ) {
+                connection.stop();
+            }
+        }
+    }
+
+    /**
+     * @return true once all chunks are done or the search has been stopped
+     */
+    public synchronized boolean isFinished()
+    {
+        if ( board.isStopped() ) {
+            finished = true;
+        }
+        return finished;
+    }
+
+    /**
+     * Waits for a lease. Returns null once the search is finished.
+     */
+    private synchronized long[] acquireLease()
+        throws InterruptedException
+    {
+        while ( !isFinished() ) {
+            long[] lease = returned.pollFirst();
+            if ( lease == null ) {
+                lease = nextLease();
+            }
+            if ( lease != null ) {
+                leased++;
+                return lease;
+            }
+            if ( leased == 0 ) {
+                finished = true;
+                notifyAll();
+                break;
+            }
+            wait( TimeUnit.SECONDS.toMillis( 1 ) );
+        }
+        return null;
+    }
+
+    /**
+     * Cuts the next lease from the positions never leased, up to the
+     * next chunk that has been done before.
+     */
+    private long[] nextLease()
+    {
+        long chunkCount = partitioner.getChunkCount();
+        while ( nextPosition < chunkCount && isDone( nextPosition ) ) {
+            nextPosition++;
+        }
+        if ( nextPosition == chunkCount ) {
+            return null;
+        }
+        long from = nextPosition;
+        long to = Math.min( chunkCount, from + leaseChunks );
+        nextPosition++;
+        while ( nextPosition < to && !isDone( nextPosition ) ) {
+            nextPosition++;
+        }
+        return new long[] { from, nextPosition };
+    }
+
+    private boolean isDone( long position )
+    {
+        return completed.isDone( partitioner.getChunk( position ) );
+    }
+
+    private synchronized void returnLease( long[] lease, boolean done )
+    {
+        leased--;
+        if ( !done ) {
+            returned.addFirst( lease );
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops the search and tells all workers to stop at once.
+     */
+    private void stopSearch()
+    {
+        board.stop();
+        synchronized ( this ) {
+            finished = true;
+            notifyAll();
+        }
+        for ( Connection connection : connections ) {
+            connection.stop();
+        }
+    }
+
+    /**
+     * The connection to one worker.
+     */
+    private class Connection
+        implements Runnable
+    {
+        private final Socket                 socket;
+        private final BufferedReader         in;
+        private final Writer                 out;
+        private final SearchMetrics.Counters counters = metrics.register();
+
+        Connection( Socket socket )
+            throws IOException
+        {
+            this.socket = socket;
+            this.in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+            this.out = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.UTF_8 );
+            socket.setSoTimeout( (int)TimeUnit.SECONDS.toMillis( LEASE_TIMEOUT_SECONDS ) );
+        }
+
+        @Override
+        public void run()
+        {
+            long[] lease = null;
+            try {
+                String hello = in.readLine();
+                if ( hello == null || !hello.equals( HELLO + " " + search ) ) {
+                    System.err.printf( "Rejected worker %s: %s%n", socket.getRemoteSocketAddress(), hello );
+                    connections.remove( this );
+                    socket.close();
+                    return;
+                }
+                while ( (lease = acquireLease()) != null ) {
+                    send( String.format( "%s %d %d", LEASE, lease[ 0 ], lease[ 1 ] ) );
+                    returnLease( lease, serve( lease ) );
+                    lease = null;
+                }
+            } catch ( IOException e ) {
+                if ( !isFinished() ) {
+                    System.err.printf( "Lost worker %s: %s%n", socket.getRemoteSocketAddress(), e );
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if ( lease != null ) {
+                    returnLease( lease, false );
+                }
+                stop();
+            }
+        }
+
+        /**
+         * Reads the messages of the worker until it is done with the lease.
+         *
+         * @return true if the lease is done, false if the worker found the key
+         */
+        private boolean serve( long[] lease )
+            throws IOException
+        {
+            while ( true ) {
+                String line = in.readLine();
+                if ( line == null ) {
+                    throw new IOException( "Connection closed" );
+                }
+                if ( line.equals( ALIVE ) ) {
+                    continue;
+                }
+                if ( line.startsWith( HIT + " " ) ) {
+                    board.publish( Candidate.fromRecord( line.substring( HIT.length() + 1 ), plaintext ) );
+                    if ( board.isStopped() ) {
+                        stopSearch();
+                    }
+                    continue;
+                }
+                if ( line.equals( FOUND ) ) {
+                    stopSearch();
+                    return false;
+                }
+                if ( line.equals( String.format( "%s %d %d", DONE, lease[ 0 ], lease[ 1 ] ) ) ) {
+                    long keys = 0;
+                    for ( long position = lease[ 0 ]; position < lease[ 1 ]; position++ ) {
+                        long chunk = partitioner.getChunk( position );
+                        completed.markDone( chunk );
+                        keys += partitioner.getChunkKeyCount( chunk );
+                    }
+                    counters.add( SearchMetrics.Counter.KEYS_TESTED, keys );
+                    counters.add( SearchMetrics.Counter.CHUNKS_DONE, lease[ 1 ] - lease[ 0 ] );
+                    return true;
+                }
+                throw new IOException( String.format( "Unexpected message: %s", line ) );
+            }
+        }
+
+        private void send( String line )
+            throws IOException
+        {
+            synchronized ( out ) {
+                out.write( line + "\n" );
+                out.flush();
+            }
+        }
+
+        /**
+         * Tells the worker to stop and closes the connection.
+         */
+        void stop()
+        {
+            if ( connections.remove( this ) ) {
+                try {
+                    send( STOP );
+                } catch ( IOException e ) {
+                    // the worker is gone already
+                }
+                try {
+                    socket.close();
+                } catch ( IOException e ) {
+                    // nothing left to clean up
+                }
+            }
+        }
+    }
+}
@@ -8,8 +8,8 @@ import java.security.spec.InvalidParameterSpecException;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
@@ -19,10 +19,67 @@ import javax.crypto.spec.IvParameterSpec;
  * Cracks the "Netscape encryption".
  * <p>
  * <p>
- * Usage: Crack cipher timespec in
+ * Usage: Crack [options] cipher timespec in
  * </p>
  * <p>
  * <p>
+ * --strategy decrypt|iv-match|known-plaintext how candidate keys are tested, see
+ * {@link SearchStrategy}. Defaults to decrypt.
+ * --order proximity|linear order in which the window is searched, see
+ * {@link SearchOrder}. Defaults to proximity: outward from the middle of
+ * the second of every clock hypothesis, taking turns, so the window is
+ * only the limit up to which the search expands.
+ * --threads n number of worker threads. Defaults to the number of
+ * available processors.
+ * --hypotheses list comma-separated guesses of the clock of the
+ * encrypting host, see {@link ClockHypotheses}: offsets like +09:30 added
+ * to the timespec, or zones like Europe/Zurich whose local time the
+ * timespec gives. Their windows are merged, so every key is tested once.
+ * Defaults to +09:30.
+ * --window start:end seconds to search relative to the second of every
+ * clock hypothesis, both inclusive. Defaults to -4:3.
+ * --pid first:last process ids of the encrypting process to search, both
+ * inclusive, or a single pid. Defaults to 0, as faked by ByDate.
+ * --ppid first:last parent process ids to search, likewise. The pids and
+ * ppids are not searched as a cartesian product with the seconds: only the
+ * distinct time inputs pid + second + (ppid &lt;&lt; 12) are, see
+ * {@link ProcessIdRanges}, and every hit lists the (second, pid, ppid)
+ * triples that explain it.
+ * --chunk-usecs n microseconds per chunk of work, see
+ * {@link KeyspacePartitioner}. Defaults to 10000.
+ * --stop-below rating all workers stop as soon as a candidate is rated
+ * below this. Defaults to 1.
+ * --top n number of best candidates to keep and print. Defaults to 10.
+ * --known-plaintext hex known plaintext prefix as hex digits, "??" for
+ * an unknown byte. Selects the known-plaintext strategy (CTR only).
+ * --known-text text known plaintext prefix as text.
+ * --scorers list how decrypted candidates are rated, cheapest first, see
+ * {@link ScorerChain}: magic (gzip, zip and PDF signatures), utf8
+ * (rejects malformed UTF-8), bigram:file[+file...] (byte bigrams of
+ * sample texts, one per language) and entropy. Defaults to entropy.
+ * --batch crack many files in one sweep by their header IVs. in is a
+ * directory or a manifest, see {@link MultiTargetSearch}.
+ * --progress seconds seconds between progress reports with keys/s, share
+ * of the window searched and ETA. 0 prints only a final report.
+ * Defaults to 10.
+ * --metrics-file file rewrite this file with a JSON snapshot of the
+ * metrics at every report, see {@link SearchMetrics.Snapshot}.
+ * --text-filter reject candidates whose first cipher block is not
+ * mostly printable text or UTF-8, see {@link PlaintextFilter}, before
+ * decrypting the rest, unless a scorer judges the block. Much faster
+ * for text, but misses binary plaintexts like images; off by default.
+ * --bitsliced compute the first keystream block of 64 candidates at once
+ * with {@link BitslicedAes} (AES/CTR only). Whether this is faster than
+ * the JCE depends on the CPU; the JCE uses AES-NI where available.
+ * --checkpoint file journal the chunks searched and the best candidates
+ * to this file, see {@link Checkpoint}. Not with --batch.
+ * --resume continue the search journaled in the checkpoint file: skip
+ * the chunks searched and start with the candidates found before.
+ * --coordinator port lease the search to workers connecting to this
+ * port instead of searching, see {@link Coordinator}. 0 picks a free port.
+ * --worker host:port search the leases of the coordinator at host:port,
+ * see {@link Worker}. Workers are started with the same cipher, timespec,
+ * input and search options as the coordinator; --threads may differ.
  * cipher a cipher specification like DES/CBC/NoPadding
  * timespec a local date and time in the form
  * 2011-12-03T10:15:30+01:00, i.e., a date and time with
@@ -40,6 +97,11 @@ import javax.crypto.spec.IvParameterSpec;
  * converts it to epoch seconds, and then brute-forces the
  * encrypted input file with candidate keys and stops when it finds a key that
  * appears to be the correct one.</p>
+ * <p>
+ * <p>
+ * Run it with {@code --add-modules jdk.incubator.vector} to derive the
+ * candidate keys in SIMD lanes, see {@link MultiBufferMd5}. Without the
+ * module, the keys are derived one after the other.</p>
  *
  * @author Bernhard Tellenbach &lt;tebe@zhaw.ch&gt;
  * @version 1.0
@@ -50,9 +112,12 @@ public class Crack
 
     /* Configuration */
     public static final int DECRYPT_MAX_BYTES = 2048;
+
     private       String cipherSpec;
     private final String dateString;
     private       byte[] encryptedData;
+    private       boolean encryptedDataComplete;
+    private final CrackOptions options;
 
     private byte[] iv = new byte[ 16 ];
 
@@ -60,73 +125,124 @@ public class Crack
 
     /**
      * Constructor. Reads {@link DECRYPT_MAX_BYTES} of
-     * encrypted data to be brute-forced.
+     * encrypted data to be brute-forced, and notes whether that is
+     * all of it.
      *
-     * @param cipherSpec cipher specification like e.g., DES/CBC/NoPadding
-     * @param dateString date string in {@link DateTimeFormatter.ISO_OFFSET_DATE_TIME} format
-     * @param infileName name of the encrypted file
+     * @param options command-line options, see {@link CrackOptions}
      */
-    private Crack( String cipherSpec, String dateString, String infileName )
+    private Crack( CrackOptions options )
         throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException, IOException
     {
-        this.cipherSpec = cipherSpec;
-        this.dateString = dateString;
+        this.cipherSpec = options.getCipherSpec();
+        this.dateString = options.getDateString();
+        this.options = options;
 
-        File inFile = new File( infileName );
+        File inFile = new File( options.getInfileName() );
         assert inFile.length() > 0;
         assert inFile.length() <= Integer.MAX_VALUE;
         this.encryptedData = new byte[ Math.min( ((int)inFile.length() - 16), DECRYPT_MAX_BYTES ) ];
 
         try ( FileInputStream is = new FileInputStream( inFile ) ) {
             handleIv( cipherSpec, is );
-            long bytesRead = is.read( encryptedData );
-            assert bytesRead == Math.min( encryptedData.length, DECRYPT_MAX_BYTES );
+            long bytesRead = is.readNBytes( encryptedData, 0, encryptedData.length );
+            assert bytesRead == encryptedData.length;
+            this.encryptedDataComplete = is.read() < 0;
         }
     }
 
     /**
-     * Reads/Skips the IV if required.
+     * Reads the IV from the file header. ByDate writes the IV in front
+     * of the encrypted data for every mode, including modes that do
+     * not use it (e.g. ECB), so it is always read.
      *
      * @param cipherSpec cipher specification (e.g., AES/ECB/NoPadding)
-     * @param is         input stream from which to read the iv (if any)
+     * @param is         input stream from which to read the iv
      * @throws IOException if I/O goes wrong
      */
     private void handleIv( String cipherSpec, FileInputStream is )
         throws IOException
     {
-        if ( isModeRequiringIv( cipherSpec ) ) {
-            is.skip( 16 );
+        int bytesRead = is.read( iv );
+        if ( bytesRead != iv.length ) {
+            throw new IOException( "File too short to contain an IV header" );
         }
     }
 
-    private boolean isModeRequiringIv( String cipherSpec )
-    {
-        return cipherSpec.contains( "CBC" ) || cipherSpec.contains( "CTR" ) || cipherSpec.contains( "GCM" );
-    }
-
     private void work()
+        throws IOException
     {
-        ArrayList<BruteForcer> bruteForcers = createBruteForcers();
-        bruteForcers.parallelStream().forEach( ( bruteForcerConsumer ) -> {
-            bruteForcerConsumer.run( encryptedData );
-        } );
-        /*for ( BruteForcer bruteForcer : bruteForcers ) {
-            Candidate candidate = bruteForcer.getBestCandidate();
-            System.out.println( candidate );
-        }*/
-    }
-
-    private ArrayList<BruteForcer> createBruteForcers()
-    {
-        ArrayList<BruteForcer> bruteForcers = new ArrayList<>();
         ZonedDateTime date = ZonedDateTime.parse( dateString );
-        long uSeconds = date.toEpochSecond() * Constants.USECS_PER_SECOND;
+        ClockHypotheses hypotheses = options.getHypotheses();
+        ProcessIdRanges processIds = options.getProcessIds();
+        SecondRanges windows = new SecondRanges( hypotheses.getWindows( date, options.getWindowStart(), options.getWindowEnd() ) );
+        // With pid and ppid 0, the time inputs are the seconds
+        SecondRanges seconds = processIds.getTimeInputs( windows );
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( seconds, options.getChunkUsecs(), options.getThreads(),
+            options.getOrder(), processIds.getHintUsecs( hypotheses.getHintUsecs( date ) ) );
+        System.out.printf( "Searching %d clock hypotheses: %d seconds instead of %d%n", hypotheses.size(),
+            windows.getSecondCount(), hypotheses.size() * (options.getWindowEnd() - options.getWindowStart() + 1) );
+        if ( !processIds.isNone() ) {
+            System.out.printf( "Searching %s: %d time inputs instead of %d triples%n", processIds, seconds.getSecondCount(),
+                windows.getSecondCount() * processIds.getPairCount() );
+        }
 
-        for ( int i = -4; i < 4; i++ ) {
-            bruteForcers.add( new BruteForcer( cipherSpec, uSeconds + (i * Constants.USECS_PER_SECOND), date ) );
+        CandidateBoard board = new CandidateBoard( options.getTop(), options.getStopBelow() );
+        PlaintextDeriver plaintext = new PlaintextDeriver( cipherSpec, encryptedData, encryptedDataComplete );
+        String search = String.format( "%s %s %s %s %s %d %s %s", cipherSpec, options.getStrategy(), options.getOrder(),
+            hypotheses, seconds, options.getChunkUsecs(), HexFormat.of().formatHex( iv ), options.getScorers() );
+        Checkpoint checkpoint = null;
+        long doneKeys = 0;
+        long doneChunks = 0;
+        if ( options.getCheckpointFile() != null ) {
+            checkpoint = new Checkpoint( options.getCheckpointFile(), search, options.isResume(),
+                partitioner.getChunkCount(), board, plaintext );
+            doneKeys = checkpoint.getDoneKeyCount( partitioner );
+            doneChunks = checkpoint.getDoneChunkCount();
+            if ( doneChunks > 0 ) {
+                System.out.printf( "Resuming: %d of %d chunks searched before%n", doneChunks, partitioner.getChunkCount() );
+            }
         }
+        KeyspacePartitioner.CompletedChunks completed = checkpoint == null ? KeyspacePartitioner.CompletedChunks.NONE : checkpoint;
 
-        return bruteForcers;
+        SearchMetrics metrics = new SearchMetrics( partitioner.getKeyCount() - doneKeys, partitioner.getChunkCount() - doneChunks );
+        ThreadLocal<BruteForcer> bruteForcers = ThreadLocal.withInitial(
+            () -> new BruteForcer( cipherSpec, date.getZone(), options.getStrategy(), iv, encryptedData, encryptedDataComplete,
+                board, options.getKnownPlaintext(), options.isBitsliced(), metrics, options.getScorerChain().forWorker(),
+                options.isTextFilter() ) );
+        KeyspacePartitioner.ChunkSearch chunkSearch =
+            ( secondsSinceEpoch, firstUsec, count ) -> bruteForcers.get().search( secondsSinceEpoch, firstUsec, count );
+        ProgressReporter reporter = new ProgressReporter( metrics, options.getProgressSeconds(), options.getMetricsFile() );
+        try {
+            if ( options.isCoordinator() ) {
+                Coordinator coordinator = new Coordinator( options.getListenPort(), partitioner, search, board, plaintext,
+                    completed, metrics, Coordinator.LEASE_CHUNKS );
+                System.out.printf( "Waiting for workers on port %d%n", coordinator.getPort() );
+                coordinator.run();
+            } else if ( options.isWorker() ) {
+                new Worker( partitioner, search, board, chunkSearch ).run( options.getCoordinatorHost(), options.getCoordinatorPort() );
+            } else {
+                partitioner.run( chunkSearch, board::isStopped, completed );
+            }
+        } finally {
+            reporter.close();
+            if ( checkpoint != null ) {
+                checkpoint.close();
+            }
+        }
+
+        System.out.println( "Best candidates:" );
+        for ( Candidate candidate : board.getCandidates() ) {
+            if ( processIds.isNone() ) {
+                System.out.println( candidate + " explained by " + String.join( ", ", hypotheses.explain( date,
+                    options.getWindowStart(), options.getWindowEnd(), candidate.getSecondsSinceEpoch(), candidate.getUsecs() ) ) );
+                continue;
+            }
+            long timeInput = candidate.getSecondsSinceEpoch();
+            System.out.printf( "%s explained by %d triples:%n", candidate, processIds.countTriples( windows, timeInput ) );
+            for ( String triples : processIds.explain( windows, timeInput ) ) {
+                System.out.println( "  " + triples );
+            }
+        }
     }
 
     /**
@@ -142,11 +258,12 @@ public class Crack
     public static void main( String[] args )
         throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException, IOException
     {
-
-        if ( args.length != 3 ) {
-            throw new IllegalArgumentException( String.format( "Need 3 arguments, got %d", args.length ) );
+        CrackOptions options = CrackOptions.parse( args );
+        if ( options.isBatch() ) {
+            new MultiTargetSearch( options ).run( options.getChunkUsecs(), options.getThreads() );
+            return;
         }
-        Crack byDate = new Crack( args[ 0 ], args[ 1 ], args[ 2 ] );
+        Crack byDate = new Crack( options );
         byDate.work();
     }
 }
@@ -0,0 +1,448 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+
+/**
+ * Command-line options of {@link Crack}.
+ * <p>
+ * <p>Options start with "--" and precede the three positional
+ * arguments cipher, timespec and in.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class CrackOptions
+{
+    private static final int POSITIONAL_ARGUMENTS = 3;
+
+    private SearchStrategy strategy    = SearchStrategy.DECRYPT;
+    private SearchOrder    order       = SearchOrder.PROXIMITY;
+    private int            threads     = Runtime.getRuntime().availableProcessors();
+    private long           windowStart = -4;
+    private long           windowEnd   = 3;
+    private ClockHypotheses hypotheses = ClockHypotheses.parse( ClockHypotheses.DEFAULT );
+    private int[]          pids        = { 0, 0 };
+    private int[]          ppids       = { 0, 0 };
+    private ProcessIdRanges processIds = ProcessIdRanges.NONE;
+    private int            chunkUsecs  = 10000;
+    private double         stopBelow   = BruteForcer.RATING_THRESHOLD_TO_STOP_SEARCHING;
+    private int            top         = 10;
+    private KnownPlaintext knownPlaintext;
+    private String         scorers     = ScorerChain.DEFAULT;
+    private ScorerChain    scorerChain;
+    private boolean        batch;
+    private boolean        bitsliced;
+    private boolean        textFilter;
+    private long           progressSeconds = 10;
+    private File           metricsFile;
+    private File           checkpointFile;
+    private boolean        resume;
+    private int            listenPort = -1;
+    private String         coordinatorHost;
+    private int            coordinatorPort;
+    private String         cipherSpec;
+    private String         dateString;
+    private String         infileName;
+
+    private CrackOptions()
+    {
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @param args command-line arguments
+     * @return the options
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    public static CrackOptions parse( String[] args )
+    {
+        CrackOptions options = new CrackOptions();
+        int i = 0;
+        while ( i < args.length && args[ i ].startsWith( "--" ) ) {
+            String option = args[ i ];
+            if ( "--batch".equals( option ) ) {
+                options.batch = true;
+                i++;
+                continue;
+            }
+            if ( "--bitsliced".equals( option ) ) {
+                options.bitsliced = true;
+                i++;
+                continue;
+            }
+            if ( "--text-filter".equals( option ) ) {
+                options.textFilter = true;
+                i++;
+                continue;
+            }
+            if ( "--resume".equals( option ) ) {
+                options.resume = true;
+                i++;
+                continue;
+            }
+            if ( i + 1 >= args.length ) {
+                throw new IllegalArgumentException( String.format( "Option %s needs a value", option ) );
+            }
+            String value = args[ i + 1 ];
+            switch ( option ) {
+                case "--strategy":
+                    options.strategy = SearchStrategy.fromName( value );
+                    break;
+                case "--order":
+                    options.order = SearchOrder.fromName( value );
+                    break;
+                case "--threads":
+                    options.threads = Integer.parseInt( value );
+                    break;
+                case "--window":
+                    options.parseWindow( value );
+                    break;
+                case "--hypotheses":
+                    options.hypotheses = ClockHypotheses.parse( value );
+                    break;
+                case "--pid":
+                    options.pids = parseIdRange( option, value );
+                    break;
+                case "--ppid":
+                    options.ppids = parseIdRange( option, value );
+                    break;
+                case "--chunk-usecs":
+                    options.chunkUsecs = Integer.parseInt( value );
+                    break;
+                case "--stop-below":
+                    options.stopBelow = Double.parseDouble( value );
+                    break;
+                case "--top":
+                    options.top = Integer.parseInt( value );
+                    break;
+                case "--known-plaintext":
+                    options.knownPlaintext = KnownPlaintext.fromHex( value );
+                    break;
+                case "--known-text":
+                    options.knownPlaintext = KnownPlaintext.fromText( value );
+                    break;
+                case "--scorers":
+                    options.scorers = value;
+                    break;
+                case "--progress":
+                    options.progressSeconds = Long.parseLong( value );
+                    break;
+                case "--metrics-file":
+                    options.metricsFile = new File( value );
+                    break;
+                case "--checkpoint":
+                    options.checkpointFile = new File( value );
+                    break;
+                case "--coordinator":
+                    options.listenPort = Integer.parseInt( value );
+                    break;
+                case "--worker":
+                    options.parseCoordinatorAddress( value );
+                    break;
+                default:
+                    throw new IllegalArgumentException( String.format( "Unknown option %s", option ) );
+            }
+            i += 2;
+        }
+
+        if ( args.length - i != POSITIONAL_ARGUMENTS ) {
+            throw new IllegalArgumentException( String.format( "Need %d arguments, got %d", POSITIONAL_ARGUMENTS, args.length - i ) );
+        }
+        options.cipherSpec = args[ i ];
+        options.dateString = args[ i + 1 ];
+        options.infileName = args[ i + 2 ];
+        options.scorerChain = ScorerChain.parse( options.scorers );
+        options.processIds = new ProcessIdRanges( options.pids[ 0 ], options.pids[ 1 ], options.ppids[ 0 ], options.ppids[ 1 ] );
+
+        if ( options.knownPlaintext != null && options.strategy == SearchStrategy.DECRYPT ) {
+            options.strategy = SearchStrategy.KNOWN_PLAINTEXT;
+        }
+        if ( options.strategy == SearchStrategy.KNOWN_PLAINTEXT && options.knownPlaintext == null ) {
+            throw new IllegalArgumentException( "Strategy known-plaintext needs --known-plaintext or --known-text" );
+        }
+        if ( options.bitsliced && !options.cipherSpec.startsWith( "AES/CTR/" ) ) {
+            throw new IllegalArgumentException( "--bitsliced needs AES in CTR mode" );
+        }
+        if ( options.resume && options.checkpointFile == null ) {
+            throw new IllegalArgumentException( "--resume needs --checkpoint" );
+        }
+        if ( options.batch && options.checkpointFile != null ) {
+            throw new IllegalArgumentException( "--checkpoint can't be combined with --batch" );
+        }
+        if ( options.isCoordinator() && options.isWorker() ) {
+            throw new IllegalArgumentException( "--coordinator can't be combined with --worker" );
+        }
+        if ( options.batch && (options.isCoordinator() || options.isWorker()) ) {
+            throw new IllegalArgumentException( "--batch can't be distributed" );
+        }
+        if ( options.isWorker() && options.checkpointFile != null ) {
+            throw new IllegalArgumentException( "Workers don't checkpoint, the coordinator does" );
+        }
+        return options;
+    }
+
+    /**
+     * Parses a window "start:end" of seconds relative to the timespec.
+     */
+    private void parseWindow( String value )
+    {
+        int separator = value.indexOf( ':', 1 );
+        if ( separator < 0 ) {
+            throw new IllegalArgumentException( String.format( "Window must be start:end, got %s", value ) );
+        }
+        windowStart = Long.parseLong( value.substring( 0, separator ) );
+        windowEnd = Long.parseLong( value.substring( separator + 1 ) );
+        if ( windowEnd < windowStart ) {
+            throw new IllegalArgumentException( String.format( "Empty window %s", value ) );
+        }
+    }
+
+    /**
+     * Parses a range "first:last" or a single value of process ids.
+     */
+    private static int[] parseIdRange( String option, String value )
+    {
+        int separator = value.indexOf( ':' );
+        if ( separator < 0 ) {
+            int id = Integer.parseInt( value );
+            return new int[] { id, id };
+        }
+        int[] range = { Integer.parseInt( value.substring( 0, separator ) ), Integer.parseInt( value.substring( separator + 1 ) ) };
+        if ( range[ 1 ] < range[ 0 ] ) {
+            throw new IllegalArgumentException( String.format( "Empty range %s %s", option, value ) );
+        }
+        return range;
+    }
+
+    /**
+     * Parses the address "host:port" of a coordinator.
+     */
+    private void parseCoordinatorAddress( String value )
+    {
+        int separator = value.lastIndexOf( ':' );
+        if ( separator <= 0 ) {
+            throw new IllegalArgumentException( String.format( "Coordinator must be host:port, got %s", value ) );
+        }
+        coordinatorHost = value.substring( 0, separator );
+        coordinatorPort = Integer.parseInt( value.substring( separator + 1 ) );
+    }
+
+    /**
+     * @return strategy used to test candidate keys
+     */
+    public SearchStrategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * @return order in which the chunks are searched
+     */
+    public SearchOrder getOrder()
+    {
+        return order;
+    }
+
+    /**
+     * @return number of worker threads
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * @return first second to search, relative to the second of a clock hypothesis
+     */
+    public long getWindowStart()
+    {
+        return windowStart;
+    }
+
+    /**
+     * @return last second to search (inclusive), relative to the second of a clock hypothesis
+     */
+    public long getWindowEnd()
+    {
+        return windowEnd;
+    }
+
+    /**
+     * @return guesses of the clock of the encrypting host
+     */
+    public ClockHypotheses getHypotheses()
+    {
+        return hypotheses;
+    }
+
+    /**
+     * @return guesses of the process id and parent process id of the encrypting process
+     */
+    public ProcessIdRanges getProcessIds()
+    {
+        return processIds;
+    }
+
+    /**
+     * @return number of microseconds per chunk of work
+     */
+    public int getChunkUsecs()
+    {
+        return chunkUsecs;
+    }
+
+    /**
+     * @return rating below which a candidate stops the search
+     */
+    public double getStopBelow()
+    {
+        return stopBelow;
+    }
+
+    /**
+     * @return number of best candidates to keep
+     */
+    public int getTop()
+    {
+        return top;
+    }
+
+    /**
+     * @return known plaintext prefix, or null if none was given
+     */
+    public KnownPlaintext getKnownPlaintext()
+    {
+        return knownPlaintext;
+    }
+
+    /**
+     * @return the scorers as given on the command line, see {@link ScorerChain}
+     */
+    public String getScorers()
+    {
+        return scorers;
+    }
+
+    /**
+     * @return the scorers that rate the candidates; get a scorer per
+     * worker thread with {@link ScorerChain#forWorker()}
+     */
+    public ScorerChain getScorerChain()
+    {
+        return scorerChain;
+    }
+
+    /**
+     * @return true if the input is a directory or manifest of many
+     * targets, see {@link MultiTargetSearch}
+     */
+    public boolean isBatch()
+    {
+        return batch;
+    }
+
+    /**
+     * @return true if keystream block 0 is computed with {@link BitslicedAes}
+     */
+    public boolean isBitsliced()
+    {
+        return bitsliced;
+    }
+
+    /**
+     * @return true if candidates whose first block doesn't look like text
+     * are rejected, see {@link PlaintextFilter}
+     */
+    public boolean isTextFilter()
+    {
+        return textFilter;
+    }
+
+    /**
+     * @return seconds between progress reports, 0 for a final report only
+     */
+    public long getProgressSeconds()
+    {
+        return progressSeconds;
+    }
+
+    /**
+     * @return file to write the metrics snapshot to, or null if none was given
+     */
+    public File getMetricsFile()
+    {
+        return metricsFile;
+    }
+
+    /**
+     * @return journal of the search progress, or null if none was given
+     */
+    public File getCheckpointFile()
+    {
+        return checkpointFile;
+    }
+
+    /**
+     * @return true if the search continues from its checkpoint
+     */
+    public boolean isResume()
+    {
+        return resume;
+    }
+
+    /**
+     * @return true if this process leases the search to workers, see {@link Coordinator}
+     */
+    public boolean isCoordinator()
+    {
+        return listenPort >= 0;
+    }
+
+    /**
+     * @return true if this process searches the leases of a coordinator, see {@link Worker}
+     */
+    public boolean isWorker()
+    {
+        return coordinatorHost != null;
+    }
+
+    /**
+     * @return port to listen on for workers, see {@link #isCoordinator()}
+     */
+    public int getListenPort()
+    {
+        return listenPort;
+    }
+
+    /**
+     * @return host of the coordinator, see {@link #isWorker()}
+     */
+    public String getCoordinatorHost()
+    {
+        return coordinatorHost;
+    }
+
+    /**
+     * @return port of the coordinator, see {@link #isWorker()}
+     */
+    public int getCoordinatorPort()
+    {
+        return coordinatorPort;
+    }
+
+    public String getCipherSpec()
+    {
+        return cipherSpec;
+    }
+
+    public String getDateString()
+    {
+        return dateString;
+    }
+
+    public String getInfileName()
+    {
+        return infileName;
+    }
+}
@@ -0,0 +1,151 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+
+/**
+ * Crypto objects of one worker thread.
+ * <p>
+ * <p>Resolves the provider and creates the {@link Cipher} once; for every
+ * candidate it is only re-initialised with new key and IV material. The
+ * IV is passed as an {@link AlgorithmParameterSpec}, which the provider
+ * uses directly, instead of going through {@link java.security.AlgorithmParameters}.
+ * Modes without an IV (ECB) are initialised with the key only.</p>
+ * <p>
+ * <p>Instances are not thread safe.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class CryptoContext
+{
+    /**
+     * Length of the GCM authentication tag in bits, as used by the JCE by default
+     */
+    private static final int GCM_TAG_BITS = 128;
+
+    private final Cipher  cipher;
+    private final String  cipherAlgorithm;
+    private final boolean usesIv;
+    private final boolean isGcm;
+    private       Cipher  blockCipher;
+
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec cipher specification like e.g., AES/CTR/NoPadding
+     */
+    public CryptoContext( String cipherSpec )
+    {
+        try {
+            this.cipher = Cipher.getInstance( cipherSpec );
+        } catch ( NoSuchAlgorithmException | NoSuchPaddingException e ) {
+            throw new IllegalArgumentException( e );
+        }
+        this.cipherAlgorithm = cipherSpec.split( "/" )[ 0 ];
+        this.usesIv = isModeRequiringIv( cipherSpec );
+        this.isGcm = cipherSpec.contains( "GCM" );
+    }
+
+    /**
+     * @param cipherSpec cipher specification (e.g., AES/ECB/NoPadding)
+     * @return true if the mode uses an IV
+     */
+    public static boolean isModeRequiringIv( String cipherSpec )
+    {
+        return cipherSpec.contains( "CBC" ) || cipherSpec.contains( "CTR" ) || cipherSpec.contains( "GCM" );
+    }
+
+    /**
+     * Initialises the cipher for decryption.
+     *
+     * @param keys      array containing the key
+     * @param keyOffset offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param ivs       array containing the IV
+     * @param ivOffset  offset of the IV ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @return the initialised cipher
+     * @throws InvalidKeyException                if the key can't be used
+     * @throws InvalidAlgorithmParameterException if the IV can't be used
+     */
+    public Cipher initDecrypt( byte[] keys, int keyOffset, byte[] ivs, int ivOffset )
+        throws InvalidKeyException, InvalidAlgorithmParameterException
+    {
+        SecretKeySpec key = new SecretKeySpec( keys, keyOffset, BatchKeygen.BLOCK_BYTES, cipherAlgorithm );
+        if ( !usesIv ) {
+            cipher.init( Cipher.DECRYPT_MODE, key );
+        } else if ( isGcm ) {
+            cipher.init( Cipher.DECRYPT_MODE, key, new GCMParameterSpec( GCM_TAG_BITS, ivs, ivOffset, BatchKeygen.BLOCK_BYTES ) );
+        } else {
+            cipher.init( Cipher.DECRYPT_MODE, key, new IvParameterSpec( ivs, ivOffset, BatchKeygen.BLOCK_BYTES ) );
+        }
+        return cipher;
+    }
+
+    /**
+     * Encrypts a single block with the raw block cipher (ECB).
+     *
+     * @param keys         array containing the key
+     * @param keyOffset    offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param input        input block
+     * @param inputOffset  offset of the input block
+     * @param output       receives the output block
+     * @param outputOffset offset of the output block
+     */
+    public void encryptBlock( byte[] keys, int keyOffset, byte[] input, int inputOffset, byte[] output, int outputOffset )
+    {
+        try {
+            Cipher block = initBlockCipher( Cipher.ENCRYPT_MODE, keys, keyOffset );
+            block.doFinal( input, inputOffset, block.getBlockSize(), output, outputOffset );
+        } catch ( GeneralSecurityException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Initialises the raw block cipher (ECB), e.g. to process several
+     * blocks with one key schedule.
+     *
+     * @param opmode    {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param keys      array containing the key
+     * @param keyOffset offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @return the initialised block cipher
+     * @throws InvalidKeyException if the key can't be used
+     */
+    public Cipher initBlockCipher( int opmode, byte[] keys, int keyOffset )
+        throws InvalidKeyException
+    {
+        Cipher block = getBlockCipher();
+        block.init( opmode, new SecretKeySpec( keys, keyOffset, BatchKeygen.BLOCK_BYTES, cipherAlgorithm ) );
+        return block;
+    }
+
+    /**
+     * @return block size of the block cipher
+     */
+    public int getBlockSize()
+    {
+        return getBlockCipher().getBlockSize();
+    }
+
+    private Cipher getBlockCipher()
+    {
+        if ( blockCipher == null ) {
+            try {
+                blockCipher = Cipher.getInstance( cipherAlgorithm + "/ECB/NoPadding" );
+            } catch ( NoSuchAlgorithmException | NoSuchPaddingException e ) {
+                throw new IllegalStateException( e );
+            }
+        }
+        return blockCipher;
+    }
+}
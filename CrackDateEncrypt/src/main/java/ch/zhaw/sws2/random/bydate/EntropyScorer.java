@@ -0,0 +1,141 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the Shannon entropy (in bits per byte) of decrypted data.
+ * <p>
+ * <p>Counts the byte values in an int[256] histogram that is reset while
+ * the entropy is summed up, and takes n*log2(n) from a table for all
+ * counts up to {@link Crack#DECRYPT_MAX_BYTES}. Scoring therefore
+ * allocates nothing. With N bytes and counts c, the entropy is
+ * log2(N) - sum(c*log2(c)) / N, which is the same value as
+ * -sum(c/N * log2(c/N)).</p>
+ * <p>
+ * <p>The data can also be scored while it is being decrypted: it is
+ * {@link #add(byte[], int, int) added} piece by piece, and
+ * {@link #isClearlyAbove(double)} tells after every piece whether the
+ * candidate can be abandoned. The test counts collisions, i.e. pairs
+ * of equal bytes. The Shannon entropy is at least the collision
+ * entropy -log2(sum((c/N)^2)), so data rated below a threshold T has a
+ * collision probability of at least 2^-T, while the bytes of a wrong
+ * key collide with probability 1/256. A few hundred bytes tell these
+ * apart for any T below 8.</p>
+ * <p>
+ * <p>Instances are not thread safe.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class EntropyScorer
+    implements Scorer
+{
+    private static final double   LN2      = Math.log( 2.0 );
+    private static final double[] N_LOG2_N = new double[ Crack.DECRYPT_MAX_BYTES + 1 ];
+
+    /**
+     * Number of bytes before the sequential test is applied
+     */
+    private static final int MIN_TEST_BYTES = 64;
+
+    /**
+     * Standard deviations the collisions have to fall short of the
+     * threshold's expectation to abandon a candidate
+     */
+    private static final double TEST_DEVIATIONS = 4;
+
+    static {
+        for ( int n = 1; n < N_LOG2_N.length; n++ ) {
+            N_LOG2_N[ n ] = n * Math.log( n ) / LN2;
+        }
+    }
+
+    private final int[] histogram = new int[ 256 ];
+    private       int   count;
+    private       long  collisions;
+
+    /**
+     * Calculates the entropy of the first length bytes of data.
+     *
+     * @param data   data to rate
+     * @param length number of bytes to rate
+     * @return entropy in bits per byte, 0 for empty data
+     */
+    @Override
+    public double score( byte[] data, int length )
+    {
+        add( data, 0, length );
+        return finish();
+    }
+
+    /**
+     * Adds bytes to the data scored by {@link #finish()}.
+     *
+     * @param data data to rate
+     * @param from index of the first byte to add
+     * @param to   index after the last byte to add
+     */
+    public void add( byte[] data, int from, int to )
+    {
+        for ( int i = from; i < to; i++ ) {
+            collisions += histogram[ data[ i ] & 0xFF ]++;
+        }
+        count += to - from;
+    }
+
+    /**
+     * Sequential test whether the data added so far can still be
+     * rated below a threshold once all of it has been added. Assumes
+     * that the rest of the data looks like the bytes added so far.
+     *
+     * @param threshold rating the data has to stay below
+     * @return true if the bytes collide so rarely that the data is
+     * almost certainly rated at or above the threshold
+     */
+    public boolean isClearlyAbove( double threshold )
+    {
+        if ( count < MIN_TEST_BYTES ) {
+            return false;
+        }
+        double pairs = count * (count - 1.0) / 2;
+        double expected = pairs * Math.pow( 2, -threshold );
+        return collisions < expected - TEST_DEVIATIONS * Math.sqrt( expected );
+    }
+
+    /**
+     * Calculates the entropy of all bytes added since the last call
+     * and starts over.
+     *
+     * @return entropy in bits per byte, 0 for empty data
+     */
+    public double finish()
+    {
+        int length = count;
+        if ( length == 0 ) {
+            return 0;
+        }
+        double sum = 0;
+        for ( int i = 0; i < histogram.length; i++ ) {
+            sum += nLog2n( histogram[ i ] );
+            histogram[ i ] = 0;
+        }
+        count = 0;
+        collisions = 0;
+        return nLog2n( length ) / length - sum / length;
+    }
+
+    /**
+     * Discards the bytes added since the last call to {@link #finish()}.
+     */
+    public void reset()
+    {
+        Arrays.fill( histogram, 0 );
+        count = 0;
+        collisions = 0;
+    }
+
+    private static double nLog2n( int n )
+    {
+        return n < N_LOG2_N.length ? N_LOG2_N[ n ] : n * Math.log( n ) / LN2;
+    }
+}
@@ -0,0 +1,126 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+
+/**
+ * Open-addressing hash set of 16 byte IVs, each mapped to the number
+ * of the target (file) it belongs to.
+ * <p>
+ * <p>The IVs are stored as two longs in primitive arrays and probed
+ * linearly, so a lookup neither allocates nor follows pointers.
+ * Several targets may share an IV; {@link #find(byte[], int, int)}
+ * returns them one after the other.</p>
+ * <p>
+ * <p>The set is filled once and then only read, so it can be shared
+ * by all worker threads.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class IvTargetSet
+{
+    private static final int EMPTY = -1;
+
+    private final long[] highs;
+    private final long[] lows;
+    private final int[]  targets;
+    private final int    mask;
+    private       int    size;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize number of IVs that will be added
+     */
+    public IvTargetSet( int expectedSize )
+    {
+        int capacity = Integer.highestOneBit( Math.max( 2, expectedSize ) * 2 - 1 ) << 1;
+        highs = new long[ capacity ];
+        lows = new long[ capacity ];
+        targets = new int[ capacity ];
+        Arrays.fill( targets, EMPTY );
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds an IV.
+     *
+     * @param iv     IV, {@link BatchKeygen#BLOCK_BYTES} bytes
+     * @param target number of the target, &gt;= 0
+     */
+    public void add( byte[] iv, int target )
+    {
+        if ( target < 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid target %d", target ) );
+        }
+        if ( 2 * (size + 1) > targets.length ) {
+            throw new IllegalStateException( "Set is full" );
+        }
+        long high = readLong( iv, 0 );
+        long low = readLong( iv, 8 );
+        int slot = home( high, low );
+        while ( targets[ slot ] != EMPTY ) {
+            slot = (slot + 1) & mask;
+        }
+        highs[ slot ] = high;
+        lows[ slot ] = low;
+        targets[ slot ] = target;
+        size++;
+    }
+
+    /**
+     * Looks up an IV. To get all targets with this IV, call it again
+     * with the previously returned slot until it returns -1.
+     *
+     * @param ivs      array containing the IV
+     * @param offset   offset of the IV
+     * @param previous slot returned by the previous call, or -1 for the first call
+     * @return slot of the next target with this IV, or -1 if there is none
+     */
+    public int find( byte[] ivs, int offset, int previous )
+    {
+        long high = readLong( ivs, offset );
+        long low = readLong( ivs, offset + 8 );
+        int slot = previous < 0 ? home( high, low ) : (previous + 1) & mask;
+        while ( targets[ slot ] != EMPTY ) {
+            if ( highs[ slot ] == high && lows[ slot ] == low ) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot slot returned by {@link #find(byte[], int, int)}
+     * @return the target stored in the slot
+     */
+    public int getTarget( int slot )
+    {
+        return targets[ slot ];
+    }
+
+    /**
+     * @return number of IVs in the set
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    private int home( long high, long low )
+    {
+        long hash = (high ^ Long.rotateLeft( low, 32 )) * 0x9E3779B97F4A7C15L;
+        return (int)(hash >>> 32) & mask;
+    }
+
+    private static long readLong( byte[] bytes, int offset )
+    {
+        long value = 0;
+        for ( int i = 0; i < 8; i++ ) {
+            value = (value << 8) | (bytes[ offset + i ] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,397 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Splits the keyspace (start second .. end second) x (0 .. 999999 usecs),
+ * or more generally a set of {@link SecondRanges} x (0 .. 999999 usecs),
+ * into chunks of a fixed number of microseconds and searches them on a
+ * dedicated {@link ForkJoinPool}. The pool is kept for all runs, e.g.
+ * the leases of a {@link Worker}, so per-thread state of the search,
+ * such as the {@link BruteForcer}s of {@link Crack}, is created once.
+ * <p>
+ * <p>The chunks are numbered consecutively, second by second. They are
+ * visited in a {@link SearchOrder}, which maps every position in the
+ * order to a chunk number. The workers take the next position from a
+ * shared counter, so the chunks are searched close to that order and
+ * uneven chunk costs still balance. Once the search is stopped, the
+ * remaining chunks are skipped.</p>
+ * <p>
+ * <p>In {@link SearchOrder#PROXIMITY} order, the window is searched
+ * outward from the hint, so the window is the limit up to which the
+ * search expands: a wide window costs nothing as long as the key is
+ * close to the hint. With several ranges, the positions are assigned
+ * by distance in chunk numbers, i.e. the gaps between the ranges
+ * don't count. With several hints, e.g. one per
+ * {@link ClockHypotheses clock hypothesis}, every chunk belongs to
+ * the nearest hint and the spirals around the hints take turns.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class KeyspacePartitioner
+{
+    /**
+     * Searches one chunk of the keyspace.
+     */
+    @FunctionalInterface
+    public interface ChunkSearch
+    {
+        /**
+         * @param secondsSinceEpoch second to search
+         * @param firstUsec         first microsecond of the chunk
+         * @param count             number of microseconds in the chunk
+         */
+        void search( long secondsSinceEpoch, int firstUsec, int count );
+    }
+
+    /**
+     * Keeps track of the chunks that have been searched completely,
+     * e.g. to resume an interrupted search.
+     */
+    public interface CompletedChunks
+    {
+        /**
+         * Nothing has been searched before and nothing is recorded.
+         */
+        CompletedChunks NONE = new CompletedChunks()
+        {
+            @Override
+            public boolean isDone( long chunk )
+            {
+                return false;
+            }
+
+            @Override
+            public void markDone( long chunk )
+            {
+            }
+        };
+
+        /**
+         * @param chunk number of the chunk
+         * @return true if the chunk has been searched completely and can be skipped
+         */
+        boolean isDone( long chunk );
+
+        /**
+         * Called concurrently by the workers after they searched a chunk
+         * completely.
+         *
+         * @param chunk number of the chunk
+         */
+        void markDone( long chunk );
+    }
+
+    private final SecondRanges seconds;
+    private final int  chunkUsecs;
+    private final int  chunksPerSecond;
+    private final long chunkCount;
+    private final int  threads;
+    private final SearchOrder order;
+    /**
+     * The cells of a {@link SearchOrder#PROXIMITY} search: the chunks
+     * cellStarts[i] .. cellStarts[i + 1] - 1 are closer to hint i than
+     * to any other hint. cellHints[i] is the number of the chunk
+     * containing hint i, or of the first chunk after it.
+     */
+    private final long[] cellStarts;
+    private final long[] cellHints;
+    private       ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     *
+     * @param startSecond first second to search
+     * @param endSecond   last second to search (inclusive)
+     * @param chunkUsecs  number of microseconds per chunk
+     * @param threads     number of worker threads
+     */
+    public KeyspacePartitioner( long startSecond, long endSecond, int chunkUsecs, int threads )
+    {
+        this( SecondRanges.of( startSecond, endSecond ), chunkUsecs, threads );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param seconds    seconds to search
+     * @param chunkUsecs number of microseconds per chunk
+     * @param threads    number of worker threads
+     */
+    public KeyspacePartitioner( SecondRanges seconds, int chunkUsecs, int threads )
+    {
+        this( seconds, chunkUsecs, threads, SearchOrder.LINEAR );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param seconds    seconds to search
+     * @param chunkUsecs number of microseconds per chunk
+     * @param threads    number of worker threads
+     * @param order      order in which the chunks are searched
+     * @param hintUsecs  most likely times in microseconds since the epoch,
+     *                   where a {@link SearchOrder#PROXIMITY} search starts;
+     *                   with several hints, their spirals take turns
+     */
+    public KeyspacePartitioner( SecondRanges seconds, int chunkUsecs, int threads, SearchOrder order, long... hintUsecs )
+    {
+        if ( chunkUsecs <= 0 || chunkUsecs > Constants.USECS_PER_SECOND ) {
+            throw new IllegalArgumentException( String.format( "Invalid chunk size: %d", chunkUsecs ) );
+        }
+        if ( threads <= 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid number of threads: %d", threads ) );
+        }
+        this.seconds = seconds;
+        this.chunkUsecs = chunkUsecs;
+        this.chunksPerSecond = (int)((Constants.USECS_PER_SECOND + chunkUsecs - 1) / chunkUsecs);
+        this.chunkCount = seconds.getSecondCount() * chunksPerSecond;
+        this.threads = threads;
+        this.order = order;
+        long[] hints = new long[ Math.max( 1, hintUsecs.length ) ];
+        for ( int i = 0; i < hintUsecs.length; i++ ) {
+            hints[ i ] = getHintChunk( hintUsecs[ i ] );
+        }
+        hints = Arrays.stream( hints ).sorted().distinct().toArray();
+        this.cellHints = hints;
+        this.cellStarts = new long[ hints.length + 1 ];
+        for ( int i = 1; i < hints.length; i++ ) {
+            cellStarts[ i ] = (hints[ i - 1 ] + hints[ i ] + 1) / 2;
+        }
+        cellStarts[ hints.length ] = chunkCount;
+    }
+
+    private long getHintChunk( long hintUsecs )
+    {
+        long hintSecond = Math.floorDiv( hintUsecs, Constants.USECS_PER_SECOND );
+        long hintChunk = seconds.countBefore( hintSecond ) * chunksPerSecond;
+        if ( seconds.contains( hintSecond ) ) {
+            int hintUsec = (int)Math.floorMod( hintUsecs, Constants.USECS_PER_SECOND );
+            hintChunk += hintUsec / chunkUsecs;
+        }
+        return hintChunk;
+    }
+
+    /**
+     * @return the number of chunks in the keyspace
+     */
+    public long getChunkCount()
+    {
+        return chunkCount;
+    }
+
+    /**
+     * @return the number of microseconds, i.e. candidates, in the keyspace
+     */
+    public long getKeyCount()
+    {
+        return seconds.getSecondCount() * Constants.USECS_PER_SECOND;
+    }
+
+    /**
+     * @param chunk number of the chunk
+     * @return the number of microseconds, i.e. candidates, in the chunk
+     */
+    public int getChunkKeyCount( long chunk )
+    {
+        int firstUsec = (int)(chunk % chunksPerSecond) * chunkUsecs;
+        return (int)Math.min( chunkUsecs, Constants.USECS_PER_SECOND - firstUsec );
+    }
+
+    /**
+     * @param position position in the search order, 0 &lt;= position &lt; {@link #getChunkCount()}
+     * @return number of the chunk searched at this position
+     */
+    public long getChunk( long position )
+    {
+        if ( order == SearchOrder.LINEAR ) {
+            return position;
+        }
+        int cells = cellHints.length;
+        if ( cells == 1 ) {
+            return getChunk( 0, position );
+        }
+        // The cells take turns: step d visits position d of the spiral of
+        // every cell that has more than d chunks. Find the step first.
+        long low = 0;
+        long high = chunkCount;
+        while ( high - low > 1 ) {
+            long middle = (low + high) >>> 1;
+            if ( getPositionsBefore( middle ) <= position ) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        long index = position - getPositionsBefore( low );
+        for ( int cell = 0; cell < cells; cell++ ) {
+            if ( getCellSize( cell ) > low && index-- == 0 ) {
+                return getChunk( cell, low );
+            }
+        }
+        throw new IllegalArgumentException( String.format( "Invalid position: %d", position ) );
+    }
+
+    /**
+     * @return number of positions visited in the steps before the given step
+     */
+    private long getPositionsBefore( long step )
+    {
+        long positions = 0;
+        for ( int cell = 0; cell < cellHints.length; cell++ ) {
+            positions += Math.min( getCellSize( cell ), step );
+        }
+        return positions;
+    }
+
+    private long getCellSize( int cell )
+    {
+        return cellStarts[ cell + 1 ] - cellStarts[ cell ];
+    }
+
+    /**
+     * @return the chunk at the given position of the spiral of a cell
+     */
+    private long getChunk( int cell, long position )
+    {
+        long hintChunk = cellHints[ cell ];
+        long before = hintChunk - cellStarts[ cell ];
+        long after = cellStarts[ cell + 1 ] - hintChunk;
+        long alternating = 2 * Math.min( before, after );
+        if ( position < alternating ) {
+            return position % 2 == 0 ? hintChunk + position / 2 : hintChunk - 1 - position / 2;
+        }
+        long rest = position - alternating;
+        return after > before ? hintChunk + before + rest : hintChunk - 1 - after - rest;
+    }
+
+    /**
+     * Searches all chunks and returns when all have been searched
+     * or the search has been stopped.
+     *
+     * @param search    search to run for every chunk; called concurrently
+     * @param isStopped tells whether the search has been stopped
+     */
+    public void run( ChunkSearch search, BooleanSupplier isStopped )
+    {
+        run( search, isStopped, CompletedChunks.NONE );
+    }
+
+    /**
+     * Searches all chunks that are not done yet and returns when all
+     * have been searched or the search has been stopped. A chunk is
+     * only marked as done if the search was still running after it.
+     *
+     * @param search    search to run for every chunk; called concurrently
+     * @param isStopped tells whether the search has been stopped
+     * @param completed chunks searched before, receives the chunks searched now
+     */
+    public void run( ChunkSearch search, BooleanSupplier isStopped, CompletedChunks completed )
+    {
+        run( search, isStopped, completed, 0, chunkCount );
+    }
+
+    /**
+     * Searches the chunks at the positions from .. to - 1 of the search
+     * order that are not done yet, e.g. a range leased by a
+     * {@link Coordinator}.
+     *
+     * @param search    search to run for every chunk; called concurrently
+     * @param isStopped tells whether the search has been stopped
+     * @param completed chunks searched before, receives the chunks searched now
+     * @param from      first position to search
+     * @param to        position after the last position to search
+     */
+    public void run( ChunkSearch search, BooleanSupplier isStopped, CompletedChunks completed, long from, long to )
+    {
+        if ( from < 0 || to > chunkCount || from > to ) {
+            throw new IllegalArgumentException( String.format( "Invalid chunk range %d..%d of %d chunks", from, to, chunkCount ) );
+        }
+        if ( from == to ) {
+            return;
+        }
+        AtomicLong next = new AtomicLong( from );
+        List<ChunkLoop> loops = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ ) {
+            loops.add( new ChunkLoop( search, isStopped, completed, next, to ) );
+        }
+        getPool().invoke( new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll( loops );
+            }
+        } );
+    }
+
+    /**
+     * Creates the pool on the first run. Its threads are daemon threads
+     * and end when they have been idle for a while.
+     */
+    private synchronized ForkJoinPool getPool()
+    {
+        if ( pool == null ) {
+            pool = new ForkJoinPool( threads );
+        }
+        return pool;
+    }
+
+    private void searchChunk( ChunkSearch search, long chunk )
+    {
+        long second = seconds.getSecond( chunk / chunksPerSecond );
+        int firstUsec = (int)(chunk % chunksPerSecond) * chunkUsecs;
+        search.search( second, firstUsec, getChunkKeyCount( chunk ) );
+    }
+
+    /**
+     * Searches the chunks at the next free positions until all
+     * positions are taken or the search is stopped.
+     */
+    private class ChunkLoop
+        extends RecursiveAction
+    {
+        /**
+         * Tasks are never serialized, but {@link RecursiveAction} is Serializable
+         */
+        private static final long serialVersionUID = 1L;
+
+        private final ChunkSearch     search;
+        private final BooleanSupplier isStopped;
+        private final CompletedChunks completed;
+        private final AtomicLong      next;
+        private final long            to;
+
+        ChunkLoop( ChunkSearch search, BooleanSupplier isStopped, CompletedChunks completed, AtomicLong next, long to )
+        {
+            this.search = search;
+            this.isStopped = isStopped;
+            this.completed = completed;
+            this.next = next;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            long position;
+            while ( !isStopped.getAsBoolean() && (position = next.getAndIncrement()) < to ) {
+                long chunk = getChunk( position );
+                if ( !completed.isDone( chunk ) ) {
+                    searchChunk( search, chunk );
+                    if ( !isStopped.getAsBoolean() ) {
+                        completed.markDone( chunk );
+                    }
+                }
+            }
+        }
+    }
+}
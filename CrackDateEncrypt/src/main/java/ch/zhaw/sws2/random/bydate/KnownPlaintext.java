@@ -0,0 +1,147 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * A known or partially known prefix of the plaintext.
+ * <p>
+ * <p>Bytes that are not known are wildcards and match any value.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class KnownPlaintext
+{
+    private static final String WILDCARD = "??";
+
+    private final byte[]    bytes;
+    private final boolean[] known;
+
+    private KnownPlaintext( byte[] bytes, boolean[] known )
+    {
+        if ( bytes.length == 0 ) {
+            throw new IllegalArgumentException( "Known plaintext must not be empty" );
+        }
+        this.bytes = bytes;
+        this.known = known;
+    }
+
+    /**
+     * Parses a hex string such as "48616c??6f", where "??" is a wildcard byte.
+     *
+     * @param hex hex digits, two per byte
+     * @return the known plaintext
+     */
+    public static KnownPlaintext fromHex( String hex )
+    {
+        if ( hex.length() % 2 != 0 ) {
+            throw new IllegalArgumentException( String.format( "Odd number of hex digits: %s", hex ) );
+        }
+        byte[] bytes = new byte[ hex.length() / 2 ];
+        boolean[] known = new boolean[ bytes.length ];
+        for ( int i = 0; i < bytes.length; i++ ) {
+            String digits = hex.substring( 2 * i, 2 * i + 2 );
+            if ( !WILDCARD.equals( digits ) ) {
+                bytes[ i ] = (byte)Integer.parseInt( digits, 16 );
+                known[ i ] = true;
+            }
+        }
+        return new KnownPlaintext( bytes, known );
+    }
+
+    /**
+     * @param text text the plaintext starts with, without wildcards
+     * @return the known plaintext (UTF-8 encoded)
+     */
+    public static KnownPlaintext fromText( String text )
+    {
+        byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+        boolean[] known = new boolean[ bytes.length ];
+        Arrays.fill( known, true );
+        return new KnownPlaintext( bytes, known );
+    }
+
+    /**
+     * @return length of the prefix, including wildcards
+     */
+    public int length()
+    {
+        return bytes.length;
+    }
+
+    /**
+     * @return number of bytes that are not wildcards
+     */
+    public int getKnownCount()
+    {
+        int count = 0;
+        for ( boolean isKnown : known ) {
+            if ( isKnown ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether keystream XOR ciphertext matches the prefix. Only
+     * the bytes available in both the keystream and the prefix are checked.
+     *
+     * @param keystream        keystream
+     * @param keystreamOffset  offset of the keystream
+     * @param ciphertext       ciphertext
+     * @param plaintextOffset  offset of the keystream block in the plaintext
+     * @param length           number of keystream bytes
+     * @return true if all known bytes in the range match
+     */
+    public boolean matchesKeystream( byte[] keystream, int keystreamOffset, byte[] ciphertext, int plaintextOffset, int length )
+    {
+        int end = Math.min( plaintextOffset + length, Math.min( bytes.length, ciphertext.length ) );
+        for ( int i = plaintextOffset; i < end; i++ ) {
+            if ( known[ i ] && (byte)(keystream[ keystreamOffset + i - plaintextOffset ] ^ ciphertext[ i ]) != bytes[ i ] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the keystream block that a matching candidate produces,
+     * i.e. ciphertext XOR prefix, for comparison with many keystream
+     * blocks at once.
+     *
+     * @param ciphertext      ciphertext
+     * @param plaintextOffset offset of the keystream block in the plaintext
+     * @param expected        receives the expected keystream block
+     * @param mask            receives 0xFF for every byte to compare and 0 otherwise
+     */
+    public void getExpectedKeystream( byte[] ciphertext, int plaintextOffset, byte[] expected, byte[] mask )
+    {
+        int end = Math.min( bytes.length, ciphertext.length );
+        for ( int i = 0; i < expected.length; i++ ) {
+            int index = plaintextOffset + i;
+            boolean compared = index < end && known[ index ];
+            expected[ i ] = compared ? (byte)(ciphertext[ index ] ^ bytes[ index ]) : 0;
+            mask[ i ] = compared ? (byte)0xFF : 0;
+        }
+    }
+
+    /**
+     * @param plaintext decrypted data
+     * @return true if all known bytes match
+     */
+    public boolean matches( byte[] plaintext )
+    {
+        if ( plaintext.length < bytes.length ) {
+            return false;
+        }
+        for ( int i = 0; i < bytes.length; i++ ) {
+            if ( known[ i ] && plaintext[ i ] != bytes[ i ] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Recognizes gzip, zip and PDF payloads by their file signature.
+ * <p>
+ * <p>Compressed payloads look as random as the output of a wrong key,
+ * so they can't be rated by their statistics. Instead, the first
+ * block is compared with the signatures, which takes a few byte
+ * comparisons. Data with a signature is verified before it is rated
+ * {@link #CERTAIN}: the deflate stream of a gzip file or zip entry
+ * must inflate without error as far as it was decrypted, the other
+ * header fields must be valid. A wrong key matches the 3 to 5 bytes
+ * of a signature about once in 2^24 to 2^40 candidates, but hardly
+ * ever passes the verification.</p>
+ * <p>
+ * <p>Data without a signature is left to the next scorer of the chain.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class MagicScorer
+    implements Scorer
+{
+    private static final byte[] GZIP = { 0x1F, (byte)0x8B, 0x08 };
+    private static final byte[] ZIP  = { 'P', 'K', 0x03, 0x04 };
+    private static final byte[] PDF  = { '%', 'P', 'D', 'F', '-' };
+
+    /**
+     * Flags of a gzip header, see RFC 1952
+     */
+    private static final int GZIP_FHCRC    = 0x02;
+    private static final int GZIP_FEXTRA   = 0x04;
+    private static final int GZIP_FNAME    = 0x08;
+    private static final int GZIP_FCOMMENT = 0x10;
+    private static final int GZIP_RESERVED = 0xE0;
+    private static final int GZIP_HEADER_BYTES = 10;
+
+    /**
+     * Fields of a zip local file header, see the PKWARE APPNOTE
+     */
+    private static final int ZIP_HEADER_BYTES  = 30;
+    private static final int ZIP_MAX_VERSION   = 63;
+    private static final int ZIP_STORED        = 0;
+    private static final int ZIP_DEFLATED      = 8;
+
+    private static final int INFLATE_BUFFER_BYTES = 4096;
+
+    @Override
+    public double scoreStart( byte[] data, int length )
+    {
+        if ( startsWith( data, length, GZIP ) || startsWith( data, length, ZIP ) || startsWith( data, length, PDF ) ) {
+            return CERTAIN;
+        }
+        return NO_OPINION;
+    }
+
+    @Override
+    public double score( byte[] data, int length )
+    {
+        if ( startsWith( data, length, GZIP ) ) {
+            return isGzip( data, length ) ? CERTAIN : REJECT;
+        } else if ( startsWith( data, length, ZIP ) ) {
+            return isZip( data, length ) ? CERTAIN : REJECT;
+        } else if ( startsWith( data, length, PDF ) ) {
+            return isPdf( data, length ) ? CERTAIN : REJECT;
+        }
+        return NO_OPINION;
+    }
+
+    private static boolean startsWith( byte[] data, int length, byte[] magic )
+    {
+        if ( length < magic.length ) {
+            return false;
+        }
+        for ( int i = 0; i < magic.length; i++ ) {
+            if ( data[ i ] != magic[ i ] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isGzip( byte[] data, int length )
+    {
+        if ( length < GZIP_HEADER_BYTES ) {
+            return false;
+        }
+        int flags = data[ 3 ] & 0xFF;
+        if ( (flags & GZIP_RESERVED) != 0 ) {
+            return false;
+        }
+        int offset = GZIP_HEADER_BYTES;
+        if ( (flags & GZIP_FEXTRA) != 0 ) {
+            if ( offset + 2 > length ) {
+                return false;
+            }
+            offset += 2 + ((data[ offset ] & 0xFF) | (data[ offset + 1 ] & 0xFF) << 8);
+        }
+        if ( (flags & GZIP_FNAME) != 0 ) {
+            offset = skipZeroTerminated( data, length, offset );
+        }
+        if ( (flags & GZIP_FCOMMENT) != 0 ) {
+            offset = skipZeroTerminated( data, length, offset );
+        }
+        if ( (flags & GZIP_FHCRC) != 0 ) {
+            offset += 2;
+        }
+        return offset < length && inflates( data, offset, length );
+    }
+
+    /**
+     * @return offset after the terminating zero, beyond length if there is none
+     */
+    private static int skipZeroTerminated( byte[] data, int length, int offset )
+    {
+        while ( offset < length && data[ offset ] != 0 ) {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    private static boolean isZip( byte[] data, int length )
+    {
+        if ( length < ZIP_HEADER_BYTES ) {
+            return false;
+        }
+        int version = readShort( data, 4 );
+        int method = readShort( data, 8 );
+        int nameLength = readShort( data, 26 );
+        int extraLength = readShort( data, 28 );
+        if ( version > ZIP_MAX_VERSION || nameLength == 0 || (method != ZIP_STORED && method != ZIP_DEFLATED) ) {
+            return false;
+        }
+        int nameEnd = Math.min( length, ZIP_HEADER_BYTES + nameLength );
+        for ( int i = ZIP_HEADER_BYTES; i < nameEnd; i++ ) {
+            if ( data[ i ] >= 0 && data[ i ] < 0x20 ) {
+                return false;
+            }
+        }
+        int offset = ZIP_HEADER_BYTES + nameLength + extraLength;
+        return method == ZIP_STORED || offset >= length || inflates( data, offset, length );
+    }
+
+    private static int readShort( byte[] data, int offset )
+    {
+        return (data[ offset ] & 0xFF) | (data[ offset + 1 ] & 0xFF) << 8;
+    }
+
+    private static boolean isPdf( byte[] data, int length )
+    {
+        // "%PDF-" is followed by a version like 1.7
+        return length >= PDF.length + 3 && Character.isDigit( data[ PDF.length ] ) && data[ PDF.length + 1 ] == '.'
+            && Character.isDigit( data[ PDF.length + 2 ] );
+    }
+
+    /**
+     * @return true if the raw deflate stream at offset inflates without
+     * error up to the end of the data
+     */
+    private static boolean inflates( byte[] data, int offset, int length )
+    {
+        Inflater inflater = new Inflater( true );
+        try {
+            inflater.setInput( data, offset, length - offset );
+            byte[] buffer = new byte[ INFLATE_BUFFER_BYTES ];
+            while ( !inflater.finished() && !inflater.needsInput() ) {
+                if ( inflater.inflate( buffer ) == 0 && (inflater.needsDictionary() || inflater.needsInput()) ) {
+                    break;
+                }
+            }
+            return !inflater.needsDictionary();
+        } catch ( DataFormatException e ) {
+            return false;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+
+
+/**
+ * Decrypts the data of a candidate key the cheapest way its cipher
+ * mode allows.
+ * <p>
+ * <p>Almost all candidates are rejected by their first block, so the
+ * first block is decrypted with the raw block cipher, with as little
+ * as the mode needs:</p>
+ * <p>
+ * <p>ECB: D_k(C0)
+ * CBC: D_k(C0) XOR IV
+ * CTR: E_k(IV) XOR C0
+ * GCM: E_k(inc32(J0)) XOR C0</p>
+ * <p>
+ * <p>GCM is CTR mode starting with the counter inc32(J0), where J0 is
+ * derived from the IV by GHASH with the hash key E_k(0), see NIST SP
+ * 800-38D. Unlike the JCE, which releases no plaintext before the
+ * authentication tag has been checked at the end of the data, the
+ * data of a candidate is decrypted as CTR, and the tag is only used to
+ * confirm a candidate that has been rated well. The tag is the last
+ * {@link #GCM_TAG_BYTES} bytes of the file, so it is only known if the
+ * whole file has been read, i.e. the reader saw its end. Other modes
+ * have no tag.</p>
+ * <p>
+ * <p>Other modes than these four are decrypted by the JCE only.</p>
+ * <p>
+ * <p>Instances are not thread safe.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class ModeTester
+{
+    /**
+     * Length of the GCM authentication tag, as used by the JCE by default
+     */
+    public static final int GCM_TAG_BYTES = 16;
+
+    private enum Mode
+    {
+        ECB, CBC, CTR, GCM, OTHER
+    }
+
+    /**
+     * Reduction constant of the GHASH multiplication, x^128 + x^7 + x^2 + x + 1
+     * in the bit order of GCM
+     */
+    private static final long GHASH_R = 0xE100000000000000L;
+
+    private final Mode          mode;
+    private final CryptoContext crypto;
+    private final byte[]        encryptedData;
+    private final int           ciphertextLength;
+    private final boolean       hasTag;
+    private final int           blockSize;
+    private final byte[]        block;
+    private final byte[]        zeros;
+    private final byte[]        hashKey;
+    private final byte[]        counters;
+    private final byte[]        keystream;
+
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec    cipher specification like e.g., AES/CTR/NoPadding
+     * @param crypto        crypto objects of the calling thread
+     * @param encryptedData encrypted data following the header, at most
+     *                      {@link Crack#DECRYPT_MAX_BYTES}
+     * @param complete      whether the encrypted data goes up to the end
+     *                      of the file, so it ends with the GCM tag
+     */
+    public ModeTester( String cipherSpec, CryptoContext crypto, byte[] encryptedData, boolean complete )
+    {
+        this.mode = getMode( cipherSpec );
+        this.crypto = crypto;
+        this.encryptedData = encryptedData;
+        this.blockSize = crypto.getBlockSize();
+        this.hasTag = mode == Mode.GCM && complete && encryptedData.length >= GCM_TAG_BYTES;
+        this.ciphertextLength = hasTag ? encryptedData.length - GCM_TAG_BYTES : encryptedData.length;
+        this.block = new byte[ blockSize ];
+        this.zeros = new byte[ blockSize ];
+        this.hashKey = new byte[ blockSize ];
+        int blocks = (ciphertextLength + blockSize - 1) / blockSize;
+        this.counters = mode == Mode.GCM ? new byte[ blocks * blockSize ] : null;
+        this.keystream = mode == Mode.GCM ? new byte[ blocks * blockSize ] : null;
+    }
+
+    private static Mode getMode( String cipherSpec )
+    {
+        String[] parts = cipherSpec.split( "/" );
+        if ( parts.length < 2 ) {
+            return Mode.ECB;
+        }
+        try {
+            return Mode.valueOf( parts[ 1 ] );
+        } catch ( IllegalArgumentException e ) {
+            return Mode.OTHER;
+        }
+    }
+
+    /**
+     * @return block size of the block cipher
+     */
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * @return number of bytes of ciphertext, without the GCM tag
+     */
+    public int getCiphertextLength()
+    {
+        return ciphertextLength;
+    }
+
+    /**
+     * @return true if the JCE decrypts the data as it comes, so the
+     * cipher from {@link CryptoContext#initDecrypt(byte[], int, byte[], int)}
+     * can be used to decrypt it step by step; false for GCM
+     */
+    public boolean isStreaming()
+    {
+        return mode != Mode.GCM;
+    }
+
+    /**
+     * @return true if the data ends with a GCM tag, see {@link #verifyTag(byte[], int, byte[], int)}
+     */
+    public boolean hasTag()
+    {
+        return hasTag;
+    }
+
+    /**
+     * Decrypts the first block of the data.
+     *
+     * @param keys      array containing the key
+     * @param keyOffset offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param ivs       array containing the IV
+     * @param ivOffset  offset of the IV ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param output    receives the first block at offset 0
+     * @return false if the mode is none of ECB, CBC, CTR and GCM, or the
+     * data is shorter than a block; output is unchanged then
+     */
+    public boolean decryptFirstBlock( byte[] keys, int keyOffset, byte[] ivs, int ivOffset, byte[] output )
+    {
+        if ( mode == Mode.OTHER || ciphertextLength < blockSize ) {
+            return false;
+        }
+        try {
+            if ( mode == Mode.ECB || mode == Mode.CBC ) {
+                crypto.initBlockCipher( Cipher.DECRYPT_MODE, keys, keyOffset ).doFinal( encryptedData, 0, blockSize, output, 0 );
+                if ( mode == Mode.CBC ) {
+                    xor( output, ivs, ivOffset );
+                }
+            } else {
+                Cipher cipher = crypto.initBlockCipher( Cipher.ENCRYPT_MODE, keys, keyOffset );
+                if ( mode == Mode.GCM ) {
+                    getFirstCounter( cipher, ivs, ivOffset, block );
+                    cipher.doFinal( block, 0, blockSize, output, 0 );
+                } else {
+                    cipher.doFinal( ivs, ivOffset, blockSize, output, 0 );
+                }
+                xor( output, encryptedData, 0 );
+            }
+        } catch ( GeneralSecurityException e ) {
+            throw new IllegalStateException( e );
+        }
+        return true;
+    }
+
+    /**
+     * Decrypts all of the ciphertext.
+     *
+     * @param keys      array containing the key
+     * @param keyOffset offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param ivs       array containing the IV
+     * @param ivOffset  offset of the IV ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param output    receives the plaintext at offset 0
+     */
+    public void decrypt( byte[] keys, int keyOffset, byte[] ivs, int ivOffset, byte[] output )
+    {
+        try {
+            if ( mode == Mode.GCM ) {
+                Cipher cipher = crypto.initBlockCipher( Cipher.ENCRYPT_MODE, keys, keyOffset );
+                getFirstCounter( cipher, ivs, ivOffset, block );
+                for ( int offset = 0; offset < counters.length; offset += blockSize ) {
+                    System.arraycopy( block, 0, counters, offset, blockSize );
+                    increment32( block );
+                }
+                cipher.doFinal( counters, 0, counters.length, keystream, 0 );
+                for ( int i = 0; i < ciphertextLength; i++ ) {
+                    output[ i ] = (byte)(encryptedData[ i ] ^ keystream[ i ]);
+                }
+            } else {
+                Cipher cipher = crypto.initDecrypt( keys, keyOffset, ivs, ivOffset );
+                cipher.update( encryptedData, 0, encryptedData.length, output, 0 );
+            }
+        } catch ( GeneralSecurityException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Checks the GCM tag at the end of the data, which only the right
+     * key passes. Costs a full GCM decryption by the JCE.
+     *
+     * @param keys      array containing the key
+     * @param keyOffset offset of the key ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @param ivs       array containing the IV
+     * @param ivOffset  offset of the IV ({@link BatchKeygen#BLOCK_BYTES} bytes)
+     * @return true if the tag matches
+     * @throws IllegalStateException if the data has no tag, see {@link #hasTag()}
+     */
+    public boolean verifyTag( byte[] keys, int keyOffset, byte[] ivs, int ivOffset )
+    {
+        if ( !hasTag ) {
+            throw new IllegalStateException( "The data has no GCM tag" );
+        }
+        try {
+            crypto.initDecrypt( keys, keyOffset, ivs, ivOffset ).doFinal( encryptedData );
+            return true;
+        } catch ( AEADBadTagException e ) {
+            return false;
+        } catch ( GeneralSecurityException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Computes the counter of the first GCM block, inc32(J0). For an IV
+     * of 16 bytes, J0 = GHASH_H(IV || 0^64 || [128]_64) with H = E_k(0).
+     *
+     * @param cipher  block cipher initialised for encryption with the key
+     * @param counter receives the counter
+     */
+    private void getFirstCounter( Cipher cipher, byte[] ivs, int ivOffset, byte[] counter )
+        throws GeneralSecurityException
+    {
+        cipher.doFinal( zeros, 0, blockSize, hashKey, 0 );
+        long hHigh = readLong( hashKey, 0 );
+        long hLow = readLong( hashKey, 8 );
+
+        long[] y = { readLong( ivs, ivOffset ), readLong( ivs, ivOffset + 8 ) };
+        multiply( y, hHigh, hLow );
+        y[ 1 ] ^= (long)BatchKeygen.BLOCK_BYTES * Byte.SIZE;
+        multiply( y, hHigh, hLow );
+
+        writeLong( counter, 0, y[ 0 ] );
+        writeLong( counter, 8, y[ 1 ] );
+        increment32( counter );
+    }
+
+    /**
+     * Multiplies y by h in GF(2^128) as defined for GHASH, where the
+     * first bit of a block is the coefficient of x^0.
+     */
+    private static void multiply( long[] y, long hHigh, long hLow )
+    {
+        long zHigh = 0;
+        long zLow = 0;
+        long vHigh = hHigh;
+        long vLow = hLow;
+        for ( int i = 0; i < 128; i++ ) {
+            long bit = i < 64 ? y[ 0 ] >>> (63 - i) : y[ 1 ] >>> (127 - i);
+            if ( (bit & 1) != 0 ) {
+                zHigh ^= vHigh;
+                zLow ^= vLow;
+            }
+            boolean carry = (vLow & 1) != 0;
+            vLow = (vLow >>> 1) | (vHigh << 63);
+            vHigh >>>= 1;
+            if ( carry ) {
+                vHigh ^= GHASH_R;
+            }
+        }
+        y[ 0 ] = zHigh;
+        y[ 1 ] = zLow;
+    }
+
+    /**
+     * Increments the last 32 bits of a counter block modulo 2^32.
+     */
+    private static void increment32( byte[] counter )
+    {
+        for ( int i = counter.length - 1; i >= counter.length - 4; i-- ) {
+            if ( ++counter[ i ] != 0 ) {
+                return;
+            }
+        }
+    }
+
+    private void xor( byte[] output, byte[] input, int inputOffset )
+    {
+        for ( int i = 0; i < blockSize; i++ ) {
+            output[ i ] ^= input[ inputOffset + i ];
+        }
+    }
+
+    private static long readLong( byte[] data, int offset )
+    {
+        long value = 0;
+        for ( int i = 0; i < 8; i++ ) {
+            value = value << 8 | (data[ offset + i ] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeLong( byte[] data, int offset, long value )
+    {
+        for ( int i = 7; i >= 0; i-- ) {
+            data[ offset + i ] = (byte)value;
+            value >>>= 8;
+        }
+    }
+}
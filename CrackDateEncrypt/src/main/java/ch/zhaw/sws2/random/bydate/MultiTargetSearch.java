@@ -0,0 +1,193 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Cracks many captures in one sweep of the keyspace.
+ * <p>
+ * <p>ByDate writes the IV in front of every file, so a file is cracked
+ * as soon as a candidate's IV equals its header. The headers of all
+ * targets are loaded into an {@link IvTargetSet}; every candidate IV
+ * is derived once and looked up there. The search covers the union of
+ * the targets' time windows, so the cost grows with that union and not
+ * with the number of files. With pid and ppid ranges, the union of
+ * the time inputs is searched instead, see {@link ProcessIdRanges}.</p>
+ * <p>
+ * <p>The targets are either all files of a directory, which share the
+ * timespec given on the command line, or listed in a manifest file
+ * with one "path timespec" pair per line. Relative paths are resolved
+ * against the manifest's directory; empty lines and lines starting
+ * with # are ignored. Files too short to hold an IV are skipped.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class MultiTargetSearch
+{
+    /**
+     * Number of consecutive microseconds whose IVs are derived at once
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private final List<File>         files = new ArrayList<>();
+    private final List<ZonedDateTime> dates = new ArrayList<>();
+    private final ClockHypotheses    hypotheses;
+    private final ProcessIdRanges    processIds;
+    private final long               windowStart;
+    private final long               windowEnd;
+    private final IvTargetSet        targets;
+    private final SecondRanges       seconds;
+    private final AtomicIntegerArray found;
+    private final AtomicInteger      remaining;
+    private final ThreadLocal<byte[]> ivs = ThreadLocal.withInitial( () -> new byte[ BATCH_SIZE * BatchKeygen.BLOCK_BYTES ] );
+    private final long               progressSeconds;
+    private final File               metricsFile;
+    private       SearchMetrics      metrics;
+    private final ThreadLocal<SearchMetrics.Counters> counters = ThreadLocal.withInitial( () -> metrics.register() );
+
+    /**
+     * Constructor. Reads the headers of all targets.
+     *
+     * @param options command-line options; the input is a directory or manifest
+     * @throws IOException if a target can't be read or there is none
+     */
+    public MultiTargetSearch( CrackOptions options )
+        throws IOException
+    {
+        File input = new File( options.getInfileName() );
+        List<File> listedFiles = new ArrayList<>();
+        List<ZonedDateTime> listedDates = new ArrayList<>();
+        if ( input.isDirectory() ) {
+            File[] children = input.listFiles( File::isFile );
+            Arrays.sort( children );
+            listedFiles.addAll( Arrays.asList( children ) );
+            listedDates.addAll( Collections.nCopies( children.length, ZonedDateTime.parse( options.getDateString() ) ) );
+        } else {
+            for ( String line : Files.readAllLines( input.toPath(), StandardCharsets.UTF_8 ) ) {
+                line = line.trim();
+                if ( line.isEmpty() || line.startsWith( "#" ) ) {
+                    continue;
+                }
+                String[] fields = line.split( "\\s+" );
+                if ( fields.length != 2 ) {
+                    throw new IOException( String.format( "Expected \"path timespec\", got %s", line ) );
+                }
+                File file = new File( fields[ 0 ] );
+                listedFiles.add( file.isAbsolute() ? file : new File( input.getAbsoluteFile().getParentFile(), fields[ 0 ] ) );
+                listedDates.add( ZonedDateTime.parse( fields[ 1 ] ) );
+            }
+        }
+
+        targets = new IvTargetSet( Math.max( 1, listedFiles.size() ) );
+        List<long[]> windows = new ArrayList<>();
+        byte[] iv = new byte[ BatchKeygen.BLOCK_BYTES ];
+        for ( int i = 0; i < listedFiles.size(); i++ ) {
+            File file = listedFiles.get( i );
+            try ( DataInputStream is = new DataInputStream( new FileInputStream( file ) ) ) {
+                is.readFully( iv );
+            } catch ( EOFException e ) {
+                System.err.printf( "Skipped %s: too short for an IV%n", file );
+                continue;
+            } catch ( IOException e ) {
+                throw new IOException( String.format( "Can't read target %s", file ), e );
+            }
+            targets.add( iv, files.size() );
+            files.add( file );
+            dates.add( listedDates.get( i ) );
+            windows.addAll( options.getHypotheses().getWindows( listedDates.get( i ), options.getWindowStart(),
+                options.getWindowEnd() ) );
+        }
+        if ( files.isEmpty() ) {
+            throw new IOException( String.format( "No targets in %s", input ) );
+        }
+        processIds = options.getProcessIds();
+        seconds = processIds.getTimeInputs( new SecondRanges( windows ) );
+        hypotheses = options.getHypotheses();
+        windowStart = options.getWindowStart();
+        windowEnd = options.getWindowEnd();
+        found = new AtomicIntegerArray( files.size() );
+        remaining = new AtomicInteger( files.size() );
+        progressSeconds = options.getProgressSeconds();
+        metricsFile = options.getMetricsFile();
+    }
+
+    /**
+     * Searches until all targets have been found or the keyspace is exhausted.
+     *
+     * @param chunkUsecs number of microseconds per chunk
+     * @param threads    number of worker threads
+     * @return number of targets found
+     */
+    public int run( int chunkUsecs, int threads )
+    {
+        System.out.println( String.format( "Searching %d targets in %s", files.size(), seconds ) );
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( seconds, chunkUsecs, threads );
+        metrics = new SearchMetrics( partitioner.getKeyCount(), partitioner.getChunkCount() );
+        ProgressReporter reporter = new ProgressReporter( metrics, progressSeconds, metricsFile );
+        try {
+            partitioner.run( this::search, () -> remaining.get() == 0 );
+        } finally {
+            reporter.close();
+        }
+
+        for ( int i = 0; i < files.size(); i++ ) {
+            if ( found.get( i ) == 0 ) {
+                System.out.println( "Not found: " + files.get( i ) );
+            }
+        }
+        return files.size() - remaining.get();
+    }
+
+    private void search( long secondsSinceEpoch, int firstUsec, int count )
+    {
+        BatchKeygen keygen = BatchKeygen.forCurrentThread();
+        byte[] batch = ivs.get();
+        SearchMetrics.Counters workerCounters = counters.get();
+        long timeInput = BatchKeygen.timeInput( secondsSinceEpoch, 0, 0 );
+        int end = firstUsec + count;
+        for ( int batchUsec = firstUsec; batchUsec < end && remaining.get() > 0; batchUsec += BATCH_SIZE ) {
+            int batchSize = Math.min( BATCH_SIZE, end - batchUsec );
+            keygen.derive( timeInput, batchUsec, batchSize, batch, null );
+            workerCounters.add( SearchMetrics.Counter.KEYS_TESTED, batchSize );
+            for ( int i = 0; i < batchSize; i++ ) {
+                int offset = i * BatchKeygen.BLOCK_BYTES;
+                for ( int slot = targets.find( batch, offset, -1 ); slot >= 0; slot = targets.find( batch, offset, slot ) ) {
+                    workerCounters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 1 );
+                    report( targets.getTarget( slot ), secondsSinceEpoch, batchUsec + i );
+                }
+            }
+        }
+        workerCounters.add( SearchMetrics.Counter.CHUNKS_DONE, 1 );
+    }
+
+    private void report( int target, long secondsSinceEpoch, int usecs )
+    {
+        if ( found.compareAndSet( target, 0, 1 ) ) {
+            remaining.decrementAndGet();
+            if ( !processIds.isNone() ) {
+                SecondRanges window = new SecondRanges( hypotheses.getWindows( dates.get( target ), windowStart, windowEnd ) );
+                System.out.println( String.format( "%s: timeInput=%d, usecs=%d explained by %s", files.get( target ),
+                    secondsSinceEpoch, usecs, String.join( ", ", processIds.explain( window, secondsSinceEpoch ) ) ) );
+                return;
+            }
+            System.out.println( String.format( "%s: secondsSinceEpoch=%d, usecs=%d (%s) explained by %s", files.get( target ),
+                secondsSinceEpoch, usecs, Instant.ofEpochSecond( secondsSinceEpoch ), String.join( ", ",
+                    hypotheses.explain( dates.get( target ), windowStart, windowEnd, secondsSinceEpoch, usecs ) ) ) );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ch.zhaw.sws2.random.bydate;
+
+/**
+ * Re-derives the plaintext of a {@link Candidate} from its time and
+ * the encrypted data.
+ * <p>
+ * <p>The key and IV of a candidate follow from its second and
+ * microsecond, so candidates don't keep a copy of the decrypted data;
+ * the data is decrypted again when it is looked at, which costs two
+ * MD5 digests and the decryption of {@link Crack#DECRYPT_MAX_BYTES}.
+ * The data is decrypted the same way as by the {@link BruteForcer}, by
+ * a {@link ModeTester}, so the result is the buffer the candidate was
+ * rated on.</p>
+ * <p>
+ * <p>Instances are thread safe and shared by the candidates of a
+ * search.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class PlaintextDeriver
+{
+    private final ThreadLocal<ModeTester> tester;
+
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec    cipher specification like e.g., AES/CTR/NoPadding
+     * @param encryptedData all encrypted data following the header
+     */
+    public PlaintextDeriver( String cipherSpec, byte[] encryptedData )
+    {
+        this( cipherSpec, encryptedData, true );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cipherSpec    cipher specification like e.g., AES/CTR/NoPadding
+     * @param encryptedData encrypted data following the header
+     * @param complete      whether the encrypted data goes up to the end of the file
+     */
+    public PlaintextDeriver( String cipherSpec, byte[] encryptedData, boolean complete )
+    {
+        this.tester = ThreadLocal.withInitial(
+            () -> new ModeTester( cipherSpec, new CryptoContext( cipherSpec ), encryptedData, complete ) );
+    }
+
+    /**
+     * Decrypts the data with the key of a candidate.
+     *
+     * @param secondsSinceEpoch second of the candidate; with pid and ppid
+     *                          searched, the time input, see {@link ProcessIdRanges}
+     * @param usecs             microsecond of the candidate
+     * @return the decrypted data, {@link Crack#DECRYPT_MAX_BYTES} long
+     */
+    public byte[] derive( long secondsSinceEpoch, int usecs )
+    {
+        byte[] ivs = new byte[ BatchKeygen.BLOCK_BYTES ];
+        byte[] keys = new byte[ BatchKeygen.BLOCK_BYTES ];
+        BatchKeygen.forCurrentThread().derive( BatchKeygen.timeInput( secondsSinceEpoch, 0, 0 ), usecs, 1, ivs, keys );
+        byte[] decrypted = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        tester.get().decrypt( keys, 0, ivs, 0, decrypted );
+        return decrypted;
+    }
+}
@@ -0,0 +1,77 @@
+package ch.zhaw.sws2.random.bydate;
+
+/**
+ * Cheap plausibility check for decrypted text.
+ * <p>
+ * <p>Used to reject a candidate key after decrypting a single cipher
+ * block. A byte counts as plausible if it is printable ASCII, a tab or
+ * a line break, or part of a well-formed UTF-8 multi-byte sequence.
+ * Data decrypted with a wrong key is close to uniformly distributed,
+ * so only about 40% of its bytes are plausible.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class PlaintextFilter
+{
+    /**
+     * Fraction of plausible bytes a block needs, in eighths
+     */
+    private static final int MIN_PLAUSIBLE_EIGHTHS = 7;
+
+    private PlaintextFilter()
+    {
+    }
+
+    /**
+     * Checks whether the data looks like the start of a text.
+     *
+     * @param data   decrypted data
+     * @param length number of bytes to check
+     * @return true if at least 7/8 of the bytes are plausible
+     */
+    public static boolean isPlausible( byte[] data, int length )
+    {
+        int plausible = 0;
+        int i = 0;
+        while ( i < length ) {
+            int b = data[ i ] & 0xFF;
+            if ( b < 0x80 ) {
+                if ( (b >= 0x20 && b < 0x7F) || b == '\t' || b == '\n' || b == '\r' ) {
+                    plausible++;
+                }
+                i++;
+                continue;
+            }
+
+            int sequenceLength = getUtf8SequenceLength( b );
+            int end = Math.min( i + sequenceLength, length );
+            int j = i + 1;
+            while ( j < end && (data[ j ] & 0xC0) == 0x80 ) {
+                j++;
+            }
+            if ( sequenceLength > 1 && j == end ) {
+                // well-formed or cut off by the end of the block
+                plausible += j - i;
+            }
+            i = Math.max( j, i + 1 );
+        }
+        return plausible * 8 >= length * MIN_PLAUSIBLE_EIGHTHS;
+    }
+
+    /**
+     * @param lead first byte of a UTF-8 sequence
+     * @return the length of the sequence, 0 if the byte can't start one
+     */
+    private static int getUtf8SequenceLength( int lead )
+    {
+        if ( lead >= 0xC2 && lead <= 0xDF ) {
+            return 2;
+        } else if ( lead >= 0xE0 && lead <= 0xEF ) {
+            return 3;
+        } else if ( lead >= 0xF0 && lead <= 0xF4 ) {
+            return 4;
+        }
+        return 0;
+    }
+}
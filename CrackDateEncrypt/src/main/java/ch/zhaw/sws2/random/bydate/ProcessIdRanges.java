@@ -0,0 +1,184 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Guesses of the process id and parent process id of the encrypting
+ * process.
+ * <p>
+ * <p>{@link NetscapeKeygen#makeKey()} mixes pid + second + (ppid &lt;&lt; 12)
+ * as a single number, the time input of
+ * {@link BatchKeygen#timeInput(long, int, int)}. Many (second, pid, ppid)
+ * triples have the same time input and thus the same keys, so instead
+ * of the cartesian product of seconds, pids and ppids only the distinct
+ * time inputs are searched: for every ppid, a window of seconds shifts
+ * to a range of time inputs that is as long as the window plus the pid
+ * range. These ranges are merged into one {@link SecondRanges}, which a
+ * {@link KeyspacePartitioner} searches as if the time inputs were
+ * seconds of a process with pid and ppid 0.</p>
+ * <p>
+ * <p>A hit is mapped back to all triples that explain it. For a given
+ * ppid, these are the pids of a range, each with its own second.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class ProcessIdRanges
+{
+    /**
+     * pid and ppid 0, as faked by {@link MyFakeSystemImpl}: the time
+     * inputs are the seconds
+     */
+    public static final ProcessIdRanges NONE = new ProcessIdRanges( 0, 0, 0, 0 );
+
+    /**
+     * Largest ppid whose shifted value still fits in an int, as in
+     * {@link NetscapeKeygen}
+     */
+    private static final int MAX_PPID = Integer.MAX_VALUE >> 12;
+
+    private final int pidStart;
+    private final int pidEnd;
+    private final int ppidStart;
+    private final int ppidEnd;
+
+    /**
+     * Constructor.
+     *
+     * @param pidStart  first pid
+     * @param pidEnd    last pid (inclusive)
+     * @param ppidStart first ppid
+     * @param ppidEnd   last ppid (inclusive)
+     */
+    public ProcessIdRanges( int pidStart, int pidEnd, int ppidStart, int ppidEnd )
+    {
+        if ( pidStart < 0 || pidEnd < pidStart ) {
+            throw new IllegalArgumentException( String.format( "Invalid pid range %d:%d", pidStart, pidEnd ) );
+        }
+        if ( ppidStart < 0 || ppidEnd < ppidStart || ppidEnd > MAX_PPID ) {
+            throw new IllegalArgumentException( String.format( "Invalid ppid range %d:%d", ppidStart, ppidEnd ) );
+        }
+        this.pidStart = pidStart;
+        this.pidEnd = pidEnd;
+        this.ppidStart = ppidStart;
+        this.ppidEnd = ppidEnd;
+    }
+
+    /**
+     * @return true if only pid 0 and ppid 0 are searched
+     */
+    public boolean isNone()
+    {
+        return pidStart == 0 && pidEnd == 0 && ppidStart == 0 && ppidEnd == 0;
+    }
+
+    /**
+     * @return number of (pid, ppid) pairs
+     */
+    public long getPairCount()
+    {
+        return (long)(pidEnd - pidStart + 1) * (ppidEnd - ppidStart + 1);
+    }
+
+    /**
+     * @param seconds seconds to search
+     * @return the distinct time inputs of all triples of the seconds, pids and ppids
+     */
+    public SecondRanges getTimeInputs( SecondRanges seconds )
+    {
+        List<long[]> ranges = new ArrayList<>();
+        for ( int ppid = ppidStart; ppid <= ppidEnd; ppid++ ) {
+            for ( int range = 0; range < seconds.getRangeCount(); range++ ) {
+                ranges.add( new long[] { BatchKeygen.timeInput( seconds.getStart( range ), pidStart, ppid ),
+                    BatchKeygen.timeInput( seconds.getEnd( range ), pidEnd, ppid ) } );
+            }
+        }
+        return new SecondRanges( ranges );
+    }
+
+    /**
+     * Shifts the hints of a {@link SearchOrder#PROXIMITY} search from
+     * seconds to time inputs, assuming the pid and ppid in the middle
+     * of their ranges.
+     *
+     * @param hintUsecs most likely times in microseconds since the epoch
+     * @return the time inputs of the hints in microseconds
+     */
+    public long[] getHintUsecs( long[] hintUsecs )
+    {
+        long shift = BatchKeygen.timeInput( 0, (pidStart + pidEnd) >>> 1, (ppidStart + ppidEnd) >>> 1 );
+        long[] hints = new long[ hintUsecs.length ];
+        for ( int i = 0; i < hints.length; i++ ) {
+            hints[ i ] = hintUsecs[ i ] + shift * Constants.USECS_PER_SECOND;
+        }
+        return hints;
+    }
+
+    /**
+     * @param seconds   seconds searched
+     * @param timeInput time input of a hit
+     * @return number of (second, pid, ppid) triples with this time input
+     */
+    public long countTriples( SecondRanges seconds, long timeInput )
+    {
+        long count = 0;
+        for ( long[] run : getTriples( seconds, timeInput ) ) {
+            count += run[ 2 ] - run[ 1 ] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Maps a hit back to the triples that explain it.
+     *
+     * @param seconds   seconds searched
+     * @param timeInput time input of a hit
+     * @return the triples as "ppid=P pid=A..B second=S..T", where the
+     * second falls as the pid rises; a single pid is given as "pid=A second=S"
+     */
+    public List<String> explain( SecondRanges seconds, long timeInput )
+    {
+        List<String> labels = new ArrayList<>();
+        for ( long[] run : getTriples( seconds, timeInput ) ) {
+            long ppid = run[ 0 ];
+            long firstSecond = timeInput - run[ 1 ] - (ppid << 12);
+            if ( run[ 1 ] == run[ 2 ] ) {
+                labels.add( String.format( "ppid=%d pid=%d second=%d", ppid, run[ 1 ], firstSecond ) );
+            } else {
+                labels.add( String.format( "ppid=%d pid=%d..%d second=%d..%d", ppid, run[ 1 ], run[ 2 ], firstSecond,
+                    timeInput - run[ 2 ] - (ppid << 12) ) );
+            }
+        }
+        return Collections.unmodifiableList( labels );
+    }
+
+    /**
+     * @return the triples with the given time input as {ppid, first pid,
+     * last pid} runs, ordered by ppid and pid
+     */
+    private List<long[]> getTriples( SecondRanges seconds, long timeInput )
+    {
+        List<long[]> runs = new ArrayList<>();
+        for ( int ppid = ppidStart; ppid <= ppidEnd; ppid++ ) {
+            long pidPlusSecond = timeInput - BatchKeygen.timeInput( 0, 0, ppid );
+            // The ranges are sorted by second, so the pids fall.
+            for ( int range = seconds.getRangeCount() - 1; range >= 0; range-- ) {
+                long first = Math.max( pidStart, pidPlusSecond - seconds.getEnd( range ) );
+                long last = Math.min( pidEnd, pidPlusSecond - seconds.getStart( range ) );
+                if ( first <= last ) {
+                    runs.add( new long[] { ppid, first, last } );
+                }
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "pid %d:%d ppid %d:%d", pidStart, pidEnd, ppidStart, ppidEnd );
+    }
+}
@@ -0,0 +1,109 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Periodically prints the progress of a search: keys per second,
+ * share of the keyspace covered and the estimated time left. The
+ * rate used for the estimate is the one since the previous report, so
+ * a host that gets throttled shows up at once.
+ * <p>
+ * <p>Optionally, every report also replaces a file with the JSON
+ * {@link SearchMetrics.Snapshot}, for monitoring tools. The file is
+ * written to a temporary file first and then moved, so readers never
+ * see a partial snapshot.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class ProgressReporter
+    implements AutoCloseable
+{
+    private static final double MEGA = 1e6;
+
+    private final SearchMetrics            metrics;
+    private final File                     snapshotFile;
+    private final ScheduledExecutorService scheduler;
+    private       SearchMetrics.Snapshot   previous;
+
+    /**
+     * Constructor. Starts reporting.
+     *
+     * @param metrics         metrics of the search
+     * @param intervalSeconds seconds between reports; 0 only writes the
+     *                        final report when closed
+     * @param snapshotFile    file to write the JSON snapshot to, or null
+     */
+    public ProgressReporter( SearchMetrics metrics, long intervalSeconds, File snapshotFile )
+    {
+        this.metrics = metrics;
+        this.snapshotFile = snapshotFile;
+        this.previous = metrics.snapshot();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "progress" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        if ( intervalSeconds > 0 ) {
+            scheduler.scheduleAtFixedRate( this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS );
+        }
+    }
+
+    private synchronized void report()
+    {
+        SearchMetrics.Snapshot snapshot = metrics.snapshot();
+        double keysPerSecond = snapshot.getKeysPerSecondSince( previous );
+        previous = snapshot;
+        System.out.println( String.format( Locale.ROOT, "Progress: %.2f%% of the keyspace, %.2fM keys/s (average %.2fM), "
+                + "%d passed the first stage, %d abandoned, %d rated, %d chunks, ETA %s", snapshot.getPercentDone(),
+            keysPerSecond / MEGA, snapshot.getKeysPerSecond() / MEGA, snapshot.get( SearchMetrics.Counter.FIRST_STAGE_PASSED ),
+            snapshot.get( SearchMetrics.Counter.ABANDONED ), snapshot.get( SearchMetrics.Counter.RATED ),
+            snapshot.get( SearchMetrics.Counter.CHUNKS_DONE ),
+            formatDuration( snapshot.getEtaSeconds( keysPerSecond ) ) ) );
+        writeSnapshot( snapshot );
+    }
+
+    private void writeSnapshot( SearchMetrics.Snapshot snapshot )
+    {
+        if ( snapshotFile == null ) {
+            return;
+        }
+        try {
+            Path target = snapshotFile.toPath().toAbsolutePath();
+            Path temporary = Files.createTempFile( target.getParent(), snapshotFile.getName(), ".tmp" );
+            Files.write( temporary, (snapshot.toJson() + System.lineSeparator()).getBytes( StandardCharsets.UTF_8 ) );
+            Files.move( temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        } catch ( IOException e ) {
+            System.err.println( "Can't write metrics snapshot: " + e.getMessage() );
+        }
+    }
+
+    private static String formatDuration( double seconds )
+    {
+        if ( seconds < 0 ) {
+            return "unknown";
+        }
+        long total = Math.round( seconds );
+        return String.format( Locale.ROOT, "%d:%02d:%02d", total / 3600, total / 60 % 60, total % 60 );
+    }
+
+    /**
+     * Stops reporting and prints a final report.
+     */
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+        report();
+    }
+}
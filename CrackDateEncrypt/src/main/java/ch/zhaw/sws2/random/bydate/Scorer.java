@@ -0,0 +1,59 @@
+package ch.zhaw.sws2.random.bydate;
+
+/**
+ * Rates decrypted data by how likely it is the plaintext.
+ * <p>
+ * <p>Ratings are in bits per byte like the Shannon entropy of the
+ * {@link EntropyScorer}: lower is better, a wrong key's random-looking
+ * output is rated around 8 or above, so the thresholds of
+ * {@link BruteForcer} and {@link CandidateBoard} apply to every
+ * scorer. A scorer may have no opinion on some data, e.g. a
+ * {@link MagicScorer} on data without a known file signature, in which
+ * case the next scorer of a {@link ScorerChain} rates it.</p>
+ * <p>
+ * <p>Scorers are called for every candidate that passes the first
+ * stage, so they must not allocate on the common path.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public interface Scorer
+{
+    /**
+     * Rating of a scorer that has no opinion on the data
+     */
+    double NO_OPINION = Double.NaN;
+
+    /**
+     * Rating of data that can't be the plaintext
+     */
+    double REJECT = Double.POSITIVE_INFINITY;
+
+    /**
+     * Rating of data that is the plaintext for sure, e.g. a file with
+     * a verified signature
+     */
+    double CERTAIN = 0;
+
+    /**
+     * Rates the first cipher block of a candidate, before the rest is
+     * decrypted. Scorers that need more data have no opinion.
+     *
+     * @param data   decrypted data
+     * @param length number of bytes decrypted so far
+     * @return the rating, or {@link #NO_OPINION}
+     */
+    default double scoreStart( byte[] data, int length )
+    {
+        return NO_OPINION;
+    }
+
+    /**
+     * Rates the first length bytes of data.
+     *
+     * @param data   decrypted data
+     * @param length number of bytes to rate
+     * @return the rating, or {@link #NO_OPINION}
+     */
+    double score( byte[] data, int length );
+}
@@ -0,0 +1,135 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Scorers asked one after the other until one of them has an opinion.
+ * <p>
+ * <p>A chain is given on the command line as a comma-separated list,
+ * cheapest first:</p>
+ * <p>
+ * <p>magic: {@link MagicScorer}, recognizes gzip, zip and PDF payloads
+ * utf8: {@link Utf8Scorer}, rejects data that is not well-formed UTF-8
+ * bigram:file[+file...]: {@link BigramScorer} with one sample text per language
+ * entropy: {@link EntropyScorer}, the Shannon entropy</p>
+ * <p>
+ * <p>e.g. "magic,utf8,bigram:de.txt+en.txt". The first scorer with an
+ * opinion rates the data, so a cheap scorer that rejects a candidate
+ * spares the expensive ones, and a payload recognized by its signature
+ * isn't rejected by a text scorer after it. Scorers after one that
+ * rates all data, like bigram or entropy, are never asked. A chain
+ * whose last scorer may have no opinion ends with the entropy.</p>
+ * <p>
+ * <p>If no scorer has an opinion on the first block, the rest is
+ * decrypted, or with --text-filter only if the first block passes the
+ * {@link PlaintextFilter}.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class ScorerChain
+    implements Scorer
+{
+    /**
+     * The chain used if none is given: the entropy only
+     */
+    public static final String DEFAULT = "entropy";
+
+    private final Scorer[] scorers;
+
+    /**
+     * Constructor.
+     *
+     * @param scorers the scorers, cheapest first
+     */
+    public ScorerChain( List<Scorer> scorers )
+    {
+        List<Scorer> chain = new ArrayList<>( scorers );
+        Scorer last = chain.isEmpty() ? null : chain.get( chain.size() - 1 );
+        if ( !(last instanceof EntropyScorer) && !(last instanceof BigramScorer) ) {
+            chain.add( new EntropyScorer() );
+        }
+        this.scorers = chain.toArray( new Scorer[ 0 ] );
+    }
+
+    /**
+     * Parses a comma-separated list of scorers and reads the sample
+     * texts of bigram scorers.
+     *
+     * @param list the scorers, e.g. "magic,utf8,bigram:de.txt"
+     * @return the chain
+     * @throws IllegalArgumentException if a scorer is unknown or a sample text can't be read
+     */
+    public static ScorerChain parse( String list )
+    {
+        List<Scorer> scorers = new ArrayList<>();
+        for ( String item : list.split( "," ) ) {
+            String name = item.trim();
+            if ( "magic".equals( name ) ) {
+                scorers.add( new MagicScorer() );
+            } else if ( "utf8".equals( name ) ) {
+                scorers.add( new Utf8Scorer() );
+            } else if ( "entropy".equals( name ) ) {
+                scorers.add( new EntropyScorer() );
+            } else if ( name.startsWith( "bigram:" ) ) {
+                List<File> files = new ArrayList<>();
+                for ( String file : name.substring( "bigram:".length() ).split( "\\+" ) ) {
+                    files.add( new File( file ) );
+                }
+                try {
+                    scorers.add( BigramScorer.fromFiles( files ) );
+                } catch ( IOException e ) {
+                    throw new IllegalArgumentException( String.format( "Can't read the sample texts of %s: %s", name, e ) );
+                }
+            } else {
+                throw new IllegalArgumentException( String.format( "Unknown scorer %s, expected magic, utf8, bigram:file or entropy",
+                    name ) );
+            }
+        }
+        return new ScorerChain( scorers );
+    }
+
+    /**
+     * The {@link EntropyScorer} keeps state while scoring; all other
+     * scorers are immutable and shared.
+     *
+     * @return a scorer for the calling worker thread: the chain with
+     * its own entropy scorers, or its only scorer
+     */
+    public Scorer forWorker()
+    {
+        List<Scorer> chain = new ArrayList<>();
+        for ( Scorer scorer : scorers ) {
+            chain.add( scorer instanceof EntropyScorer ? new EntropyScorer() : scorer );
+        }
+        return chain.size() == 1 ? chain.get( 0 ) : new ScorerChain( chain );
+    }
+
+    @Override
+    public double scoreStart( byte[] data, int length )
+    {
+        for ( Scorer scorer : scorers ) {
+            double rating = scorer.scoreStart( data, length );
+            if ( !Double.isNaN( rating ) ) {
+                return rating;
+            }
+        }
+        return NO_OPINION;
+    }
+
+    @Override
+    public double score( byte[] data, int length )
+    {
+        for ( Scorer scorer : scorers ) {
+            double rating = scorer.score( data, length );
+            if ( !Double.isNaN( rating ) ) {
+                return rating;
+            }
+        }
+        return NO_OPINION;
+    }
+}
@@ -0,0 +1,230 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Counters of a search, kept per worker thread and summed on demand.
+ * <p>
+ * <p>Every worker thread gets its own {@link Counters} from
+ * {@link #register()} and is the only thread that writes them, so the
+ * hot path needs neither locks nor atomic read-modify-write operations:
+ * an update is a plain read followed by an ordered store. Readers such
+ * as the {@link ProgressReporter} sum the counters of all workers in
+ * {@link #snapshot()}.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class SearchMetrics
+{
+    /**
+     * The counted events.
+     */
+    public enum Counter
+    {
+        /**
+         * Candidate keys derived and tested
+         */
+        KEYS_TESTED,
+        /**
+         * Candidates that passed the cheap first test of their strategy:
+         * a plausible first block, a matching keystream block or IV
+         */
+        FIRST_STAGE_PASSED,
+        /**
+         * Candidates abandoned while being decrypted because the
+         * sequential test of the {@link EntropyScorer} showed they
+         * won't be rated low enough
+         */
+        ABANDONED,
+        /**
+         * Candidates that were fully decrypted and rated
+         */
+        RATED,
+        /**
+         * Candidates published to the {@link CandidateBoard}
+         */
+        PUBLISHED,
+        /**
+         * Chunks of the keyspace searched, see {@link KeyspacePartitioner}
+         */
+        CHUNKS_DONE
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final List<Counters> workers = new CopyOnWriteArrayList<>();
+    private final long           totalKeys;
+    private final long           totalChunks;
+    private final long           startNanos = System.nanoTime();
+
+    /**
+     * Constructor.
+     *
+     * @param totalKeys   number of candidate keys in the searched keyspace
+     * @param totalChunks number of chunks in the searched keyspace
+     */
+    public SearchMetrics( long totalKeys, long totalChunks )
+    {
+        this.totalKeys = totalKeys;
+        this.totalChunks = totalChunks;
+    }
+
+    /**
+     * Creates the counters of a worker thread.
+     *
+     * @return counters to be updated by the calling thread only
+     */
+    public Counters register()
+    {
+        Counters counters = new Counters();
+        workers.add( counters );
+        return counters;
+    }
+
+    /**
+     * @return the current totals of all workers
+     */
+    public Snapshot snapshot()
+    {
+        long[] totals = new long[ COUNTERS.length ];
+        for ( Counters counters : workers ) {
+            for ( int i = 0; i < totals.length; i++ ) {
+                totals[ i ] += counters.counts.get( i );
+            }
+        }
+        return new Snapshot( System.nanoTime() - startNanos, totals, totalKeys, totalChunks );
+    }
+
+    /**
+     * Counters of one worker thread.
+     */
+    public static final class Counters
+    {
+        private final AtomicLongArray counts = new AtomicLongArray( COUNTERS.length );
+
+        private Counters()
+        {
+        }
+
+        /**
+         * Adds to a counter. Must only be called by the thread that
+         * registered the counters.
+         *
+         * @param counter the counter
+         * @param amount  amount to add
+         */
+        public void add( Counter counter, long amount )
+        {
+            int index = counter.ordinal();
+            counts.lazySet( index, counts.get( index ) + amount );
+        }
+    }
+
+    /**
+     * Totals of all workers at one point in time.
+     */
+    public static final class Snapshot
+    {
+        private static final double NANOS_PER_SECOND = 1e9;
+
+        private final long   elapsedNanos;
+        private final long[] totals;
+        private final long   totalKeys;
+        private final long   totalChunks;
+
+        private Snapshot( long elapsedNanos, long[] totals, long totalKeys, long totalChunks )
+        {
+            this.elapsedNanos = elapsedNanos;
+            this.totals = totals;
+            this.totalKeys = totalKeys;
+            this.totalChunks = totalChunks;
+        }
+
+        /**
+         * @param counter the counter
+         * @return total of the counter over all workers
+         */
+        public long get( Counter counter )
+        {
+            return totals[ counter.ordinal() ];
+        }
+
+        /**
+         * @return seconds since the search started
+         */
+        public double getElapsedSeconds()
+        {
+            return elapsedNanos / NANOS_PER_SECOND;
+        }
+
+        /**
+         * @return average number of keys tested per second
+         */
+        public double getKeysPerSecond()
+        {
+            return elapsedNanos == 0 ? 0 : get( Counter.KEYS_TESTED ) / getElapsedSeconds();
+        }
+
+        /**
+         * @param previous an earlier snapshot of the same search
+         * @return number of keys tested per second since the earlier snapshot
+         */
+        public double getKeysPerSecondSince( Snapshot previous )
+        {
+            long nanos = elapsedNanos - previous.elapsedNanos;
+            return nanos == 0 ? 0 : (get( Counter.KEYS_TESTED ) - previous.get( Counter.KEYS_TESTED )) * NANOS_PER_SECOND / nanos;
+        }
+
+        /**
+         * @return share of the keyspace tested so far in percent
+         */
+        public double getPercentDone()
+        {
+            return totalKeys == 0 ? 100 : 100.0 * get( Counter.KEYS_TESTED ) / totalKeys;
+        }
+
+        /**
+         * @param keysPerSecond expected rate of the rest of the search
+         * @return estimated seconds until the whole keyspace has been
+         * tested, or -1 if nothing has been tested yet
+         */
+        public double getEtaSeconds( double keysPerSecond )
+        {
+            if ( keysPerSecond <= 0 ) {
+                return -1;
+            }
+            return Math.max( 0, totalKeys - get( Counter.KEYS_TESTED ) ) / keysPerSecond;
+        }
+
+        /**
+         * @return the snapshot as a single-line JSON object
+         */
+        public String toJson()
+        {
+            StringBuilder json = new StringBuilder( "{" );
+            json.append( String.format( Locale.ROOT, "\"elapsedSeconds\":%.3f", getElapsedSeconds() ) );
+            json.append( String.format( Locale.ROOT, ",\"totalKeys\":%d,\"totalChunks\":%d", totalKeys, totalChunks ) );
+            for ( Counter counter : COUNTERS ) {
+                json.append( String.format( Locale.ROOT, ",\"%s\":%d", toCamelCase( counter.name() ), get( counter ) ) );
+            }
+            json.append( String.format( Locale.ROOT, ",\"keysPerSecond\":%.1f", getKeysPerSecond() ) );
+            json.append( String.format( Locale.ROOT, ",\"percentDone\":%.4f", getPercentDone() ) );
+            json.append( String.format( Locale.ROOT, ",\"etaSeconds\":%.1f", getEtaSeconds( getKeysPerSecond() ) ) );
+            return json.append( "}" ).toString();
+        }
+
+        private static String toCamelCase( String name )
+        {
+            StringBuilder camelCase = new StringBuilder();
+            for ( String part : name.toLowerCase( Locale.ROOT ).split( "_" ) ) {
+                camelCase.append( camelCase.length() == 0 ? part : Character.toUpperCase( part.charAt( 0 ) ) + part.substring( 1 ) );
+            }
+            return camelCase.toString();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ch.zhaw.sws2.random.bydate;
+
+/**
+ * Orders in which a {@link KeyspacePartitioner} visits the chunks of
+ * the keyspace.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public enum SearchOrder
+{
+    /**
+     * Second by second from the start of the window, every second
+     * from microsecond 0 to 999999.
+     */
+    LINEAR,
+
+    /**
+     * By increasing distance from a hint, alternating between the
+     * chunk right after and the chunk right before the part already
+     * searched. The true timestamp is usually close to the claimed one,
+     * so the expected time to crack is proportional to its distance
+     * from the hint instead of to half of the window. Once one side of
+     * the window is exhausted, the other one is searched linearly.
+     */
+    PROXIMITY;
+
+    /**
+     * Parses an order name as given on the command line,
+     * e.g. {@code linear} or {@code proximity}.
+     *
+     * @param name name of the order (case insensitive)
+     * @return the order
+     */
+    public static SearchOrder fromName( String name )
+    {
+        return valueOf( name.toUpperCase() );
+    }
+}
@@ -0,0 +1,44 @@
+package ch.zhaw.sws2.random.bydate;
+
+/**
+ * Strategies a {@link BruteForcer} can use to decide whether
+ * a candidate key is the one used for the encryption.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public enum SearchStrategy
+{
+    /**
+     * Decrypts the data with every candidate key and rates the
+     * result by its entropy.
+     */
+    DECRYPT,
+
+    /**
+     * Compares the IV derived for every candidate with the IV that
+     * {@code ByDate} writes as the first block of every output file.
+     * Only the candidate whose IV matches is decrypted and rated.
+     */
+    IV_MATCH,
+
+    /**
+     * For CTR mode with a known plaintext prefix: encrypts the first
+     * counter block (the IV) with every candidate key and compares the
+     * result with the ciphertext XOR the known prefix. Only matching
+     * candidates are decrypted and rated.
+     */
+    KNOWN_PLAINTEXT;
+
+    /**
+     * Parses a strategy name as given on the command line,
+     * e.g. {@code decrypt} or {@code iv-match}.
+     *
+     * @param name name of the strategy (case insensitive)
+     * @return the strategy
+     */
+    public static SearchStrategy fromName( String name )
+    {
+        return valueOf( name.toUpperCase().replace( '-', '_' ) );
+    }
+}
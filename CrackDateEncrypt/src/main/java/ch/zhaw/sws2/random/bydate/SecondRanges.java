@@ -0,0 +1,165 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * A sorted set of disjoint ranges of seconds.
+ * <p>
+ * <p>Overlapping or adjacent ranges are merged on construction, so
+ * every second of the union is contained exactly once. The seconds
+ * are numbered consecutively across the ranges.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class SecondRanges
+{
+    private final long[] starts;
+    private final long[] ends;
+    /**
+     * Number of seconds in all ranges before range i
+     */
+    private final long[] offsets;
+    private final long   secondCount;
+
+    /**
+     * Constructor.
+     *
+     * @param ranges ranges as {start, end} pairs, both inclusive, in any order
+     */
+    public SecondRanges( List<long[]> ranges )
+    {
+        List<long[]> sorted = new ArrayList<>( ranges );
+        sorted.sort( Comparator.comparingLong( range -> range[ 0 ] ) );
+
+        List<long[]> merged = new ArrayList<>();
+        for ( long[] range : sorted ) {
+            if ( range[ 1 ] < range[ 0 ] ) {
+                throw new IllegalArgumentException( String.format( "Empty range: %d..%d", range[ 0 ], range[ 1 ] ) );
+            }
+            long[] last = merged.isEmpty() ? null : merged.get( merged.size() - 1 );
+            if ( last != null && range[ 0 ] <= last[ 1 ] + 1 ) {
+                last[ 1 ] = Math.max( last[ 1 ], range[ 1 ] );
+            } else {
+                merged.add( new long[] { range[ 0 ], range[ 1 ] } );
+            }
+        }
+        if ( merged.isEmpty() ) {
+            throw new IllegalArgumentException( "No ranges" );
+        }
+
+        starts = new long[ merged.size() ];
+        ends = new long[ merged.size() ];
+        offsets = new long[ merged.size() ];
+        long count = 0;
+        for ( int i = 0; i < merged.size(); i++ ) {
+            starts[ i ] = merged.get( i )[ 0 ];
+            ends[ i ] = merged.get( i )[ 1 ];
+            offsets[ i ] = count;
+            count += ends[ i ] - starts[ i ] + 1;
+        }
+        secondCount = count;
+    }
+
+    /**
+     * @param start first second
+     * @param end   last second (inclusive)
+     * @return a set containing a single range
+     */
+    public static SecondRanges of( long start, long end )
+    {
+        return new SecondRanges( Arrays.asList( new long[][] { { start, end } } ) );
+    }
+
+    /**
+     * @return number of seconds in all ranges
+     */
+    public long getSecondCount()
+    {
+        return secondCount;
+    }
+
+    /**
+     * @param index number of the second, 0 &lt;= index &lt; {@link #getSecondCount()}
+     * @return the second
+     */
+    public long getSecond( long index )
+    {
+        int range = Arrays.binarySearch( offsets, index );
+        if ( range < 0 ) {
+            range = -range - 2;
+        }
+        return starts[ range ] + index - offsets[ range ];
+    }
+
+    /**
+     * @param second a second
+     * @return true if one of the ranges contains the second
+     */
+    public boolean contains( long second )
+    {
+        int range = Arrays.binarySearch( starts, second );
+        if ( range >= 0 ) {
+            return true;
+        }
+        range = -range - 2;
+        return range >= 0 && second <= ends[ range ];
+    }
+
+    /**
+     * @param second a second
+     * @return number of seconds of all ranges before the second
+     */
+    public long countBefore( long second )
+    {
+        int range = Arrays.binarySearch( starts, second );
+        if ( range >= 0 ) {
+            return offsets[ range ];
+        }
+        range = -range - 2;
+        if ( range < 0 ) {
+            return 0;
+        }
+        return offsets[ range ] + Math.min( second, ends[ range ] + 1 ) - starts[ range ];
+    }
+
+    /**
+     * @return number of disjoint ranges
+     */
+    public int getRangeCount()
+    {
+        return starts.length;
+    }
+
+    /**
+     * @param range number of the range
+     * @return first second of the range
+     */
+    public long getStart( int range )
+    {
+        return starts[ range ];
+    }
+
+    /**
+     * @param range number of the range
+     * @return last second of the range (inclusive)
+     */
+    public long getEnd( int range )
+    {
+        return ends[ range ];
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "SecondRanges [" );
+        for ( int i = 0; i < starts.length; i++ ) {
+            builder.append( i == 0 ? " " : ", " ).append( starts[ i ] ).append( ".." ).append( ends[ i ] );
+        }
+        return builder.append( " ]" ).toString();
+    }
+}
@@ -0,0 +1,117 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+
+/**
+ * Rejects data that is not well-formed UTF-8.
+ * <p>
+ * <p>A table-driven state machine: every byte is mapped to one of 12
+ * classes and the next state is looked up by state and class, so the
+ * check costs two array reads per byte. Overlong forms, surrogates and
+ * code points above U+10FFFF are rejected. A sequence cut off by the
+ * end of the data is fine. Random bytes are almost never well-formed
+ * beyond a few bytes, so most wrong keys are rejected by their first
+ * block.</p>
+ * <p>
+ * <p>Well-formed data is left to the next scorer of the chain.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class Utf8Scorer
+    implements Scorer
+{
+    private static final int CLASSES = 12;
+
+    private static final int ACCEPT = 0;
+    private static final int FAIL   = 1;
+
+    /**
+     * Byte classes: 0 ASCII, 1 80..8F, 9 90..9F, 7 A0..BF, 8 never valid,
+     * 2 C2..DF, 10 E0, 3 E1..EC and EE..EF, 4 ED, 11 F0, 6 F1..F3, 5 F4
+     */
+    private static final byte[] BYTE_CLASSES = new byte[ 256 ];
+
+    /**
+     * Next state by state * {@link #CLASSES} + class. States: 0 accept,
+     * 1 fail, 2 one continuation byte missing, 3 two missing, 4 after E0,
+     * 5 after ED, 6 after F0, 7 three missing, 8 after F4.
+     */
+    private static final byte[] TRANSITIONS = new byte[ 9 * CLASSES ];
+
+    static {
+        for ( int b = 0; b < 256; b++ ) {
+            BYTE_CLASSES[ b ] = (byte)getByteClass( b );
+        }
+        Arrays.fill( TRANSITIONS, (byte)FAIL );
+        setTransitions( ACCEPT, ACCEPT, 0 );
+        setTransitions( ACCEPT, 2, 2 );
+        setTransitions( ACCEPT, 3, 3 );
+        setTransitions( ACCEPT, 4, 10 );
+        setTransitions( ACCEPT, 5, 4 );
+        setTransitions( ACCEPT, 6, 11 );
+        setTransitions( ACCEPT, 7, 6 );
+        setTransitions( ACCEPT, 8, 5 );
+        setTransitions( 2, ACCEPT, 1, 9, 7 );
+        setTransitions( 3, 2, 1, 9, 7 );
+        setTransitions( 4, 2, 7 );
+        setTransitions( 5, 2, 1, 9 );
+        setTransitions( 6, 3, 9, 7 );
+        setTransitions( 7, 3, 1, 9, 7 );
+        setTransitions( 8, 3, 1 );
+    }
+
+    private static int getByteClass( int b )
+    {
+        if ( b < 0x80 ) {
+            return 0;
+        } else if ( b < 0x90 ) {
+            return 1;
+        } else if ( b < 0xA0 ) {
+            return 9;
+        } else if ( b < 0xC0 ) {
+            return 7;
+        } else if ( b < 0xC2 ) {
+            return 8;
+        } else if ( b < 0xE0 ) {
+            return 2;
+        } else if ( b == 0xE0 ) {
+            return 10;
+        } else if ( b == 0xED ) {
+            return 4;
+        } else if ( b < 0xF0 ) {
+            return 3;
+        } else if ( b == 0xF0 ) {
+            return 11;
+        } else if ( b < 0xF4 ) {
+            return 6;
+        } else if ( b == 0xF4 ) {
+            return 5;
+        }
+        return 8;
+    }
+
+    private static void setTransitions( int state, int next, int... classes )
+    {
+        for ( int byteClass : classes ) {
+            TRANSITIONS[ state * CLASSES + byteClass ] = (byte)next;
+        }
+    }
+
+    @Override
+    public double scoreStart( byte[] data, int length )
+    {
+        return score( data, length );
+    }
+
+    @Override
+    public double score( byte[] data, int length )
+    {
+        int state = ACCEPT;
+        for ( int i = 0; i < length && state != FAIL; i++ ) {
+            state = TRANSITIONS[ state * CLASSES + BYTE_CLASSES[ data[ i ] & 0xFF ] ];
+        }
+        return state == FAIL ? REJECT : NO_OPINION;
+    }
+}
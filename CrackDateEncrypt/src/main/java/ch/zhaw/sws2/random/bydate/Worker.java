@@ -0,0 +1,196 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Searches the chunks leased by a {@link Coordinator}, see there for
+ * the protocol.
+ * <p>
+ * <p>A reader thread receives the leases and the stop message, so the
+ * search stops within a chunk when the coordinator stops it. New hits
+ * are reported after every chunk. A worker stops on its own as soon as
+ * its {@link CandidateBoard} is stopped by a confirmed hit, reports the
+ * hit, tells the coordinator it found the key and waits for its
+ * stop.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class Worker
+{
+    /**
+     * Seconds between two heartbeats to the coordinator
+     */
+    public static final long HEARTBEAT_SECONDS = 5;
+
+    private static final long[] STOPPED = new long[ 0 ];
+
+    private final KeyspacePartitioner              partitioner;
+    private final String                           search;
+    private final CandidateBoard                   board;
+    private final KeyspacePartitioner.ChunkSearch chunkSearch;
+    private final BlockingQueue<long[]>            leases    = new LinkedBlockingQueue<>();
+    private       List<Candidate>                  reported  = new ArrayList<>();
+    private       boolean                          found;
+    private volatile boolean                       stopped;
+    private          Writer                        out;
+
+    /**
+     * Constructor.
+     *
+     * @param partitioner partitioner of the search; must match the coordinator's
+     * @param search      description of the search; must match the coordinator's
+     * @param board       board the chunk search publishes to
+     * @param chunkSearch search to run for every chunk; called concurrently
+     */
+    public Worker( KeyspacePartitioner partitioner, String search, CandidateBoard board,
+                   KeyspacePartitioner.ChunkSearch chunkSearch )
+    {
+        this.partitioner = partitioner;
+        this.search = search;
+        this.board = board;
+        this.chunkSearch = chunkSearch;
+    }
+
+    /**
+     * Connects to the coordinator and searches its leases until it
+     * stops the search.
+     *
+     * @param host host of the coordinator
+     * @param port port of the coordinator
+     * @throws IOException if the connection fails or breaks
+     */
+    public void run( String host, int port )
+        throws IOException
+    {
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "heartbeat" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        try ( Socket socket = new Socket( host, port ) ) {
+            BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+            out = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.UTF_8 );
+            Thread reader = new Thread( () -> read( in ), "coordinator-reader" );
+            reader.setDaemon( true );
+            reader.start();
+            send( Coordinator.HELLO + " " + search );
+            heartbeat.scheduleAtFixedRate( this::sendHeartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS );
+
+            long[] lease;
+            while ( (lease = leases.take()) != STOPPED ) {
+                partitioner.run( this::search, () -> stopped || board.isStopped(), KeyspacePartitioner.CompletedChunks.NONE,
+                    lease[ 0 ], lease[ 1 ] );
+                reportHits();
+                if ( !stopped && !board.isStopped() ) {
+                    send( String.format( "%s %d %d", Coordinator.DONE, lease[ 0 ], lease[ 1 ] ) );
+                }
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        } finally {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    /**
+     * Receives leases and the stop message. A broken connection stops
+     * the search, too.
+     */
+    private void read( BufferedReader in )
+    {
+        try {
+            String line;
+            while ( !(line = readLine( in )).equals( Coordinator.STOP ) ) {
+                String[] fields = line.split( " " );
+                if ( fields.length != 3 || !fields[ 0 ].equals( Coordinator.LEASE ) ) {
+                    System.err.printf( "Unexpected message from coordinator: %s%n", line );
+                    break;
+                }
+                leases.add( new long[] { Long.parseLong( fields[ 1 ] ), Long.parseLong( fields[ 2 ] ) } );
+            }
+        } catch ( IOException e ) {
+            System.err.printf( "Lost coordinator: %s%n", e );
+        } finally {
+            stopped = true;
+            leases.add( STOPPED );
+        }
+    }
+
+    private static String readLine( BufferedReader in )
+        throws IOException
+    {
+        String line = in.readLine();
+        if ( line == null ) {
+            throw new IOException( "Connection closed by the coordinator, is it running the same search?" );
+        }
+        return line;
+    }
+
+    /**
+     * Searches a chunk and reports its hits right away.
+     */
+    private void search( long secondsSinceEpoch, int firstUsec, int count )
+    {
+        chunkSearch.search( secondsSinceEpoch, firstUsec, count );
+        try {
+            reportHits();
+        } catch ( IOException e ) {
+            // the reader notices the broken connection
+        }
+    }
+
+    /**
+     * Sends the candidates that appeared on the board since the last
+     * report, then "found" once the board has been stopped. The board
+     * is checked first: it is stopped after the hit is on it.
+     */
+    private synchronized void reportHits()
+        throws IOException
+    {
+        boolean confirmed = board.isStopped();
+        List<Candidate> candidates = board.getCandidates();
+        for ( Candidate candidate : candidates ) {
+            if ( !reported.contains( candidate ) ) {
+                send( Coordinator.HIT + " " + candidate.toRecord() );
+            }
+        }
+        reported = candidates;
+        if ( confirmed && !found ) {
+            found = true;
+            send( Coordinator.FOUND );
+        }
+    }
+
+    private void sendHeartbeat()
+    {
+        try {
+            send( Coordinator.ALIVE );
+        } catch ( IOException e ) {
+            // the reader notices the broken connection
+        }
+    }
+
+    private void send( String line )
+        throws IOException
+    {
+        synchronized ( out ) {
+            out.write( line + "\n" );
+            out.flush();
+        }
+    }
+}
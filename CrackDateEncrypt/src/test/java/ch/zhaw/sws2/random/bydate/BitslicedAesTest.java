@@ -0,0 +1,82 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class BitslicedAesTest
+{
+    @Test
+    public void encryptsFips197Example()
+    {
+        byte[] key = hex( "000102030405060708090a0b0c0d0e0f" );
+        byte[] plaintext = hex( "00112233445566778899aabbccddeeff" );
+        byte[] ciphertext = new byte[ BitslicedAes.BLOCK_BYTES ];
+
+        BitslicedAes aes = new BitslicedAes();
+        aes.encrypt( key, 0, plaintext, 0, 1 );
+        aes.getBlocks( ciphertext, 0, 1 );
+        assertArrayEquals( hex( "69c4e0d86a7b0430d8cdb78070b4c55a" ), ciphertext );
+    }
+
+    @Test
+    public void matchesJce()
+        throws Exception
+    {
+        Random random = new Random( 42 );
+        Cipher cipher = Cipher.getInstance( "AES/ECB/NoPadding" );
+        BitslicedAes aes = new BitslicedAes();
+        for ( int count : new int[] { 1, 17, BitslicedAes.LANES } ) {
+            byte[] keys = new byte[ count * BitslicedAes.BLOCK_BYTES ];
+            byte[] blocks = new byte[ count * BitslicedAes.BLOCK_BYTES ];
+            random.nextBytes( keys );
+            random.nextBytes( blocks );
+            byte[] actual = new byte[ blocks.length ];
+            aes.encrypt( keys, 0, blocks, 0, count );
+            aes.getBlocks( actual, 0, count );
+
+            for ( int lane = 0; lane < count; lane++ ) {
+                int offset = lane * BitslicedAes.BLOCK_BYTES;
+                cipher.init( Cipher.ENCRYPT_MODE, new SecretKeySpec( keys, offset, BitslicedAes.BLOCK_BYTES, "AES" ) );
+                byte[] expected = cipher.doFinal( blocks, offset, BitslicedAes.BLOCK_BYTES );
+                assertArrayEquals( expected, Arrays.copyOfRange( actual, offset, offset + BitslicedAes.BLOCK_BYTES ) );
+            }
+        }
+    }
+
+    @Test
+    public void findsMismatchingLanes()
+    {
+        byte[] keys = new byte[ 3 * BitslicedAes.BLOCK_BYTES ];
+        byte[] blocks = new byte[ 3 * BitslicedAes.BLOCK_BYTES ];
+        new Random( 7 ).nextBytes( keys );
+        System.arraycopy( keys, 0, keys, 2 * BitslicedAes.BLOCK_BYTES, BitslicedAes.BLOCK_BYTES );
+
+        BitslicedAes aes = new BitslicedAes();
+        aes.encrypt( keys, 0, blocks, 0, 3 );
+        byte[] expected = new byte[ BitslicedAes.BLOCK_BYTES ];
+        aes.getBlocks( expected, 0, 1 );
+        byte[] mask = new byte[ BitslicedAes.BLOCK_BYTES ];
+        Arrays.fill( mask, (byte)0xFF );
+
+        // lanes 0 and 2 share the key, lane 1 differs
+        assertEquals( 0b010L, aes.getMismatchingLanes( expected, mask ) & 0b111L );
+    }
+
+    private static byte[] hex( String hex )
+    {
+        byte[] bytes = new byte[ hex.length() / 2 ];
+        for ( int i = 0; i < bytes.length; i++ ) {
+            bytes[ i ] = (byte)Integer.parseInt( hex.substring( 2 * i, 2 * i + 2 ), 16 );
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,121 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class BruteForcerTest
+{
+    /**
+     * Second of the file "encrypted" next to the modules, encrypted by
+     * ByDate at 2016-03-31T11:44:30+02:00 and 10000 us
+     */
+    private static final long SECOND = 1459417470;
+    private static final int  USECS  = 10000;
+
+    @Test
+    public void ivMatchFindsSeedOfEncryptedFile()
+        throws Exception
+    {
+        byte[] file = Files.readAllBytes( Paths.get( "..", "encrypted" ) );
+        byte[] iv = Arrays.copyOf( file, 16 );
+        byte[] encryptedData = Arrays.copyOfRange( file, 16, Math.min( file.length, 16 + Crack.DECRYPT_MAX_BYTES ) );
+
+        Candidate candidate = searchIvMatch( "AES/CTR/NoPadding", iv, encryptedData );
+        assertEquals( SECOND, candidate.getSecondsSinceEpoch() );
+        assertEquals( USECS, candidate.getUsecs() );
+        assertTrue( new String( candidate.getBuffer(), StandardCharsets.UTF_8 ).startsWith( "In dem Gedicht" ) );
+    }
+
+    @Test
+    public void ivMatchFindsEcbKeyByUnusedHeaderIv()
+        throws Exception
+    {
+        // ByDate writes the IV in front of the data even if the mode doesn't use it
+        NetscapeKeygen keygen = new NetscapeKeygen( new MyFakeSystemImpl( SECOND * Constants.USECS_PER_SECOND + USECS,
+            ZoneOffset.UTC ), "AES" );
+        keygen.makeKey();
+        Cipher cipher = Cipher.getInstance( "AES/ECB/PKCS5Padding" );
+        cipher.init( Cipher.ENCRYPT_MODE, keygen.getSecretKeySpec() );
+        byte[] encryptedData = cipher.doFinal( "Er verwendet keine Kommata".getBytes( StandardCharsets.UTF_8 ) );
+
+        Candidate candidate = searchIvMatch( "AES/ECB/PKCS5Padding", keygen.getIv(), encryptedData );
+        assertEquals( USECS, candidate.getUsecs() );
+        // with padding, the JCE holds back the last block
+        assertTrue( new String( candidate.getBuffer(), StandardCharsets.UTF_8 ).startsWith( "Er verwendet" ) );
+    }
+
+    @Test
+    public void textFilterRejectsBinaryPlaintext()
+        throws Exception
+    {
+        // an image-like plaintext: few distinct bytes, hardly any printable
+        byte[] image = new byte[ 1000 ];
+        for ( int i = 0; i < image.length; i++ ) {
+            image[ i ] = (byte)(i % 7 == 0 ? 0xFF : i % 3);
+        }
+        byte[] encryptedData = encryptCtr( image );
+
+        for ( boolean textFilter : new boolean[] { false, true } ) {
+            CandidateBoard board = new CandidateBoard( 10, BruteForcer.RATING_THRESHOLD_TO_STOP_SEARCHING );
+            BruteForcer bruteForcer = new BruteForcer( "AES/CTR/NoPadding", ZoneOffset.UTC, SearchStrategy.DECRYPT, null,
+                encryptedData, true, board, null, false, new SearchMetrics( 2000, 1 ), new EntropyScorer(), textFilter );
+            bruteForcer.search( SECOND, USECS - 1000, 2000 );
+            if ( textFilter ) {
+                assertTrue( board.getCandidates().isEmpty() );
+            } else {
+                assertEquals( USECS, board.getBestCandidate().getUsecs() );
+            }
+        }
+    }
+
+    @Test
+    public void knownPlaintextMatchStopsSearchIfLongEnough()
+        throws Exception
+    {
+        byte[] encryptedData = encryptCtr( "In dem Gedicht schildert der Autor".getBytes( StandardCharsets.UTF_8 ) );
+        for ( String text : new String[] { "In dem Gedicht", "In d" } ) {
+            // a board that isn't stopped by the rating
+            CandidateBoard board = new CandidateBoard( 10, 0 );
+            BruteForcer bruteForcer = new BruteForcer( "AES/CTR/NoPadding", ZoneOffset.UTC, SearchStrategy.KNOWN_PLAINTEXT,
+                null, encryptedData, board, KnownPlaintext.fromText( text ), false, new SearchMetrics( 2000, 1 ) );
+            bruteForcer.search( SECOND, USECS - 1000, 2000 );
+            assertEquals( USECS, board.getBestCandidate().getUsecs() );
+            // fewer than 8 known bytes match by chance too often to stop
+            assertEquals( text.length() >= 8, board.isStopped() );
+        }
+    }
+
+    private static byte[] encryptCtr( byte[] plaintext )
+        throws Exception
+    {
+        NetscapeKeygen keygen = new NetscapeKeygen( new MyFakeSystemImpl( SECOND * Constants.USECS_PER_SECOND + USECS,
+            ZoneOffset.UTC ), "AES" );
+        keygen.makeKey();
+        Cipher cipher = Cipher.getInstance( "AES/CTR/NoPadding" );
+        cipher.init( Cipher.ENCRYPT_MODE, keygen.getSecretKeySpec(), new IvParameterSpec( keygen.getIv() ) );
+        return cipher.doFinal( plaintext );
+    }
+
+    private Candidate searchIvMatch( String cipherSpec, byte[] iv, byte[] encryptedData )
+    {
+        CandidateBoard board = new CandidateBoard( 10, BruteForcer.RATING_THRESHOLD_TO_STOP_SEARCHING );
+        BruteForcer bruteForcer = new BruteForcer( cipherSpec, ZoneOffset.UTC, SearchStrategy.IV_MATCH, iv, encryptedData,
+            board, null, false, new SearchMetrics( 2 * USECS, 1 ) );
+        bruteForcer.search( SECOND, 0, 2 * USECS );
+        // the IV match stops the search although the rating is above the threshold
+        assertTrue( board.isStopped() );
+        assertEquals( 1, board.getCandidates().size() );
+        return board.getBestCandidate();
+    }
+}
@@ -0,0 +1,87 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class CandidateBoardTest
+{
+    private static final long             SECOND    = 1459451671;
+    private static final PlaintextDeriver PLAINTEXT = new PlaintextDeriver( "AES/CTR/NoPadding", new byte[ 16 ] );
+
+    @Test
+    public void keepsCandidatesWithEqualRatings()
+    {
+        CandidateBoard board = new CandidateBoard( 10, 0 );
+        assertTrue( board.publish( candidate( 1, 5.5 ) ) );
+        assertTrue( board.publish( candidate( 2, 5.5 ) ) );
+        assertEquals( 2, board.getCandidates().size() );
+    }
+
+    @Test
+    public void fullBoardEvictsWorstCandidate()
+    {
+        CandidateBoard board = new CandidateBoard( 2, 0 );
+        board.publish( candidate( 1, 5 ) );
+        board.publish( candidate( 2, 6 ) );
+        assertTrue( board.publish( candidate( 3, 4 ) ) );
+
+        List<Candidate> candidates = board.getCandidates();
+        assertEquals( 2, candidates.size() );
+        assertEquals( 3, candidates.get( 0 ).getUsecs() );
+        assertEquals( 1, candidates.get( 1 ).getUsecs() );
+        assertFalse( board.accepts( 5.5 ) );
+        assertTrue( board.accepts( 4.5 ) );
+        assertFalse( board.publish( candidate( 4, 7 ) ) );
+        assertEquals( 2, board.getCandidates().size() );
+    }
+
+    @Test
+    public void candidateBelowThresholdStopsSearch()
+    {
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        board.publish( candidate( 1, 1 ) );
+        assertFalse( board.isStopped() );
+        board.publish( candidate( 2, 0.5 ) );
+        assertTrue( board.isStopped() );
+        assertEquals( 2, board.getBestCandidate().getUsecs() );
+    }
+
+    @Test
+    public void concurrentPublishesKeepCapacity()
+        throws InterruptedException
+    {
+        CandidateBoard board = new CandidateBoard( 5, 0 );
+        List<Thread> threads = new ArrayList<>();
+        for ( int t = 0; t < 4; t++ ) {
+            int first = t * 1000;
+            Thread thread = new Thread( () -> {
+                for ( int usecs = first; usecs < first + 1000; usecs++ ) {
+                    board.publish( candidate( usecs, 8 - usecs / 10000.0 ) );
+                }
+            } );
+            threads.add( thread );
+            thread.start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        // the best five, i.e. the last ones of the last thread
+        List<Candidate> candidates = board.getCandidates();
+        assertEquals( 5, candidates.size() );
+        for ( int i = 0; i < 5; i++ ) {
+            assertEquals( 3999 - i, candidates.get( i ).getUsecs() );
+        }
+    }
+
+    private static Candidate candidate( int usecs, double rating )
+    {
+        return new Candidate( SECOND, usecs, rating, PLAINTEXT );
+    }
+}
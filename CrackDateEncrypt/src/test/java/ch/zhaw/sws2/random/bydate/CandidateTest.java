@@ -0,0 +1,57 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CandidateTest
+{
+    private static final long   SECOND = 1459451671;
+    private static final int    USECS  = 123456;
+    private static final String TEXT   = "In dem Gedicht schildert der Autor die Leiden der Menschen.";
+
+    @Test
+    public void derivesPlaintextFromTime()
+        throws Exception
+    {
+        NetscapeKeygen keygen = new NetscapeKeygen( new MyFakeSystemImpl( SECOND * Constants.USECS_PER_SECOND + USECS,
+            ZoneOffset.UTC ), "AES" );
+        keygen.makeKey();
+        Cipher cipher = Cipher.getInstance( "AES/CTR/NoPadding" );
+        cipher.init( Cipher.ENCRYPT_MODE, keygen.getSecretKeySpec(), new IvParameterSpec( keygen.getIv() ) );
+        byte[] encrypted = cipher.doFinal( TEXT.getBytes( StandardCharsets.UTF_8 ) );
+
+        Candidate candidate = new Candidate( SECOND, USECS, 4.5, new PlaintextDeriver( "AES/CTR/NoPadding", encrypted ) );
+        byte[] buffer = candidate.getBuffer();
+        assertEquals( Crack.DECRYPT_MAX_BYTES, buffer.length );
+        assertArrayEquals( TEXT.getBytes( StandardCharsets.UTF_8 ), Arrays.copyOf( buffer, encrypted.length ) );
+        assertTrue( candidate.toString().contains( "buffer=In dem Gedicht" ) );
+    }
+
+    @Test
+    public void recordKeepsTimeAndRating()
+    {
+        PlaintextDeriver plaintext = new PlaintextDeriver( "AES/CTR/NoPadding", new byte[ 16 ] );
+        Candidate candidate = Candidate.fromRecord( new Candidate( SECOND, 999999, 3.25, plaintext ).toRecord(), plaintext );
+        assertEquals( SECOND, candidate.getSecondsSinceEpoch() );
+        assertEquals( 999999, candidate.getUsecs() );
+        assertEquals( 3.25, candidate.getRating(), 0 );
+
+        try {
+            Candidate.fromRecord( SECOND + " 5 4.674 SW4gZGVt", plaintext );
+            fail( "Accepted a record with a fourth field" );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CheckpointTest
+{
+    private static final String           SEARCH    = "AES/CTR/NoPadding DECRYPT PROXIMITY 1459451667-1459451674";
+    private static final PlaintextDeriver PLAINTEXT = new PlaintextDeriver( "AES/CTR/NoPadding", new byte[ 16 ] );
+    private static final long             CHUNKS    = 100;
+
+    @Test
+    public void resumesChunksAndCandidates()
+        throws IOException
+    {
+        File file = File.createTempFile( "checkpoint", ".txt" );
+        try {
+            CandidateBoard board = new CandidateBoard( 10, 0 );
+            Checkpoint checkpoint = new Checkpoint( file, SEARCH, false, CHUNKS, board, PLAINTEXT );
+            for ( int chunk : new int[] { 0, 1, 2, 5 } ) {
+                checkpoint.markDone( chunk );
+            }
+            board.publish( new Candidate( 1459451671, 123456, 4.5, PLAINTEXT ) );
+            checkpoint.close();
+            assertTrue( read( file ).contains( "done 0 2\ndone 5 5\nbest 1459451671 123456 4.5\n" ) );
+
+            CandidateBoard resumedBoard = new CandidateBoard( 10, 0 );
+            Checkpoint resumed = new Checkpoint( file, SEARCH, true, CHUNKS, resumedBoard, PLAINTEXT );
+            assertEquals( 4, resumed.getDoneChunkCount() );
+            assertTrue( resumed.isDone( 2 ) );
+            assertFalse( resumed.isDone( 3 ) );
+            assertTrue( resumed.isDone( 5 ) );
+            assertEquals( 123456, resumedBoard.getBestCandidate().getUsecs() );
+            resumed.close();
+
+            // without --resume, the journal starts anew
+            Checkpoint restarted = new Checkpoint( file, SEARCH, false, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT );
+            assertEquals( 0, restarted.getDoneChunkCount() );
+            restarted.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void dropsLineCutShortByCrash()
+        throws IOException
+    {
+        File file = File.createTempFile( "checkpoint", ".txt" );
+        try {
+            Checkpoint checkpoint = new Checkpoint( file, SEARCH, false, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT );
+            checkpoint.markDone( 0 );
+            checkpoint.close();
+            Files.write( file.toPath(), "done 7 1".getBytes( StandardCharsets.UTF_8 ), StandardOpenOption.APPEND );
+
+            Checkpoint resumed = new Checkpoint( file, SEARCH, true, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT );
+            assertEquals( 1, resumed.getDoneChunkCount() );
+            assertFalse( resumed.isDone( 7 ) );
+            resumed.markDone( 8 );
+            resumed.close();
+            assertTrue( read( file ).endsWith( "\ndone 0 0\ndone 8 8\n" ) );
+
+            // cut short within the header
+            Files.write( file.toPath(), "crack-checkpoint 1\nsearch AES/".getBytes( StandardCharsets.UTF_8 ) );
+            Checkpoint restarted = new Checkpoint( file, SEARCH, true, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT );
+            assertEquals( 0, restarted.getDoneChunkCount() );
+            restarted.close();
+            assertTrue( read( file ).endsWith( SEARCH + "\n" ) );
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void refusesCorruptJournalAndLeavesIt()
+        throws IOException
+    {
+        File file = File.createTempFile( "checkpoint", ".txt" );
+        try {
+            new Checkpoint( file, SEARCH, false, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT ).close();
+            String header = read( file );
+            for ( String line : new String[] { "done 3", "done x 4", "done 9 3", "done -1 2", "best 1459451671 5",
+                "best", "skipped 1 2" } ) {
+                String content = header + "done 0 0\n" + line + "\n";
+                Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+                try {
+                    new Checkpoint( file, SEARCH, true, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT ).close();
+                    fail( "Resumed with " + line );
+                } catch ( IOException e ) {
+                    assertTrue( e.getMessage(), e.getMessage().contains( "line 4" ) );
+                }
+                assertEquals( content, read( file ) );
+            }
+
+            Files.write( file.toPath(), "crack-checkpoint 1\nsearch another search\n".getBytes( StandardCharsets.UTF_8 ) );
+            try {
+                new Checkpoint( file, SEARCH, true, CHUNKS, new CandidateBoard( 10, 0 ), PLAINTEXT ).close();
+                fail( "Resumed another search" );
+            } catch ( IOException e ) {
+                assertTrue( e.getMessage(), e.getMessage().contains( "another search" ) );
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void refusesTooManyChunksBeforeSearch()
+        throws IOException
+    {
+        File file = File.createTempFile( "checkpoint", ".txt" );
+        file.delete();
+        try {
+            new Checkpoint( file, SEARCH, false, Integer.MAX_VALUE + 1L, new CandidateBoard( 10, 0 ), PLAINTEXT );
+            fail( "Accepted more chunks than the journal can hold" );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+        assertFalse( file.exists() );
+    }
+
+    private static String read( File file )
+        throws IOException
+    {
+        return new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+    }
+}
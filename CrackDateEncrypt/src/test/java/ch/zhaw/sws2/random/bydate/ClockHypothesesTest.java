@@ -0,0 +1,56 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ClockHypothesesTest
+{
+    private static final ZonedDateTime TIMESPEC = ZonedDateTime.parse( "2016-03-31T11:44:30+02:00" );
+    private static final long          SECOND   = TIMESPEC.toEpochSecond();
+
+    @Test
+    public void mergesOverlappingWindows()
+    {
+        ClockHypotheses hypotheses = ClockHypotheses.parse( "+09:30,+09:30:02,-01:00" );
+        SecondRanges seconds = new SecondRanges( hypotheses.getWindows( TIMESPEC, -4, 3 ) );
+
+        assertEquals( 3, hypotheses.size() );
+        assertEquals( 2, seconds.getRangeCount() );
+        assertEquals( 8 + 10, seconds.getSecondCount() );
+        assertEquals( SECOND - 3600 - 4, seconds.getStart( 0 ) );
+        assertEquals( SECOND + 34200 + 2 + 3, seconds.getEnd( 1 ) );
+    }
+
+    @Test
+    public void zoneReadsTimespecAsLocalTime()
+    {
+        ClockHypotheses hypotheses = ClockHypotheses.parse( "Asia/Tokyo" );
+        long second = ZonedDateTime.parse( "2016-03-31T11:44:30+09:00" ).toEpochSecond();
+
+        assertEquals( second, hypotheses.getWindows( TIMESPEC, 0, 0 ).get( 0 )[ 0 ] );
+        assertEquals( second * Constants.USECS_PER_SECOND + ClockHypotheses.HINT_USEC, hypotheses.getHintUsecs( TIMESPEC )[ 0 ] );
+    }
+
+    @Test
+    public void attributesHitsToExplainingHypothesesClosestFirst()
+    {
+        ClockHypotheses hypotheses = ClockHypotheses.parse( "+09:30:02, +09:30 ,+10:30" );
+        long hit = SECOND + 34200 + 1;
+
+        assertEquals( Arrays.asList( "+09:30:02 (-0.876544 s)", "+09:30 (+1.123456 s)" ),
+            hypotheses.explain( TIMESPEC, -4, 3, hit, 123456 ) );
+        assertEquals( Collections.emptyList(), hypotheses.explain( TIMESPEC, -4, 3, SECOND, 0 ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void rejectsInvalidHypothesis()
+    {
+        ClockHypotheses.parse( "+09:30,Nowhere/Atlantis" );
+    }
+}
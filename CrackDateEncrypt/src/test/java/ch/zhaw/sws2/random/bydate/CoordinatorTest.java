@@ -0,0 +1,175 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class CoordinatorTest
+{
+    private static final long   FIRST_SECOND = 1459451671;
+    private static final int    CHUNK_USECS  = 100000;
+    private static final int    LEASE_CHUNKS = 4;
+    private static final String SEARCH       = "test";
+
+    private static final PlaintextDeriver PLAINTEXT = new PlaintextDeriver( "AES/CTR/NoPadding", new byte[ 16 ] );
+
+    private final KeyspacePartitioner  partitioner = new KeyspacePartitioner( FIRST_SECOND, FIRST_SECOND + 2, CHUNK_USECS, 2 );
+    private final Map<Long, AtomicInteger> searched = new ConcurrentHashMap<>();
+
+    @Test( timeout = 30000 )
+    public void searchesEveryChunkOnce()
+        throws Exception
+    {
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        Coordinator coordinator = createCoordinator( board );
+        List<Thread> threads = new ArrayList<>();
+        threads.add( start( coordinator ) );
+        threads.add( startWorker( coordinator, -1, 0 ) );
+        threads.add( startWorker( coordinator, -1, 0 ) );
+        join( threads );
+
+        assertEquals( partitioner.getChunkCount(), searched.size() );
+        for ( AtomicInteger count : searched.values() ) {
+            assertEquals( 1, count.get() );
+        }
+    }
+
+    @Test( timeout = 30000 )
+    public void reassignsLeaseOfLostWorker()
+        throws Exception
+    {
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        Coordinator coordinator = createCoordinator( board );
+        Thread coordinatorThread = start( coordinator );
+
+        try ( Socket socket = new Socket( "localhost", coordinator.getPort() ) ) {
+            Writer out = new OutputStreamWriter( socket.getOutputStream(), StandardCharsets.UTF_8 );
+            out.write( Coordinator.HELLO + " " + SEARCH + "\n" );
+            out.flush();
+            BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+            assertEquals( Coordinator.LEASE + " 0 " + LEASE_CHUNKS, in.readLine() );
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add( coordinatorThread );
+        threads.add( startWorker( coordinator, -1, 0 ) );
+        join( threads );
+
+        assertEquals( partitioner.getChunkCount(), searched.size() );
+    }
+
+    @Test( timeout = 30000 )
+    public void stopsAllWorkersOnConfirmedHit()
+        throws Exception
+    {
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        Coordinator coordinator = createCoordinator( board );
+        List<Thread> threads = new ArrayList<>();
+        threads.add( start( coordinator ) );
+        threads.add( startWorker( coordinator, 5, 0 ) );
+        threads.add( startWorker( coordinator, 5, 0 ) );
+        join( threads );
+
+        assertTrue( board.isStopped() );
+        Candidate hit = board.getBestCandidate();
+        assertNotNull( hit );
+        assertEquals( FIRST_SECOND, hit.getSecondsSinceEpoch() );
+        assertEquals( 5 * CHUNK_USECS, hit.getUsecs() );
+    }
+
+    @Test( timeout = 30000 )
+    public void stopsAllWorkersOnHitConfirmedByWorker()
+        throws Exception
+    {
+        // e.g. an IV match, rated far above the stop threshold
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        Coordinator coordinator = createCoordinator( board );
+        List<Thread> threads = new ArrayList<>();
+        threads.add( start( coordinator ) );
+        threads.add( startWorker( coordinator, 5, 4.67 ) );
+        threads.add( startWorker( coordinator, 5, 4.67 ) );
+        join( threads );
+
+        assertTrue( board.isStopped() );
+        Candidate hit = board.getBestCandidate();
+        assertNotNull( hit );
+        assertEquals( 5 * CHUNK_USECS, hit.getUsecs() );
+        assertEquals( 4.67, hit.getRating(), 1e-6 );
+        assertTrue( searched.size() < partitioner.getChunkCount() );
+    }
+
+    private Coordinator createCoordinator( CandidateBoard board )
+        throws Exception
+    {
+        SearchMetrics metrics = new SearchMetrics( partitioner.getKeyCount(), partitioner.getChunkCount() );
+        return new Coordinator( 0, partitioner, SEARCH, board, PLAINTEXT, KeyspacePartitioner.CompletedChunks.NONE,
+            metrics, LEASE_CHUNKS );
+    }
+
+    /**
+     * Starts a worker whose search counts the searched chunks and
+     * publishes a hit with the given rating in the given chunk, if any,
+     * and confirms it by stopping its board.
+     */
+    private Thread startWorker( Coordinator coordinator, long hitChunk, double rating )
+    {
+        CandidateBoard board = new CandidateBoard( 10, 1 );
+        Worker worker = new Worker( partitioner, SEARCH, board, ( secondsSinceEpoch, firstUsec, count ) -> {
+            long chunk = (secondsSinceEpoch - FIRST_SECOND) * (Constants.USECS_PER_SECOND / CHUNK_USECS) + firstUsec / CHUNK_USECS;
+            searched.computeIfAbsent( chunk, c -> new AtomicInteger() ).incrementAndGet();
+            if ( chunk == hitChunk ) {
+                board.publish( new Candidate( secondsSinceEpoch, firstUsec, rating, PLAINTEXT ) );
+                board.stop();
+            }
+        } );
+        return start( () -> {
+            worker.run( "localhost", coordinator.getPort() );
+            return null;
+        } );
+    }
+
+    private static Thread start( Coordinator coordinator )
+    {
+        return start( () -> {
+            coordinator.run();
+            return null;
+        } );
+    }
+
+    private static Thread start( Callable<Void> task )
+    {
+        Thread thread = new Thread( () -> {
+            try {
+                task.call();
+            } catch ( Exception e ) {
+                throw new IllegalStateException( e );
+            }
+        } );
+        thread.start();
+        return thread;
+    }
+
+    private static void join( List<Thread> threads )
+        throws InterruptedException
+    {
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CrackOptionsTest
+{
+    private static final String[] POSITIONAL = { "AES/CTR/NoPadding", "2016-03-31T11:44:30+02:00", "encrypted" };
+
+    @Test
+    public void defaults()
+    {
+        CrackOptions options = parse();
+        assertEquals( SearchStrategy.DECRYPT, options.getStrategy() );
+        assertEquals( SearchOrder.PROXIMITY, options.getOrder() );
+        assertEquals( -4, options.getWindowStart() );
+        assertEquals( 3, options.getWindowEnd() );
+        assertTrue( options.getProcessIds().isNone() );
+        assertEquals( BruteForcer.RATING_THRESHOLD_TO_STOP_SEARCHING, options.getStopBelow(), 0 );
+        assertEquals( ScorerChain.DEFAULT, options.getScorers() );
+        assertNull( options.getKnownPlaintext() );
+        assertFalse( options.isTextFilter() );
+        assertFalse( options.isBatch() );
+        assertFalse( options.isCoordinator() );
+        assertFalse( options.isWorker() );
+        assertEquals( "AES/CTR/NoPadding", options.getCipherSpec() );
+        assertEquals( "2016-03-31T11:44:30+02:00", options.getDateString() );
+        assertEquals( "encrypted", options.getInfileName() );
+    }
+
+    @Test
+    public void parsesValuesAndFlags()
+    {
+        CrackOptions options = parse( "--strategy", "iv-match", "--order", "linear", "--threads", "3", "--window", "-10:-2",
+            "--pid", "100:199", "--ppid", "1", "--stop-below", "2.5", "--top", "4", "--text-filter", "--worker", "host:7000" );
+        assertEquals( SearchStrategy.IV_MATCH, options.getStrategy() );
+        assertEquals( SearchOrder.LINEAR, options.getOrder() );
+        assertEquals( 3, options.getThreads() );
+        assertEquals( -10, options.getWindowStart() );
+        assertEquals( -2, options.getWindowEnd() );
+        assertEquals( 100, options.getProcessIds().getPairCount() );
+        assertEquals( 2.5, options.getStopBelow(), 0 );
+        assertEquals( 4, options.getTop() );
+        assertTrue( options.isTextFilter() );
+        assertTrue( options.isWorker() );
+        assertEquals( "host", options.getCoordinatorHost() );
+        assertEquals( 7000, options.getCoordinatorPort() );
+    }
+
+    @Test
+    public void knownPlaintextSelectsItsStrategy()
+    {
+        CrackOptions options = parse( "--known-text", "In dem" );
+        assertEquals( SearchStrategy.KNOWN_PLAINTEXT, options.getStrategy() );
+        assertEquals( 6, options.getKnownPlaintext().getKnownCount() );
+
+        options = parse( "--known-plaintext", "496e??64656d" );
+        assertEquals( SearchStrategy.KNOWN_PLAINTEXT, options.getStrategy() );
+        assertEquals( 6, options.getKnownPlaintext().length() );
+        assertEquals( 5, options.getKnownPlaintext().getKnownCount() );
+
+        // an explicit strategy is kept
+        assertEquals( SearchStrategy.IV_MATCH, parse( "--strategy", "iv-match", "--known-text", "In" ).getStrategy() );
+    }
+
+    @Test
+    public void rejectsInvalidCommandLines()
+    {
+        assertInvalid( "--strategy", "known-plaintext" );
+        assertInvalid( "--unknown", "1" );
+        assertInvalid( "--window", "3:-4" );
+        assertInvalid( "--window", "3" );
+        assertInvalid( "--pid", "9:8" );
+        assertInvalid( "--worker", "7000" );
+        assertInvalid( "--resume" );
+        assertInvalid( "--batch", "--checkpoint", "journal" );
+        assertInvalid( "--coordinator", "0", "--worker", "host:7000" );
+        assertInvalid( "--batch", "--worker", "host:7000" );
+        assertInvalid( "--worker", "host:7000", "--checkpoint", "journal" );
+        assertInvalid( "--known-plaintext", "496" );
+        assertInvalid( "--scorers", "words" );
+        try {
+            CrackOptions.parse( new String[] { "--bitsliced", "AES/CBC/NoPadding", "2016-03-31T11:44:30+02:00", "encrypted" } );
+            fail( "--bitsliced accepted with CBC" );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+        try {
+            CrackOptions.parse( new String[] { "--top", "3", "AES/CTR/NoPadding", "encrypted" } );
+            fail( "Accepted two arguments" );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+        try {
+            CrackOptions.parse( new String[] { "--top" } );
+            fail( "Accepted an option without value" );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+    }
+
+    private static void assertInvalid( String... options )
+    {
+        try {
+            parse( options );
+            fail( "Accepted " + String.join( " ", options ) );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+    }
+
+    private static CrackOptions parse( String... options )
+    {
+        String[] args = new String[ options.length + POSITIONAL.length ];
+        System.arraycopy( options, 0, args, 0, options.length );
+        System.arraycopy( POSITIONAL, 0, args, options.length, POSITIONAL.length );
+        return CrackOptions.parse( args );
+    }
+}
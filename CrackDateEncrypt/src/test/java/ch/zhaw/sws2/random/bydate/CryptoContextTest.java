@@ -0,0 +1,82 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class CryptoContextTest
+{
+    private static final byte[] TEXT = "In dem Gedicht schildert der Autor die Leiden".getBytes( StandardCharsets.UTF_8 );
+
+    @Test
+    public void reusedCipherDecryptsEveryKeyOfEveryMode()
+        throws Exception
+    {
+        byte[] keys = new byte[ 3 * BatchKeygen.BLOCK_BYTES ];
+        byte[] ivs = new byte[ 3 * BatchKeygen.BLOCK_BYTES ];
+        Random random = new Random( 12 );
+        random.nextBytes( keys );
+        random.nextBytes( ivs );
+        for ( String cipherSpec : new String[] { "AES/ECB/PKCS5Padding", "AES/CBC/PKCS5Padding", "AES/CTR/NoPadding",
+            "AES/GCM/NoPadding" } ) {
+            CryptoContext crypto = new CryptoContext( cipherSpec );
+            for ( int offset = 0; offset < keys.length; offset += BatchKeygen.BLOCK_BYTES ) {
+                byte[] key = Arrays.copyOfRange( keys, offset, offset + BatchKeygen.BLOCK_BYTES );
+                byte[] iv = Arrays.copyOfRange( ivs, offset, offset + BatchKeygen.BLOCK_BYTES );
+                byte[] encrypted = encrypt( cipherSpec, key, iv );
+                byte[] decrypted = crypto.initDecrypt( keys, offset, ivs, offset ).doFinal( encrypted );
+                assertArrayEquals( cipherSpec, TEXT, decrypted );
+            }
+        }
+    }
+
+    @Test
+    public void encryptsSingleBlockWithRawCipher()
+        throws Exception
+    {
+        byte[] key = new byte[ BatchKeygen.BLOCK_BYTES ];
+        new Random( 13 ).nextBytes( key );
+        Cipher ecb = Cipher.getInstance( "AES/ECB/NoPadding" );
+        ecb.init( Cipher.ENCRYPT_MODE, new SecretKeySpec( key, "AES" ) );
+        byte[] expected = ecb.doFinal( TEXT, 0, BatchKeygen.BLOCK_BYTES );
+
+        byte[] output = new byte[ 2 * BatchKeygen.BLOCK_BYTES ];
+        new CryptoContext( "AES/CTR/NoPadding" ).encryptBlock( key, 0, TEXT, 0, output, BatchKeygen.BLOCK_BYTES );
+        assertArrayEquals( expected, Arrays.copyOfRange( output, BatchKeygen.BLOCK_BYTES, output.length ) );
+    }
+
+    @Test
+    public void onlyEcbHasNoIv()
+    {
+        assertFalse( CryptoContext.isModeRequiringIv( "AES/ECB/NoPadding" ) );
+        assertTrue( CryptoContext.isModeRequiringIv( "AES/CBC/NoPadding" ) );
+        assertTrue( CryptoContext.isModeRequiringIv( "AES/CTR/NoPadding" ) );
+        assertTrue( CryptoContext.isModeRequiringIv( "AES/GCM/NoPadding" ) );
+    }
+
+    private static byte[] encrypt( String cipherSpec, byte[] key, byte[] iv )
+        throws Exception
+    {
+        Cipher cipher = Cipher.getInstance( cipherSpec );
+        SecretKeySpec keySpec = new SecretKeySpec( key, "AES" );
+        if ( cipherSpec.contains( "ECB" ) ) {
+            cipher.init( Cipher.ENCRYPT_MODE, keySpec );
+        } else if ( cipherSpec.contains( "GCM" ) ) {
+            cipher.init( Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec( 128, iv ) );
+        } else {
+            cipher.init( Cipher.ENCRYPT_MODE, keySpec, new IvParameterSpec( iv ) );
+        }
+        return cipher.doFinal( TEXT );
+    }
+}
@@ -0,0 +1,116 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class EntropyScorerTest
+{
+    private static final double THRESHOLD = 7.5;
+    private static final int    STEP      = 64;
+
+    @Test
+    public void addingPiecesGivesSameScore()
+    {
+        byte[] data = random( 1 );
+        EntropyScorer scorer = new EntropyScorer();
+        double expected = scorer.score( data, data.length );
+
+        scorer.add( data, 0, 100 );
+        scorer.add( data, 100, data.length );
+        assertEquals( expected, scorer.finish(), 0 );
+        scorer.add( data, 0, 10 );
+        scorer.reset();
+        assertEquals( expected, scorer.score( data, data.length ), 0 );
+    }
+
+    @Test
+    public void equalsShannonEntropy()
+    {
+        EntropyScorer scorer = new EntropyScorer();
+        for ( int seed = 0; seed < 10; seed++ ) {
+            byte[] data = random( seed );
+            assertEquals( entropy( data ), scorer.score( data, data.length ), 1e-13 );
+        }
+        byte[] data = text();
+        assertEquals( entropy( data ), scorer.score( data, data.length ), 1e-13 );
+        byte[] zeros = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        assertEquals( 0, scorer.score( zeros, zeros.length ), 1e-13 );
+    }
+
+    @Test
+    public void abandonsRandomDataEarly()
+    {
+        EntropyScorer scorer = new EntropyScorer();
+        long bytes = 0;
+        for ( int seed = 0; seed < 100; seed++ ) {
+            byte[] data = random( seed );
+            int length = 0;
+            while ( length < data.length && !scorer.isClearlyAbove( THRESHOLD ) ) {
+                scorer.add( data, length, length + STEP );
+                length += STEP;
+            }
+            scorer.reset();
+            bytes += length;
+        }
+        assertTrue( "Average bytes: " + bytes / 100, bytes / 100 < Crack.DECRYPT_MAX_BYTES / 4 );
+    }
+
+    @Test
+    public void neverAbandonsText()
+    {
+        byte[] data = text();
+        EntropyScorer scorer = new EntropyScorer();
+        for ( int length = 0; length < Crack.DECRYPT_MAX_BYTES; length += STEP ) {
+            scorer.add( data, length, length + STEP );
+            assertFalse( scorer.isClearlyAbove( 5 ) );
+        }
+    }
+
+    /**
+     * The entropy -sum(p * log2(p)) of the byte values, computed the
+     * way the BruteForcer did before the EntropyScorer
+     */
+    private static double entropy( byte[] data )
+    {
+        Map<Character, Integer> counts = new HashMap<>();
+        for ( byte value : data ) {
+            counts.merge( (char)(value & 0xFF), 1, Integer::sum );
+        }
+        double result = 0;
+        for ( int count : counts.values() ) {
+            double frequency = (double)count / data.length;
+            result -= frequency * (Math.log( frequency ) / Math.log( 2 ));
+        }
+        return result;
+    }
+
+    /**
+     * @return {@link Crack#DECRYPT_MAX_BYTES} bytes of text
+     */
+    private static byte[] text()
+    {
+        StringBuilder text = new StringBuilder();
+        while ( text.length() < Crack.DECRYPT_MAX_BYTES ) {
+            text.append( "Es war einmal ein Schl\u00fcssel, der aus der Uhrzeit abgeleitet wurde. 0123456789\n" );
+        }
+        byte[] data = text.toString().getBytes( StandardCharsets.UTF_8 );
+        return Arrays.copyOf( data, Crack.DECRYPT_MAX_BYTES );
+    }
+
+    private static byte[] random( long seed )
+    {
+        byte[] data = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        new Random( seed ).nextBytes( data );
+        return data;
+    }
+}
@@ -0,0 +1,60 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class IvTargetSetTest
+{
+    @Test
+    public void findsEveryTargetOfAnIv()
+    {
+        Random random = new Random( 8 );
+        byte[][] ivs = new byte[ 100 ][ BatchKeygen.BLOCK_BYTES ];
+        IvTargetSet set = new IvTargetSet( ivs.length + 1 );
+        for ( int i = 0; i < ivs.length; i++ ) {
+            random.nextBytes( ivs[ i ] );
+            set.add( ivs[ i ], i );
+        }
+        // a second target with the same IV as target 7
+        set.add( ivs[ 7 ], ivs.length );
+        assertEquals( ivs.length + 1, set.size() );
+
+        for ( int i = 0; i < ivs.length; i++ ) {
+            Set<Integer> targets = new HashSet<>();
+            for ( int slot = set.find( ivs[ i ], 0, -1 ); slot >= 0; slot = set.find( ivs[ i ], 0, slot ) ) {
+                targets.add( set.getTarget( slot ) );
+            }
+            assertEquals( i == 7 ? Set.of( 7, ivs.length ) : Set.of( i ), targets );
+        }
+    }
+
+    @Test
+    public void findsIvAtOffsetAndMissesOthers()
+    {
+        byte[] ivs = new byte[ 3 * BatchKeygen.BLOCK_BYTES ];
+        new Random( 9 ).nextBytes( ivs );
+        IvTargetSet set = new IvTargetSet( 1 );
+        byte[] iv = new byte[ BatchKeygen.BLOCK_BYTES ];
+        System.arraycopy( ivs, 2 * BatchKeygen.BLOCK_BYTES, iv, 0, iv.length );
+        set.add( iv, 0 );
+
+        assertEquals( -1, set.find( ivs, 0, -1 ) );
+        assertEquals( -1, set.find( ivs, BatchKeygen.BLOCK_BYTES, -1 ) );
+        assertEquals( 0, set.getTarget( set.find( ivs, 2 * BatchKeygen.BLOCK_BYTES, -1 ) ) );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void rejectsMoreIvsThanExpected()
+    {
+        IvTargetSet set = new IvTargetSet( 2 );
+        for ( int i = 0; i < 4; i++ ) {
+            set.add( new byte[] { (byte)i, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, i );
+        }
+    }
+}
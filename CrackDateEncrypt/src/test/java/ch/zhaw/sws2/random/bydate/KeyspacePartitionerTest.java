@@ -0,0 +1,107 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class KeyspacePartitionerTest
+{
+    private static final long FIRST_SECOND = 1459451667;
+    private static final int  CHUNK_USECS  = 300000;
+
+    @Test
+    public void linearOrderIsChunkOrder()
+    {
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( FIRST_SECOND, FIRST_SECOND + 2, CHUNK_USECS, 1 );
+        for ( long position = 0; position < partitioner.getChunkCount(); position++ ) {
+            assertEquals( position, partitioner.getChunk( position ) );
+        }
+    }
+
+    @Test
+    public void proximityOrderSpiralsOutwardFromHint()
+    {
+        // 4 chunks per second, the hint is in chunk 1 of second 2
+        long hint = (FIRST_SECOND + 2) * Constants.USECS_PER_SECOND + 400000;
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( SecondRanges.of( FIRST_SECOND, FIRST_SECOND + 3 ),
+            CHUNK_USECS, 1, SearchOrder.PROXIMITY, hint );
+
+        long[] chunks = new long[ (int)partitioner.getChunkCount() ];
+        for ( int position = 0; position < chunks.length; position++ ) {
+            chunks[ position ] = partitioner.getChunk( position );
+        }
+        assertEquals( "[9, 8, 10, 7, 11, 6, 12, 5, 13, 4, 14, 3, 15, 2, 1, 0]", Arrays.toString( chunks ) );
+    }
+
+    @Test
+    public void spiralsOfSeveralHintsTakeTurns()
+    {
+        // 4 chunks per second, hints in chunks 1 and 9, cells 0..4 and 5..11
+        long[] hints = { FIRST_SECOND * Constants.USECS_PER_SECOND + 400000,
+            (FIRST_SECOND + 2) * Constants.USECS_PER_SECOND + 400000 };
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( SecondRanges.of( FIRST_SECOND, FIRST_SECOND + 2 ),
+            CHUNK_USECS, 1, SearchOrder.PROXIMITY, hints );
+
+        long[] chunks = new long[ (int)partitioner.getChunkCount() ];
+        for ( int position = 0; position < chunks.length; position++ ) {
+            chunks[ position ] = partitioner.getChunk( position );
+        }
+        assertEquals( "[1, 9, 0, 8, 2, 10, 3, 7, 4, 11, 6, 5]", Arrays.toString( chunks ) );
+    }
+
+    @Test
+    public void proximityOrderIsPermutationForAnyHints()
+    {
+        SecondRanges seconds = new SecondRanges( Arrays.asList( new long[][] { { FIRST_SECOND, FIRST_SECOND + 1 },
+            { FIRST_SECOND + 5, FIRST_SECOND + 7 } } ) );
+        for ( long second = FIRST_SECOND - 2; second <= FIRST_SECOND + 9; second++ ) {
+            KeyspacePartitioner partitioner = new KeyspacePartitioner( seconds, CHUNK_USECS, 1, SearchOrder.PROXIMITY,
+                second * Constants.USECS_PER_SECOND + 500000, (FIRST_SECOND + 6) * Constants.USECS_PER_SECOND,
+                (second + 3) * Constants.USECS_PER_SECOND );
+            BitSet seen = new BitSet();
+            for ( long position = 0; position < partitioner.getChunkCount(); position++ ) {
+                long chunk = partitioner.getChunk( position );
+                assertTrue( chunk >= 0 && chunk < partitioner.getChunkCount() );
+                seen.set( (int)chunk );
+            }
+            assertEquals( partitioner.getChunkCount(), seen.cardinality() );
+        }
+    }
+
+    @Test
+    public void runSearchesEveryChunkOnce()
+    {
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( SecondRanges.of( FIRST_SECOND, FIRST_SECOND + 2 ),
+            CHUNK_USECS, 3, SearchOrder.PROXIMITY, (FIRST_SECOND + 1) * Constants.USECS_PER_SECOND );
+        BitSet searched = new BitSet();
+        long[] keys = new long[ 1 ];
+        partitioner.run( ( secondsSinceEpoch, firstUsec, count ) -> {
+            synchronized ( searched ) {
+                searched.set( (int)((secondsSinceEpoch - FIRST_SECOND) * Constants.USECS_PER_SECOND + firstUsec) );
+                keys[ 0 ] += count;
+            }
+        }, () -> false );
+        assertEquals( partitioner.getChunkCount(), searched.cardinality() );
+        assertEquals( partitioner.getKeyCount(), keys[ 0 ] );
+    }
+
+    @Test
+    public void runsReuseTheThreads()
+    {
+        KeyspacePartitioner partitioner = new KeyspacePartitioner( FIRST_SECOND, FIRST_SECOND + 2, CHUNK_USECS, 2 );
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        // e.g. the leases of a worker
+        for ( long from = 0; from < partitioner.getChunkCount(); from++ ) {
+            partitioner.run( ( secondsSinceEpoch, firstUsec, count ) -> threads.add( Thread.currentThread() ), () -> false,
+                KeyspacePartitioner.CompletedChunks.NONE, from, from + 1 );
+        }
+        assertTrue( threads.toString(), threads.size() <= 2 );
+    }
+}
@@ -0,0 +1,81 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class KnownPlaintextTest
+{
+    private static final byte[] TEXT = "In dem Gedicht schildert der Autor".getBytes( StandardCharsets.UTF_8 );
+
+    @Test
+    public void wildcardsMatchAnyByte()
+    {
+        // "In ??em"
+        KnownPlaintext prefix = KnownPlaintext.fromHex( "496e20??656d" );
+        assertEquals( 6, prefix.length() );
+        assertEquals( 5, prefix.getKnownCount() );
+        assertTrue( prefix.matches( TEXT ) );
+        assertTrue( prefix.matches( "In Xem".getBytes( StandardCharsets.UTF_8 ) ) );
+        assertFalse( prefix.matches( "In dam".getBytes( StandardCharsets.UTF_8 ) ) );
+        // shorter than the prefix
+        assertFalse( prefix.matches( "In d".getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void rejectsOddHex()
+    {
+        KnownPlaintext.fromHex( "496e2" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void rejectsEmptyText()
+    {
+        KnownPlaintext.fromText( "" );
+    }
+
+    @Test
+    public void matchesKeystreamOfEveryBlock()
+    {
+        byte[] keystream = new byte[ 3 * BatchKeygen.BLOCK_BYTES ];
+        new Random( 3 ).nextBytes( keystream );
+        byte[] ciphertext = new byte[ TEXT.length ];
+        for ( int i = 0; i < TEXT.length; i++ ) {
+            ciphertext[ i ] = (byte)(TEXT[ i ] ^ keystream[ i ]);
+        }
+
+        KnownPlaintext prefix = KnownPlaintext.fromText( "In dem Gedicht schildert" );
+        assertTrue( prefix.matchesKeystream( keystream, 0, ciphertext, 0, BatchKeygen.BLOCK_BYTES ) );
+        // the second block is compared up to the end of the prefix only
+        assertTrue( prefix.matchesKeystream( keystream, BatchKeygen.BLOCK_BYTES, ciphertext, BatchKeygen.BLOCK_BYTES,
+            BatchKeygen.BLOCK_BYTES ) );
+        keystream[ 3 ]++;
+        assertFalse( prefix.matchesKeystream( keystream, 0, ciphertext, 0, BatchKeygen.BLOCK_BYTES ) );
+    }
+
+    @Test
+    public void expectedKeystreamMasksUnknownBytes()
+    {
+        byte[] ciphertext = new byte[ BatchKeygen.BLOCK_BYTES ];
+        new Random( 4 ).nextBytes( ciphertext );
+        KnownPlaintext prefix = KnownPlaintext.fromHex( "496e??64" );
+        byte[] expected = new byte[ BatchKeygen.BLOCK_BYTES ];
+        byte[] mask = new byte[ BatchKeygen.BLOCK_BYTES ];
+        prefix.getExpectedKeystream( ciphertext, 0, expected, mask );
+
+        byte[] expectedMask = new byte[ BatchKeygen.BLOCK_BYTES ];
+        expectedMask[ 0 ] = expectedMask[ 1 ] = expectedMask[ 3 ] = (byte)0xFF;
+        assertArrayEquals( expectedMask, mask );
+        assertEquals( (byte)(ciphertext[ 0 ] ^ 'I'), expected[ 0 ] );
+        assertEquals( (byte)(ciphertext[ 3 ] ^ 'd'), expected[ 3 ] );
+        assertEquals( 0, expected[ 2 ] );
+        assertEquals( 0, expected[ 4 ] );
+    }
+}
@@ -0,0 +1,116 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ModeTesterTest
+{
+    private static final byte[] TEXT = ("Der Schluessel wird aus der Uhrzeit und der Prozessnummer abgeleitet. "
+        + "Wer die ungefaehre Uhrzeit kennt, muss nur wenige Millionen Schluessel ausprobieren.").getBytes( StandardCharsets.UTF_8 );
+
+    private final byte[] keys = new byte[ BatchKeygen.BLOCK_BYTES ];
+    private final byte[] ivs  = new byte[ BatchKeygen.BLOCK_BYTES ];
+
+    public ModeTesterTest()
+    {
+        Random random = new Random( 17 );
+        random.nextBytes( keys );
+        random.nextBytes( ivs );
+    }
+
+    @Test
+    public void firstBlockNeedsOnlyKeyAndIv()
+        throws Exception
+    {
+        for ( String cipherSpec : new String[] { "AES/ECB/PKCS5Padding", "AES/CBC/PKCS5Padding", "AES/CBC/NoPadding",
+            "AES/CTR/NoPadding", "AES/GCM/NoPadding" } ) {
+            byte[] plaintext = cipherSpec.contains( "NoPadding" ) && !cipherSpec.contains( "CTR" ) && !cipherSpec.contains( "GCM" )
+                ? Arrays.copyOf( TEXT, TEXT.length / 16 * 16 ) : TEXT;
+            ModeTester tester = new ModeTester( cipherSpec, new CryptoContext( cipherSpec ), encrypt( cipherSpec, plaintext ), true );
+            byte[] block = new byte[ tester.getBlockSize() ];
+            assertTrue( cipherSpec, tester.decryptFirstBlock( keys, 0, ivs, 0, block ) );
+            assertArrayEquals( cipherSpec, Arrays.copyOf( TEXT, block.length ), block );
+
+            byte[] output = new byte[ Crack.DECRYPT_MAX_BYTES ];
+            tester.decrypt( keys, 0, ivs, 0, output );
+            // with padding, the JCE holds back the last block until the end
+            assertArrayEquals( cipherSpec, Arrays.copyOf( TEXT, 64 ), Arrays.copyOf( output, 64 ) );
+        }
+    }
+
+    @Test
+    public void gcmIsDecryptedAsCtrAndConfirmedByTag()
+        throws Exception
+    {
+        byte[] encrypted = encrypt( "AES/GCM/NoPadding", TEXT );
+        ModeTester tester = new ModeTester( "AES/GCM/NoPadding", new CryptoContext( "AES/GCM/NoPadding" ), encrypted, true );
+        assertTrue( tester.hasTag() );
+        byte[] output = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        tester.decrypt( keys, 0, ivs, 0, output );
+        assertArrayEquals( TEXT, Arrays.copyOf( output, tester.getCiphertextLength() ) );
+        assertTrue( tester.verifyTag( keys, 0, ivs, 0 ) );
+
+        byte[] wrongKeys = keys.clone();
+        wrongKeys[ 0 ]++;
+        assertFalse( tester.verifyTag( wrongKeys, 0, ivs, 0 ) );
+    }
+
+    @Test
+    public void gcmTagIsUnknownIfFileIsLongerThanData()
+        throws Exception
+    {
+        byte[] longText = new byte[ 3 * Crack.DECRYPT_MAX_BYTES ];
+        System.arraycopy( TEXT, 0, longText, 0, TEXT.length );
+        byte[] encrypted = Arrays.copyOf( encrypt( "AES/GCM/NoPadding", longText ), Crack.DECRYPT_MAX_BYTES );
+        ModeTester tester = new ModeTester( "AES/GCM/NoPadding", new CryptoContext( "AES/GCM/NoPadding" ), encrypted, false );
+        assertFalse( tester.hasTag() );
+        byte[] output = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        tester.decrypt( keys, 0, ivs, 0, output );
+        assertArrayEquals( Arrays.copyOf( longText, Crack.DECRYPT_MAX_BYTES ), output );
+    }
+
+    @Test
+    public void gcmTagIsKnownIfFileIsExactlyAsLongAsData()
+        throws Exception
+    {
+        byte[] text = new byte[ Crack.DECRYPT_MAX_BYTES - ModeTester.GCM_TAG_BYTES ];
+        System.arraycopy( TEXT, 0, text, 0, TEXT.length );
+        byte[] encrypted = encrypt( "AES/GCM/NoPadding", text );
+        assertEquals( Crack.DECRYPT_MAX_BYTES, encrypted.length );
+        ModeTester tester = new ModeTester( "AES/GCM/NoPadding", new CryptoContext( "AES/GCM/NoPadding" ), encrypted, true );
+        assertTrue( tester.hasTag() );
+        assertEquals( text.length, tester.getCiphertextLength() );
+        byte[] output = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        tester.decrypt( keys, 0, ivs, 0, output );
+        assertArrayEquals( text, Arrays.copyOf( output, text.length ) );
+        assertTrue( tester.verifyTag( keys, 0, ivs, 0 ) );
+    }
+
+    private byte[] encrypt( String cipherSpec, byte[] plaintext )
+        throws Exception
+    {
+        Cipher cipher = Cipher.getInstance( cipherSpec );
+        SecretKeySpec key = new SecretKeySpec( keys, "AES" );
+        if ( cipherSpec.contains( "ECB" ) ) {
+            cipher.init( Cipher.ENCRYPT_MODE, key );
+        } else if ( cipherSpec.contains( "GCM" ) ) {
+            cipher.init( Cipher.ENCRYPT_MODE, key, new GCMParameterSpec( 128, ivs ) );
+        } else {
+            cipher.init( Cipher.ENCRYPT_MODE, key, new IvParameterSpec( ivs ) );
+        }
+        return cipher.doFinal( plaintext );
+    }
+}
@@ -0,0 +1,119 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class MultiTargetSearchTest
+{
+    private static final String TIMESPEC = "2016-03-31T11:44:30+02:00";
+    private static final long   SECOND   = 1459417470;
+
+    @Test
+    public void findsAllTargetsOfDirectoryInOneSweep()
+        throws Exception
+    {
+        Path directory = Files.createTempDirectory( "targets" );
+        try {
+            writeTarget( directory.resolve( "a.bin" ), header( SECOND, 10000 ) );
+            writeTarget( directory.resolve( "b.bin" ), header( SECOND, 987654 ) );
+            writeTarget( directory.resolve( "c.bin" ), header( SECOND + 1, 10000 ) );
+            assertEquals( 2, search( directory.toString() ) );
+        } finally {
+            delete( directory );
+        }
+    }
+
+    @Test
+    public void skipsTargetsTooShortForIv()
+        throws Exception
+    {
+        Path directory = Files.createTempDirectory( "targets" );
+        try {
+            writeTarget( directory.resolve( "a.bin" ), header( SECOND, 10000 ) );
+            Files.write( directory.resolve( "b.bin" ), new byte[ 5 ] );
+            writeTarget( directory.resolve( "c.bin" ), header( SECOND, 20000 ) );
+            assertEquals( 2, search( directory.toString() ) );
+
+            Files.delete( directory.resolve( "a.bin" ) );
+            Files.delete( directory.resolve( "c.bin" ) );
+            try {
+                search( directory.toString() );
+                fail( "Accepted a directory without complete target" );
+            } catch ( IOException e ) {
+                // expected
+            }
+        } finally {
+            delete( directory );
+        }
+    }
+
+    @Test
+    public void readsTargetsAndTimespecsOfManifest()
+        throws Exception
+    {
+        Path directory = Files.createTempDirectory( "targets" );
+        try {
+            writeTarget( directory.resolve( "a.bin" ), header( SECOND, 10000 ) );
+            writeTarget( directory.resolve( "b.bin" ), header( SECOND - 3600, 20000 ) );
+            Path manifest = directory.resolve( "manifest" );
+            Files.write( manifest, ("# one capture per line\n\na.bin " + TIMESPEC + "\n"
+                + directory.resolve( "b.bin" ) + " 2016-03-31T10:44:30+02:00\n").getBytes( StandardCharsets.UTF_8 ) );
+            assertEquals( 2, search( manifest.toString() ) );
+
+            Files.write( manifest, ("a.bin\n").getBytes( StandardCharsets.UTF_8 ) );
+            try {
+                search( manifest.toString() );
+                fail( "Accepted a line without timespec" );
+            } catch ( IOException e ) {
+                // expected
+            }
+        } finally {
+            delete( directory );
+        }
+    }
+
+    private static int search( String input )
+        throws IOException
+    {
+        CrackOptions options = CrackOptions.parse( new String[] { "--batch", "--hypotheses", "+00:00", "--window", "0:0",
+            "--progress", "0", "AES/CTR/NoPadding", TIMESPEC, input } );
+        return new MultiTargetSearch( options ).run( 100000, 2 );
+    }
+
+    private static byte[] header( long second, int usecs )
+        throws Exception
+    {
+        NetscapeKeygen keygen = new NetscapeKeygen( new MyFakeSystemImpl( second * Constants.USECS_PER_SECOND + usecs,
+            ZoneOffset.UTC ), "AES" );
+        keygen.makeKey();
+        return keygen.getIv();
+    }
+
+    private static void writeTarget( Path file, byte[] iv )
+        throws IOException
+    {
+        byte[] data = new byte[ iv.length + 100 ];
+        new Random( 1 ).nextBytes( data );
+        System.arraycopy( iv, 0, data, 0, iv.length );
+        Files.write( file, data );
+    }
+
+    private static void delete( Path directory )
+    {
+        for ( File file : directory.toFile().listFiles() ) {
+            file.delete();
+        }
+        directory.toFile().delete();
+    }
+}
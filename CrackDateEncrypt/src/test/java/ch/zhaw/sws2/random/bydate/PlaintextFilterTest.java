@@ -0,0 +1,70 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class PlaintextFilterTest
+{
+    private static final int BLOCK = BatchKeygen.BLOCK_BYTES;
+
+    @Test
+    public void acceptsAscii()
+    {
+        assertTrue( PlaintextFilter.isPlausible( bytes( "In dem Gedicht\r\n\tschildert der Autor" ), BLOCK ) );
+        // 2 of 16 control characters are tolerated, 3 are not
+        assertTrue( PlaintextFilter.isPlausible( bytes( "In dem \0Gedicht\0" ), BLOCK ) );
+        assertFalse( PlaintextFilter.isPlausible( bytes( "In dem\0\0Gedicht\0" ), BLOCK ) );
+    }
+
+    @Test
+    public void acceptsUtf8SplitAtBlockBoundary()
+    {
+        byte[] text = bytes( "Leiden der Juden \u00DCberlebender" );
+        assertTrue( PlaintextFilter.isPlausible( text, text.length ) );
+
+        // the two bytes of the U umlaut are split by the end of the first block
+        byte[] split = bytes( "Der KZ-Alltag: \u00DC" );
+        assertEquals( BLOCK + 1, split.length );
+        assertEquals( 0xC3, split[ BLOCK - 1 ] & 0xFF );
+        assertTrue( PlaintextFilter.isPlausible( split, BLOCK ) );
+        byte[] fourBytes = bytes( "Der KZ-Alltag \uD83D\uDE00" );
+        assertTrue( PlaintextFilter.isPlausible( fourBytes, BLOCK ) );
+    }
+
+    @Test
+    public void rejectsBinary()
+    {
+        Random random = new Random( 5 );
+        int accepted = 0;
+        byte[] block = new byte[ BLOCK ];
+        for ( int i = 0; i < 10000; i++ ) {
+            random.nextBytes( block );
+            if ( PlaintextFilter.isPlausible( block, BLOCK ) ) {
+                accepted++;
+            }
+        }
+        // about 40% of random bytes are plausible, so hardly any block passes
+        assertTrue( "Accepted: " + accepted, accepted < 10 );
+
+        // an image: the PNG signature and the start of its header chunk
+        byte[] png = { (byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R' };
+        assertFalse( PlaintextFilter.isPlausible( png, BLOCK ) );
+        // continuation bytes without a lead byte aren't UTF-8
+        byte[] continuations = bytes( "Der KZ-Alltag" + "\u00DC\u00DC" );
+        continuations[ 13 ] = (byte)0x9C;
+        continuations[ 15 ] = (byte)0x9C;
+        assertFalse( PlaintextFilter.isPlausible( continuations, BLOCK ) );
+    }
+
+    private static byte[] bytes( String text )
+    {
+        return text.getBytes( StandardCharsets.UTF_8 );
+    }
+}
@@ -0,0 +1,74 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ProcessIdRangesTest
+{
+    private static final long SECOND = 1459451671;
+
+    @Test
+    public void searchesDistinctTimeInputsOnly()
+    {
+        SecondRanges window = SecondRanges.of( SECOND - 4, SECOND + 5 );
+        SecondRanges timeInputs = new ProcessIdRanges( 100, 199, 7, 7 ).getTimeInputs( window );
+
+        assertEquals( 1, timeInputs.getRangeCount() );
+        assertEquals( 10 + 99, timeInputs.getSecondCount() );
+        assertEquals( SECOND - 4 + 100 + (7 << 12), timeInputs.getStart( 0 ) );
+    }
+
+    @Test
+    public void mergesTimeInputsOfAdjacentPpids()
+    {
+        SecondRanges timeInputs = new ProcessIdRanges( 0, 4095, 1, 2 ).getTimeInputs( SecondRanges.of( SECOND, SECOND ) );
+
+        assertEquals( 1, timeInputs.getRangeCount() );
+        assertEquals( 2 * 4096, timeInputs.getSecondCount() );
+        assertEquals( 1, ProcessIdRanges.NONE.getTimeInputs( SecondRanges.of( SECOND, SECOND ) ).getSecondCount() );
+    }
+
+    @Test
+    public void mapsHitBackToAllTriples()
+    {
+        ProcessIdRanges processIds = new ProcessIdRanges( 10, 12, 0, 1 );
+        SecondRanges window = SecondRanges.of( SECOND - 1, SECOND + 1 );
+        long timeInput = BatchKeygen.timeInput( SECOND, 11, 1 );
+
+        assertEquals( Arrays.asList( "ppid=1 pid=10..12 second=" + (SECOND + 1) + ".." + (SECOND - 1) ),
+            processIds.explain( window, timeInput ) );
+        assertEquals( 3, processIds.countTriples( window, timeInput ) );
+        assertEquals( 0, processIds.countTriples( window, SECOND ) );
+    }
+
+    @Test
+    public void timeInputDerivesKeyOfRealProcessIds()
+        throws Exception
+    {
+        int pid = 4711;
+        int ppid = 1234;
+        int usecs = 123456;
+        NetscapeKeygen keygen = new NetscapeKeygen( new MyFakeSystemImpl( SECOND * Constants.USECS_PER_SECOND + usecs, pid, ppid,
+            ZoneOffset.UTC ), "AES" );
+        keygen.makeKey();
+
+        ProcessIdRanges processIds = new ProcessIdRanges( 4000, 5000, 1230, 1239 );
+        SecondRanges window = SecondRanges.of( SECOND - 4, SECOND + 3 );
+        long timeInput = BatchKeygen.timeInput( SECOND, pid, ppid );
+        assertTrue( processIds.getTimeInputs( window ).contains( timeInput ) );
+        assertTrue( processIds.explain( window, timeInput ).contains( "ppid=1234 pid=4708..4715 second=" + (SECOND + 3) + ".."
+            + (SECOND - 4) ) );
+
+        byte[] ivs = new byte[ BatchKeygen.BLOCK_BYTES ];
+        byte[] keys = new byte[ BatchKeygen.BLOCK_BYTES ];
+        new BatchKeygen().derive( timeInput, usecs, 1, ivs, keys );
+        assertArrayEquals( keygen.getKey(), keys );
+    }
+}
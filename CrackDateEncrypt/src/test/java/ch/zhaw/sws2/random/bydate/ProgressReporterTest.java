@@ -0,0 +1,65 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ProgressReporterTest
+{
+    @Test
+    public void closePrintsFinalReport()
+        throws Exception
+    {
+        SearchMetrics metrics = new SearchMetrics( 1000, 10 );
+        metrics.register().add( SearchMetrics.Counter.KEYS_TESTED, 250 );
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( printed, true, "UTF-8" ) );
+        try {
+            new ProgressReporter( metrics, 0, null ).close();
+        } finally {
+            System.setOut( out );
+        }
+        String report = new String( printed.toByteArray(), StandardCharsets.UTF_8 );
+        assertTrue( report, report.startsWith( "Progress: 25.00% of the keyspace" ) );
+        assertEquals( 1, report.split( System.lineSeparator() ).length );
+    }
+
+    @Test
+    public void snapshotFileIsReplaced()
+        throws Exception
+    {
+        File directory = Files.createTempDirectory( "metrics" ).toFile();
+        File file = new File( directory, "metrics.json" );
+        try {
+            Files.write( file.toPath(), "{\"stale\":1}\n{\"stale\":2}\n".getBytes( StandardCharsets.UTF_8 ) );
+            SearchMetrics metrics = new SearchMetrics( 1000, 10 );
+            SearchMetrics.Counters counters = metrics.register();
+            counters.add( SearchMetrics.Counter.KEYS_TESTED, 100 );
+            new ProgressReporter( metrics, 0, file ).close();
+            counters.add( SearchMetrics.Counter.KEYS_TESTED, 200 );
+            new ProgressReporter( metrics, 0, file ).close();
+
+            List<String> lines = Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 );
+            assertEquals( 1, lines.size() );
+            assertTrue( lines.get( 0 ), lines.get( 0 ).contains( "\"keysTested\":300," ) );
+            // no temporary files are left behind
+            assertEquals( 1, directory.list().length );
+        } finally {
+            for ( File child : directory.listFiles() ) {
+                child.delete();
+            }
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ScorerChainTest
+{
+    private static final String SAMPLE = "Der Schl\u00fcssel wird aus der Uhrzeit und der Prozessnummer abgeleitet. "
+        + "Wer die ungef\u00e4hre Uhrzeit kennt, muss nur wenige Millionen Schl\u00fcssel ausprobieren, bis der Text lesbar wird. "
+        + "Die Verschl\u00fcsselung ist deshalb nicht sicherer als die Uhr, nach der sie sich richtet. "
+        + "Gro\u00dfe und kleine Buchstaben, Umlaute und Satzzeichen kommen in jedem deutschen Text vor.\n";
+
+    private static final String TEXT = "In dem Gedicht schildert der Autor die Leiden und die Sehns\u00fcchte der Menschen. "
+        + "Er verwendet zahlreiche Metaphern und Wiederholungen, au\u00dferdem einen unregelm\u00e4\u00dfigen Refrain.";
+
+    @Test
+    public void utf8StateMachineRejectsMalformedSequences()
+    {
+        Utf8Scorer scorer = new Utf8Scorer();
+        byte[] text = TEXT.getBytes( StandardCharsets.UTF_8 );
+        assertTrue( Double.isNaN( scorer.score( text, text.length ) ) );
+        byte[] cutOff = "Schl\u00fc".getBytes( StandardCharsets.UTF_8 );
+        assertTrue( Double.isNaN( scorer.score( cutOff, cutOff.length - 1 ) ) );
+        assertTrue( Double.isNaN( scorer.score( new byte[] { (byte)0xF4, (byte)0x8F, (byte)0xBF, (byte)0xBF }, 4 ) ) );
+
+        // overlong, surrogate, above U+10FFFF, stray continuation byte
+        for ( byte[] malformed : new byte[][] { { (byte)0xC0, (byte)0x80 }, { (byte)0xED, (byte)0xA0, (byte)0x80 },
+            { (byte)0xF4, (byte)0x90, (byte)0x80, (byte)0x80 }, { 'a', (byte)0x80 } } ) {
+            assertEquals( Scorer.REJECT, scorer.score( malformed, malformed.length ), 0 );
+        }
+        assertEquals( Scorer.REJECT, scorer.scoreStart( random( 1 ), BatchKeygen.BLOCK_BYTES ), 0 );
+    }
+
+    @Test
+    public void bigramsRateTextOfSampleLanguageFarBelowRandomData()
+    {
+        BigramScorer scorer = new BigramScorer( Collections.singletonList( SAMPLE.getBytes( StandardCharsets.UTF_8 ) ) );
+        byte[] text = TEXT.getBytes( StandardCharsets.UTF_8 );
+        double textRating = scorer.score( text, text.length );
+        double randomRating = scorer.score( random( 2 ), Crack.DECRYPT_MAX_BYTES );
+
+        assertTrue( "Text: " + textRating, textRating < BruteForcer.RATING_THRESHOLD_TO_STOP_SEARCHING + 5 );
+        assertTrue( "Random: " + randomRating, randomRating > 10 );
+    }
+
+    @Test
+    public void magicNumbersAreVerified()
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( bytes ) ) {
+            gzip.write( SAMPLE.getBytes( StandardCharsets.UTF_8 ) );
+        }
+        byte[] gzipped = bytes.toByteArray();
+        MagicScorer scorer = new MagicScorer();
+        assertEquals( Scorer.CERTAIN, scorer.scoreStart( gzipped, BatchKeygen.BLOCK_BYTES ), 0 );
+        assertEquals( Scorer.CERTAIN, scorer.score( gzipped, gzipped.length ), 0 );
+
+        byte[] garbage = random( 3 );
+        System.arraycopy( gzipped, 0, garbage, 0, 10 );
+        assertEquals( Scorer.REJECT, scorer.score( garbage, garbage.length ), 0 );
+        byte[] pdf = "%PDF-1.7\n%\u00e2\u00e3".getBytes( StandardCharsets.ISO_8859_1 );
+        assertEquals( Scorer.CERTAIN, scorer.score( pdf, pdf.length ), 0 );
+        assertTrue( Double.isNaN( scorer.score( SAMPLE.getBytes( StandardCharsets.UTF_8 ), 100 ) ) );
+    }
+
+    @Test
+    public void firstOpinionRatesCheapestFirst()
+        throws IOException
+    {
+        ScorerChain chain = new ScorerChain( Arrays.asList( new MagicScorer(), new Utf8Scorer() ) );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( bytes ) ) {
+            gzip.write( SAMPLE.getBytes( StandardCharsets.UTF_8 ) );
+        }
+        byte[] text = TEXT.getBytes( StandardCharsets.UTF_8 );
+
+        assertEquals( Scorer.CERTAIN, chain.score( bytes.toByteArray(), bytes.size() ), 0 );
+        assertEquals( Scorer.REJECT, chain.score( random( 4 ), Crack.DECRYPT_MAX_BYTES ), 0 );
+        // the entropy is appended to rate well-formed text
+        assertEquals( new EntropyScorer().score( text, text.length ), chain.score( text, text.length ), 0 );
+        assertTrue( Double.isNaN( chain.scoreStart( text, BatchKeygen.BLOCK_BYTES ) ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void rejectsUnknownScorer()
+    {
+        ScorerChain.parse( "magic,words" );
+    }
+
+    private static byte[] random( long seed )
+    {
+        byte[] data = new byte[ Crack.DECRYPT_MAX_BYTES ];
+        new Random( seed ).nextBytes( data );
+        return data;
+    }
+}
@@ -0,0 +1,66 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SearchMetricsTest
+{
+    @Test
+    public void snapshotSumsCountersOfAllThreads()
+        throws InterruptedException
+    {
+        SearchMetrics metrics = new SearchMetrics( 1000000, 100 );
+        List<Thread> threads = new ArrayList<>();
+        for ( int t = 0; t < 4; t++ ) {
+            Thread thread = new Thread( () -> {
+                SearchMetrics.Counters counters = metrics.register();
+                for ( int i = 0; i < 10000; i++ ) {
+                    counters.add( SearchMetrics.Counter.KEYS_TESTED, 5 );
+                    counters.add( SearchMetrics.Counter.RATED, 1 );
+                }
+                counters.add( SearchMetrics.Counter.CHUNKS_DONE, 1 );
+            } );
+            threads.add( thread );
+            thread.start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+
+        SearchMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals( 4 * 10000 * 5, snapshot.get( SearchMetrics.Counter.KEYS_TESTED ) );
+        assertEquals( 4 * 10000, snapshot.get( SearchMetrics.Counter.RATED ) );
+        assertEquals( 4, snapshot.get( SearchMetrics.Counter.CHUNKS_DONE ) );
+        assertEquals( 0, snapshot.get( SearchMetrics.Counter.ABANDONED ) );
+        assertEquals( 20, snapshot.getPercentDone(), 1e-9 );
+    }
+
+    @Test
+    public void jsonHoldsTotalsAndCounters()
+    {
+        SearchMetrics metrics = new SearchMetrics( 2000, 20 );
+        SearchMetrics.Counters counters = metrics.register();
+        counters.add( SearchMetrics.Counter.KEYS_TESTED, 500 );
+        counters.add( SearchMetrics.Counter.FIRST_STAGE_PASSED, 7 );
+        counters.add( SearchMetrics.Counter.PUBLISHED, 2 );
+        counters.add( SearchMetrics.Counter.CHUNKS_DONE, 5 );
+
+        String json = metrics.snapshot().toJson();
+        assertTrue( json, json.startsWith( "{" ) && json.endsWith( "}" ) );
+        assertTrue( json, json.contains( "\"totalKeys\":2000," ) );
+        assertTrue( json, json.contains( "\"totalChunks\":20," ) );
+        assertTrue( json, json.contains( "\"keysTested\":500," ) );
+        assertTrue( json, json.contains( "\"firstStagePassed\":7," ) );
+        assertTrue( json, json.contains( "\"abandoned\":0," ) );
+        assertTrue( json, json.contains( "\"rated\":0," ) );
+        assertTrue( json, json.contains( "\"published\":2," ) );
+        assertTrue( json, json.contains( "\"chunksDone\":5," ) );
+        assertTrue( json, json.contains( "\"percentDone\":25.0000," ) );
+    }
+}
@@ -1,23 +1,31 @@
 package ch.zhaw.sws2.random.bydate;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidParameterSpecException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -26,10 +34,14 @@ import javax.crypto.spec.SecretKeySpec;
 /**
  * Encrypts or decrypts a file using the provided parameters
  * <p>
- * <p>Usage: ByDate encrypt|decrypt cipher timespec usec in out</p>
+ * <p>Usage: ByDate encrypt|decrypt cipher timespec usec in out
+ * or ByDate range cipher timespec usec in out from to</p>
  * <p>
  * <p>encrypt  encrypt the input file
  * decrypt  decrypt the input file
+ * range    decrypt the bytes from (inclusive) to to (exclusive) of the
+ * plaintext of the input file, which must be encrypted in CTR
+ * mode; see {@link #decryptRange(String, MySystem, FileChannel, long, int)}
  * cipher   a cipher specification like DES/CBC/NoPadding
  * timespec a local date and time in the form 2011-12-03T10:15:30+01:00,
  * i.e., a date and time with an integer time zone offset. In this
@@ -42,7 +54,24 @@ import javax.crypto.spec.SecretKeySpec;
  * any point cannot be read.
  * out      name of the output file.  Preexisting files are silently
  * overwritten.  It is a fatal error if the file cannot be opened
- * for writing or at any point cannot be written.</p>
+ * for writing or at any point cannot be written.
+ * from     offset of the first plaintext byte of the range
+ * to       offset after the last plaintext byte of the range; the
+ * range ends at the end of the file at the latest</p>
+ * <p>
+ * <p>The files are read and written through {@link FileChannel}s with
+ * large direct buffers, which the cipher processes with
+ * {@link Cipher#update(ByteBuffer, ByteBuffer)} without copying them
+ * into arrays, so large files are processed at the speed of the cipher.
+ * The IV header goes through the same channels.</p>
+ * <p>
+ * <p>CTR files are processed in segments of {@link #BUFFER_SIZE} bytes
+ * on all cores, if there is more than one. The counter of block n of
+ * a file is IV + n, so every segment is processed on its own, starting
+ * with the counter of its first block, and written to its offset of
+ * the output file. The output is the same as if the file was processed
+ * from start to end. For the same reason, a range of a CTR file is
+ * decrypted without touching the data before it.</p>
  *
  * @author Stephan Neuhaus &lt;stephan.neuhaus@zhaw.ch&gt;
  * @author Bernhard Tellenbach &lt;tebe@zhaw.ch&gt;
@@ -53,14 +82,19 @@ public class ByDate
 {
     enum Mode
     {
-        ENCRYPT, DECRYPT
+        ENCRYPT, DECRYPT, RANGE
     }
 
 
     /**
      * Buffer size used for encryption/decryption
      */
-    private static final int BUFFER_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Number of threads processing CTR files
+     */
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
 
     private Mode     mode;
     private String   cipherSpec;
@@ -68,18 +102,34 @@ public class ByDate
     private String   infileName;
     private String   outfileName;
     private MySystem system;
+    private long     rangeFrom;
+    private long     rangeTo;
 
     private ByDate( String modeString, String cipherSpec, MySystem system, String infileName, String outfileName )
         throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException
+    {
+        this( modeString, cipherSpec, system, infileName, outfileName, 0, Long.MAX_VALUE );
+    }
+
+    private ByDate( String modeString, String cipherSpec, MySystem system, String infileName, String outfileName, long rangeFrom,
+                    long rangeTo )
+        throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException
     {
         if ( "encrypt".startsWith( modeString ) ) {
             mode = Mode.ENCRYPT;
         } else if ( "decrypt".startsWith( modeString ) ) {
             mode = Mode.DECRYPT;
+        } else if ( "range".startsWith( modeString ) ) {
+            mode = Mode.RANGE;
         } else {
-            throw new IllegalArgumentException( String.format( "First argument must be a prefix of either " + "\"encrypt\" or \"decrypt\", got %s", modeString ) );
+            throw new IllegalArgumentException( String.format( "First argument must be a prefix of either " + "\"encrypt\", \"decrypt\" or \"range\", got %s", modeString ) );
         }
-        assert mode == Mode.DECRYPT || mode == Mode.ENCRYPT;
+        if ( rangeFrom < 0 || rangeTo < rangeFrom ) {
+            throw new IllegalArgumentException( String.format( "Invalid range %d to %d", rangeFrom, rangeTo ) );
+        }
+        assert mode == Mode.DECRYPT || mode == Mode.ENCRYPT || mode == Mode.RANGE;
+        this.rangeFrom = rangeFrom;
+        this.rangeTo = rangeTo;
 
         printInterceptTime( system.getDateTime(), TimeZone.getTimeZone( "Europe/Zurich" ), infileName );
 
@@ -100,15 +150,19 @@ public class ByDate
         throws IllegalStateException, IOException, InvalidKeyException, InvalidAlgorithmParameterException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException
     {
         try (
-            FileInputStream is = new FileInputStream( new File( infileName ) );
-            FileOutputStream os = new FileOutputStream( new File( outfileName ) ) ) {
+            FileChannel in = FileChannel.open( Paths.get( infileName ), StandardOpenOption.READ );
+            FileChannel out = FileChannel.open( Paths.get( outfileName ), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING ) ) {
 
             switch ( mode ) {
                 case ENCRYPT:
-                    encryptFile( is, os );
+                    encryptFile( in, out );
                     break;
                 case DECRYPT:
-                    decryptFile( is, os );
+                    decryptFile( in, out );
+                    break;
+                case RANGE:
+                    decryptRangeToFile( in, out );
                     break;
                 default:
                     throw new IllegalStateException( "Unknown mode of operation: " + mode.toString() );
@@ -121,7 +175,7 @@ public class ByDate
         return cipherSpec.split( "/" )[ 0 ];
     }
 
-    private void encryptFile( InputStream is, OutputStream os )
+    private void encryptFile( FileChannel in, FileChannel out )
         throws NoSuchAlgorithmException, InvalidParameterSpecException, NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException, IOException
     {
         NetscapeKeygen keygen = new NetscapeKeygen( system, cipherAlgorithm );
@@ -139,12 +193,16 @@ public class ByDate
         assert cipher.getBlockSize() > 0;
         assert cipher.getBlockSize() == keygen.getIv().length;
 
-        os.write( keygen.getIv() );
-        os.flush();
-        processStream( is, os, cipher );
+        writeFully( out, ByteBuffer.wrap( keygen.getIv() ) );
+        if ( isCtr() && THREADS > 1 ) {
+            processCtrSegments( cipherSpec, Cipher.ENCRYPT_MODE, skeySpec, keygen.getIv(), in, 0, out, keygen.getIv().length,
+                THREADS, BUFFER_SIZE );
+        } else {
+            processChannel( in, out, cipher );
+        }
     }
 
-    private void decryptFile( InputStream is, OutputStream os )
+    private void decryptFile( FileChannel in, FileChannel out )
         throws NoSuchAlgorithmException, InvalidParameterSpecException, NoSuchPaddingException, InvalidKeyException, InvalidAlgorithmParameterException, IOException
     {
         NetscapeKeygen keygen = new NetscapeKeygen( system, cipherAlgorithm );
@@ -167,10 +225,19 @@ public class ByDate
         if ( isModeRequiringIv() ) {
             // We have an IV. Ignore the IV that we read because
             // we generated it already from time of day, pid, ppid, and so on.
-            byte[] newIv = new byte[ cipher.getBlockSize() ];
-            is.read( newIv, 0, newIv.length );
+            ByteBuffer newIv = ByteBuffer.allocate( cipher.getBlockSize() );
+            while ( newIv.hasRemaining() ) {
+                if ( in.read( newIv ) < 0 ) {
+                    throw new EOFException( "File too short to contain an IV header" );
+                }
+            }
+        }
+        if ( isCtr() && THREADS > 1 ) {
+            processCtrSegments( cipherSpec, Cipher.DECRYPT_MODE, skeySpec, keygen.getIv(), in, cipher.getBlockSize(), out, 0,
+                THREADS, BUFFER_SIZE );
+        } else {
+            processChannel( in, out, cipher );
         }
-        processStream( is, os, cipher );
     }
 
     private boolean isModeRequiringIv()
@@ -178,21 +245,229 @@ public class ByDate
         return cipherSpec.contains( "CBC" ) || cipherSpec.contains( "CTR" ) || cipherSpec.contains( "GCM" );
     }
 
-    private void processStream( InputStream is, OutputStream os, Cipher cipher )
+    private boolean isCtr()
+    {
+        return cipherSpec.contains( "CTR" );
+    }
+
+    /**
+     * Passes the rest of the input through the cipher,
+     * {@link #BUFFER_SIZE} bytes at a time.
+     */
+    private void processChannel( FileChannel in, FileChannel out, Cipher cipher )
         throws IOException
     {
-        try ( CipherInputStream cis = new CipherInputStream( is, cipher ) ) {
-            byte[] buffer = new byte[ BUFFER_SIZE ];
+        ByteBuffer input = ByteBuffer.allocateDirect( BUFFER_SIZE );
+        ByteBuffer output = ByteBuffer.allocateDirect( cipher.getOutputSize( BUFFER_SIZE ) );
+        try {
+            while ( in.read( input ) >= 0 ) {
+                input.flip();
+                output = ensureCapacity( output, cipher.getOutputSize( input.remaining() ) );
+                cipher.update( input, output );
+                output.flip();
+                writeFully( out, output );
+                output.clear();
+                input.compact();
+            }
+            input.flip();
+            // modes like GCM decryption hold back the data until the end
+            output = ensureCapacity( output, cipher.getOutputSize( input.remaining() ) );
+            cipher.doFinal( input, output );
+            output.flip();
+            writeFully( out, output );
+        } catch ( GeneralSecurityException e ) {
+            throw new IOException( e );
+        }
+    }
 
-            int bytesRead = cis.read( buffer );
-            while ( bytesRead != -1 ) {
-                os.write( buffer, 0, bytesRead );
-                bytesRead = cis.read( buffer );
+    /**
+     * Passes the input from inOffset on through the cipher in CTR mode.
+     * Every thread takes the next segment until all are done.
+     *
+     * @param cipherSpec  cipher specification like AES/CTR/NoPadding
+     * @param opmode      {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key         key
+     * @param iv          IV, the counter of the first block
+     * @param in          input file
+     * @param inOffset    offset of the data in the input file
+     * @param out         output file
+     * @param outOffset   offset of the data in the output file
+     * @param threads     number of threads
+     * @param segmentSize number of bytes per segment, a multiple of the block size
+     * @throws IOException if the files can't be read or written
+     */
+    static void processCtrSegments( String cipherSpec, int opmode, SecretKeySpec key, byte[] iv, FileChannel in, long inOffset,
+                                    FileChannel out, long outOffset, int threads, int segmentSize )
+        throws IOException
+    {
+        if ( threads <= 0 || segmentSize <= 0 || segmentSize % iv.length != 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid %d threads or segments of %d bytes", threads,
+                segmentSize ) );
+        }
+        long length = in.size() - inOffset;
+        long segments = (length + segmentSize - 1) / segmentSize;
+        AtomicLong nextSegment = new AtomicLong();
+        int workerCount = (int)Math.min( threads, segments );
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, workerCount ) );
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for ( int i = 0; i < workerCount; i++ ) {
+                workers.add( executor.submit( () -> {
+                    Cipher cipher = Cipher.getInstance( cipherSpec );
+                    ByteBuffer input = ByteBuffer.allocateDirect( segmentSize );
+                    ByteBuffer output = ByteBuffer.allocateDirect( segmentSize );
+                    for ( long segment = nextSegment.getAndIncrement(); segment < segments;
+                          segment = nextSegment.getAndIncrement() ) {
+                        long start = segment * segmentSize;
+                        input.clear().limit( (int)Math.min( segmentSize, length - start ) );
+                        output.clear();
+                        cipher.init( opmode, key, new IvParameterSpec( getCounter( iv, start / iv.length ) ) );
+                        processCtrSegment( in, inOffset + start, out, outOffset + start, cipher, input, output );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<Void> worker : workers ) {
+                worker.get();
             }
-            os.close();
-        } catch ( IOException e ) {
-            e.printStackTrace();
-            throw e;
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof IOException ) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException( e.getCause() );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while processing the file" );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads input.limit() bytes at inPosition, passes them through the
+     * initialised cipher and writes them at outPosition.
+     */
+    private static void processCtrSegment( FileChannel in, long inPosition, FileChannel out, long outPosition, Cipher cipher,
+                                           ByteBuffer input, ByteBuffer output )
+        throws IOException, GeneralSecurityException
+    {
+        readFully( in, input, inPosition );
+        input.flip();
+        cipher.doFinal( input, output );
+        output.flip();
+        while ( output.hasRemaining() ) {
+            out.write( output, outPosition + output.position() );
+        }
+    }
+
+    private void decryptRangeToFile( FileChannel in, FileChannel out )
+        throws IOException
+    {
+        for ( long from = rangeFrom; from < rangeTo; from += BUFFER_SIZE ) {
+            byte[] plaintext = decryptRange( cipherSpec, system, in, from, (int)Math.min( BUFFER_SIZE, rangeTo - from ) );
+            writeFully( out, ByteBuffer.wrap( plaintext ) );
+            if ( plaintext.length < BUFFER_SIZE ) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Decrypts a range of a file encrypted in CTR mode, reading only
+     * the blocks of the range. The counter of the first block of the
+     * range is the IV plus its block number, see
+     * {@link #getCounter(byte[], long)}.
+     *
+     * @param cipherSpec cipher specification like AES/CTR/NoPadding
+     * @param system     system the file was encrypted on, e.g. the
+     *                   second and microsecond of a cracked key
+     * @param in         the encrypted file, starting with the IV header
+     * @param from       offset of the first plaintext byte of the range
+     * @param length     number of bytes of the range
+     * @return the plaintext of the range, shorter than length if the
+     * file ends within the range
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the cipher is not in CTR mode or the range is invalid
+     */
+    public static byte[] decryptRange( String cipherSpec, MySystem system, FileChannel in, long from, int length )
+        throws IOException
+    {
+        if ( !cipherSpec.contains( "CTR" ) ) {
+            throw new IllegalArgumentException( String.format( "Ranges can only be decrypted in CTR mode, got %s", cipherSpec ) );
+        }
+        if ( from < 0 || length < 0 ) {
+            throw new IllegalArgumentException( String.format( "Invalid range of %d bytes from %d", length, from ) );
+        }
+        try {
+            NetscapeKeygen keygen = new NetscapeKeygen( system, cipherSpec.split( "/" )[ 0 ] );
+            keygen.makeKey();
+            byte[] iv = keygen.getIv();
+            long block = from / iv.length;
+            int skip = (int)(from % iv.length);
+            long available = in.size() - iv.length - from;
+            if ( available <= 0 ) {
+                return new byte[ 0 ];
+            }
+            ByteBuffer input = ByteBuffer.allocate( skip + (int)Math.min( length, available ) );
+            readFully( in, input, iv.length + block * iv.length );
+
+            Cipher cipher = Cipher.getInstance( cipherSpec );
+            cipher.init( Cipher.DECRYPT_MODE, keygen.getSecretKeySpec(), new IvParameterSpec( getCounter( iv, block ) ) );
+            byte[] plaintext = cipher.doFinal( input.array() );
+            return Arrays.copyOfRange( plaintext, skip, plaintext.length );
+        } catch ( GeneralSecurityException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Adds a block number to a CTR counter, like the cipher does when
+     * it moves on from block to block.
+     *
+     * @param iv    counter of block 0, big endian
+     * @param block number of the block
+     * @return counter of the block, iv + block modulo 2^(8 * iv.length)
+     */
+    static byte[] getCounter( byte[] iv, long block )
+    {
+        byte[] counter = Arrays.copyOf( iv, iv.length );
+        long carry = block;
+        for ( int i = counter.length - 1; i >= 0 && carry != 0; i-- ) {
+            long sum = (counter[ i ] & 0xFF) + (carry & 0xFF);
+            counter[ i ] = (byte)sum;
+            carry = (carry >>> 8) + (sum >>> 8);
+        }
+        return counter;
+    }
+
+    /**
+     * @return the buffer, or a larger one if it can't hold size bytes
+     */
+    private static ByteBuffer ensureCapacity( ByteBuffer buffer, int size )
+    {
+        // grows geometrically, as GCM decryption asks for room for all data so far
+        return buffer.capacity() >= size ? buffer : ByteBuffer.allocateDirect( Math.max( size, 2 * buffer.capacity() ) );
+    }
+
+    /**
+     * Fills the buffer from the given position of the file on.
+     */
+    private static void readFully( FileChannel in, ByteBuffer buffer, long position )
+        throws IOException
+    {
+        long start = position - buffer.position();
+        while ( buffer.hasRemaining() ) {
+            if ( in.read( buffer, start + buffer.position() ) < 0 ) {
+                throw new EOFException( "File truncated while reading it" );
+            }
+        }
+    }
+
+    private static void writeFully( FileChannel out, ByteBuffer buffer )
+        throws IOException
+    {
+        while ( buffer.hasRemaining() ) {
+            out.write( buffer );
         }
     }
 
@@ -211,14 +486,17 @@ public class ByDate
     public static void main( String[] args )
         throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidParameterSpecException, InvalidKeyException, IllegalStateException, InvalidAlgorithmParameterException, IOException
     {
-        if ( args.length != 6 ) {
-            throw new IllegalArgumentException( String.format( "Need 6 arguments, got %d", args.length ) );
+        boolean range = args.length > 0 && !args[ 0 ].isEmpty() && "range".startsWith( args[ 0 ] );
+        int expected = range ? 8 : 6;
+        if ( args.length != expected ) {
+            throw new IllegalArgumentException( String.format( "Need %d arguments, got %d", expected, args.length ) );
         }
         ZonedDateTime date = ZonedDateTime.parse( args[ 2 ] );
         long usecOffset = Long.parseLong( args[ 3 ] );
 
         MyFakeSystemImpl system = new MyFakeSystemImpl( date.toEpochSecond() * Constants.USECS_PER_SECOND + usecOffset, date.getZone() );
-        ByDate byDate = new ByDate( args[ 0 ], args[ 1 ], system, args[ 4 ], args[ 5 ] );
+        ByDate byDate = range ? new ByDate( args[ 0 ], args[ 1 ], system, args[ 4 ], args[ 5 ], Long.parseLong( args[ 6 ] ),
+            Long.parseLong( args[ 7 ] ) ) : new ByDate( args[ 0 ], args[ 1 ], system, args[ 4 ], args[ 5 ] );
         byDate.work();
     }
 }
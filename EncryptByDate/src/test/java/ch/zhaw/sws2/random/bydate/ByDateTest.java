@@ -0,0 +1,273 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class ByDateTest
+{
+    private static final String TIMESPEC = "2016-03-31T11:44:30+02:00";
+    private static final int    USECS    = 10000;
+
+    /**
+     * The modes ByDate can set up with the AES key and IV of
+     * {@link NetscapeKeygen}: ECB takes no IV and GCM needs other
+     * parameters than an IvParameterSpec
+     */
+    private static final String[] CIPHER_SPECS = { "AES/CBC/PKCS5Padding", "AES/CTR/NoPadding" };
+
+    /**
+     * Empty, shorter than a block, and more than two buffers of ByDate
+     * ending in a partial block
+     */
+    private static final int[] LENGTHS = { 0, 5, 2 * (1 << 20) + 1003 };
+
+    @Test
+    public void roundTripMatchesStreamImplementation()
+        throws Exception
+    {
+        Random random = new Random( 22 );
+        for ( String cipherSpec : CIPHER_SPECS ) {
+            for ( int length : LENGTHS ) {
+                byte[] plaintext = new byte[ length ];
+                random.nextBytes( plaintext );
+                String message = cipherSpec + ", " + length + " bytes";
+
+                byte[] ciphertext = run( "encrypt", cipherSpec, plaintext );
+                assertArrayEquals( message, encryptWithStream( cipherSpec, plaintext ), ciphertext );
+                assertArrayEquals( message, plaintext, run( "decrypt", cipherSpec, ciphertext ) );
+            }
+        }
+    }
+
+    @Test
+    public void ctrSegmentsMatchSingleCipher()
+        throws Exception
+    {
+        Random random = new Random( 23 );
+        byte[] keyBytes = new byte[ 16 ];
+        random.nextBytes( keyBytes );
+        SecretKeySpec key = new SecretKeySpec( keyBytes, "AES" );
+        // the counter carries over two bytes within the file
+        byte[] iv = new byte[ 16 ];
+        random.nextBytes( iv );
+        iv[ 13 ] = (byte)0xFF;
+        iv[ 14 ] = (byte)0xFF;
+        iv[ 15 ] = (byte)0xF8;
+        // 5 segments of 4 blocks, the last one ends in a partial block
+        byte[] header = { 1, 2, 3 };
+        byte[] plaintext = new byte[ 4 * 64 + 37 ];
+        random.nextBytes( plaintext );
+
+        Cipher cipher = Cipher.getInstance( "AES/CTR/NoPadding" );
+        cipher.init( Cipher.ENCRYPT_MODE, key, new IvParameterSpec( iv ) );
+        byte[] expected = cipher.doFinal( plaintext );
+
+        File in = File.createTempFile( "segments", ".in" );
+        File out = File.createTempFile( "segments", ".out" );
+        try {
+            byte[] input = Arrays.copyOf( header, header.length + plaintext.length );
+            System.arraycopy( plaintext, 0, input, header.length, plaintext.length );
+            Files.write( in.toPath(), input );
+            for ( int threads : new int[] { 1, 3 } ) {
+                try (
+                    FileChannel inChannel = FileChannel.open( in.toPath(), StandardOpenOption.READ );
+                    FileChannel outChannel = FileChannel.open( out.toPath(), StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING ) ) {
+                    ByDate.processCtrSegments( "AES/CTR/NoPadding", Cipher.ENCRYPT_MODE, key, iv, inChannel, header.length,
+                        outChannel, 0, threads, 64 );
+                }
+                assertArrayEquals( threads + " threads", expected, Files.readAllBytes( out.toPath() ) );
+            }
+        } finally {
+            in.delete();
+            out.delete();
+        }
+    }
+
+    @Test
+    public void counterCarriesAcrossBytes()
+    {
+        byte[] iv = new byte[ 16 ];
+        iv[ 0 ] = 0x7F;
+        iv[ 13 ] = 0x01;
+        iv[ 14 ] = (byte)0xFF;
+        iv[ 15 ] = (byte)0xFE;
+
+        byte[] expected = iv.clone();
+        expected[ 13 ] = 0x02;
+        expected[ 14 ] = 0x00;
+        expected[ 15 ] = 0x00;
+        assertArrayEquals( expected, ByDate.getCounter( iv, 2 ) );
+        // the block number has more than one byte: 0x01fffe + 0x100000103 = 0x100020101
+        expected[ 11 ] = 0x01;
+        expected[ 13 ] = 0x02;
+        expected[ 14 ] = 0x01;
+        expected[ 15 ] = 0x01;
+        assertArrayEquals( expected, ByDate.getCounter( iv, 0x1_0000_0103L ) );
+        assertArrayEquals( iv, ByDate.getCounter( iv, 0 ) );
+
+        // wraps around like the counter of the cipher
+        byte[] last = new byte[ 16 ];
+        Arrays.fill( last, (byte)0xFF );
+        assertArrayEquals( new byte[ 16 ], ByDate.getCounter( last, 1 ) );
+    }
+
+    @Test
+    public void decryptsRangesLikeWholeFile()
+        throws Exception
+    {
+        Random random = new Random( 24 );
+        byte[] plaintext = new byte[ 300 * 16 + 9 ];
+        random.nextBytes( plaintext );
+        byte[] ciphertext = run( "encrypt", "AES/CTR/NoPadding", plaintext );
+        // the first block whose counter carries into the second to last byte
+        int carryBlock = 256 - (ciphertext[ 15 ] & 0xFF);
+
+        File file = File.createTempFile( "range", ".in" );
+        try {
+            Files.write( file.toPath(), ciphertext );
+            try ( FileChannel in = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+                long[][] ranges = {
+                    // starts mid-block
+                    { 21, 40 },
+                    // crosses the carry
+                    { carryBlock * 16 - 5, 37 },
+                    // reaches the end of the file
+                    { plaintext.length - 20, 20 },
+                    { plaintext.length - 20, 1000 },
+                    { 0, plaintext.length },
+                    { 7, 0 },
+                    // starts at or after the end of the file
+                    { plaintext.length, 10 },
+                    { plaintext.length + 100, 10 } };
+                for ( long[] range : ranges ) {
+                    int from = (int)Math.min( range[ 0 ], plaintext.length );
+                    int to = (int)Math.min( range[ 0 ] + range[ 1 ], plaintext.length );
+                    assertArrayEquals( Arrays.toString( range ), Arrays.copyOfRange( plaintext, from, to ),
+                        ByDate.decryptRange( "AES/CTR/NoPadding", createSystem(), in, range[ 0 ], (int)range[ 1 ] ) );
+                }
+                assertInvalidRange( "AES/CTR/NoPadding", in, -1, 10 );
+                assertInvalidRange( "AES/CTR/NoPadding", in, 10, -1 );
+                assertInvalidRange( "AES/CBC/PKCS5Padding", in, 0, 10 );
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void rangeModeWritesRangeOfPlaintext()
+        throws Exception
+    {
+        Random random = new Random( 24 );
+        byte[] plaintext = new byte[ 2 * (1 << 20) + 1003 ];
+        random.nextBytes( plaintext );
+        byte[] ciphertext = run( "encrypt", "AES/CTR/NoPadding", plaintext );
+
+        assertArrayEquals( Arrays.copyOfRange( plaintext, 1000005, 1000100 ),
+            run( "range", "AES/CTR/NoPadding", ciphertext, "1000005", "1000100" ) );
+        // across buffers up to the end of the file
+        int from = (1 << 20) - 10;
+        assertArrayEquals( Arrays.copyOfRange( plaintext, from, plaintext.length ),
+            run( "range", "AES/CTR/NoPadding", ciphertext, Integer.toString( from ), Long.toString( Long.MAX_VALUE ) ) );
+        assertEquals( 0, run( "range", "AES/CTR/NoPadding", ciphertext, "3000000", "3000010" ).length );
+        for ( String[] range : new String[][] { { "10", "9" }, { "-1", "10" } } ) {
+            try {
+                run( "range", "AES/CTR/NoPadding", ciphertext, range );
+                fail( "Accepted range " + Arrays.toString( range ) );
+            } catch ( IllegalArgumentException e ) {
+                // expected
+            }
+        }
+    }
+
+    private static void assertInvalidRange( String cipherSpec, FileChannel in, long from, int length )
+        throws IOException
+    {
+        try {
+            ByDate.decryptRange( cipherSpec, createSystem(), in, from, length );
+            fail( String.format( "Accepted %d bytes from %d with %s", length, from, cipherSpec ) );
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+    }
+
+    /**
+     * Runs ByDate on the data and returns its output.
+     *
+     * @param range from and to of the range mode
+     */
+    private static byte[] run( String mode, String cipherSpec, byte[] data, String... range )
+        throws Exception
+    {
+        File in = File.createTempFile( "bydate", ".in" );
+        File out = File.createTempFile( "bydate", ".out" );
+        try {
+            Files.write( in.toPath(), data );
+            String[] args = Arrays.copyOf( new String[] { mode, cipherSpec, TIMESPEC, Integer.toString( USECS ), in.getPath(),
+                out.getPath() }, 6 + range.length );
+            System.arraycopy( range, 0, args, 6, range.length );
+            ByDate.main( args );
+            return Files.readAllBytes( out.toPath() );
+        } finally {
+            in.delete();
+            out.delete();
+        }
+    }
+
+    /**
+     * Encrypts the data the way ByDate did before it used channels: the
+     * IV, followed by the data read through a {@link CipherInputStream}.
+     */
+    private static byte[] encryptWithStream( String cipherSpec, byte[] plaintext )
+        throws Exception
+    {
+        NetscapeKeygen keygen = new NetscapeKeygen( createSystem(), cipherSpec.split( "/" )[ 0 ] );
+        keygen.makeKey();
+        Cipher cipher = Cipher.getInstance( cipherSpec );
+        cipher.init( Cipher.ENCRYPT_MODE, keygen.getSecretKeySpec(), new IvParameterSpec( keygen.getIv() ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write( keygen.getIv() );
+        try ( InputStream in = new CipherInputStream( new ByteArrayInputStream( plaintext ), cipher ) ) {
+            copy( in, out );
+        }
+        return out.toByteArray();
+    }
+
+    private static MySystem createSystem()
+    {
+        ZonedDateTime date = ZonedDateTime.parse( TIMESPEC );
+        return new MyFakeSystemImpl( date.toEpochSecond() * Constants.USECS_PER_SECOND + USECS, date.getZone() );
+    }
+
+    private static void copy( InputStream in, ByteArrayOutputStream out )
+        throws IOException
+    {
+        byte[] buffer = new byte[ 1024 ];
+        int read;
+        while ( (read = in.read( buffer )) != -1 ) {
+            out.write( buffer, 0, read );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+/** Batch version of the {@link NetscapeKeygen}.
+ *
+ * <p>Derives the ivs and keys for a run of consecutive microseconds
+ * into caller-owned arrays. The output is bit for bit the same as
+ * calling {@link NetscapeKeygen#makeKey()} for each microsecond, but
+ * nothing is allocated per candidate: the digest and the scratch
+ * buffers belong to the instance and mixbits of all microsecond
+ * values is looked up in a precomputed table.</p>
+ *
+ * <p>The seeds, ivs and keys of up to {@link #CHUNK} microseconds are
+ * digested together by a {@link MultiBufferMd5}, which uses SIMD lanes
+ * where the JVM supports them. Seeds are kept as MD5 words, so only
+ * the ivs and keys are ever converted to bytes.</p>
+ *
+ * <p>Instances are not thread safe; use {@link #forCurrentThread()}
+ * to get the instance of the calling thread.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public class BatchKeygen {
+  /** Number of bytes of each iv and key. */
+  public static final int BLOCK_BYTES = 16;
+
+  private static final int INT_BYTES = Integer.SIZE / Constants.BITS_PER_BYTE;
+
+  private static final ThreadLocal<BatchKeygen> PER_THREAD =
+      ThreadLocal.withInitial(BatchKeygen::new);
+
+  /** Number of microseconds digested together. */
+  static final int CHUNK = 1024;
+
+  private final MultiBufferMd5 md5;
+  private final int[][] seedInput = new int[2][CHUNK];
+  private final int[][] seed = new int[MultiBufferMd5.DIGEST_WORDS][CHUNK];
+  private final int[][] digest = new int[MultiBufferMd5.DIGEST_WORDS][CHUNK];
+
+  /** Creates a key generator with the fastest {@link MultiBufferMd5}. */
+  public BatchKeygen() {
+    this(MultiBufferMd5.create());
+  }
+
+  /** Creates a key generator with the given MD5 implementation.
+   *
+   * @param md5 the MD5 implementation, owned by this instance from now on
+   */
+  public BatchKeygen(MultiBufferMd5 md5) {
+    this.md5 = md5;
+  }
+
+  /**
+   * @return the key generator of the calling thread
+   */
+  public static BatchKeygen forCurrentThread() {
+    return PER_THREAD.get();
+  }
+
+  /** Combines the time and process ids the same way
+   * {@link NetscapeKeygen#makeKey()} does before mixing them.
+   *
+   * @param secondsSinceEpoch seconds since the epoch
+   * @param pid process id
+   * @param ppid parent process id
+   * @return the time input of the seed
+   */
+  public static long timeInput(long secondsSinceEpoch, int pid, int ppid) {
+    return pid + secondsSinceEpoch + (ppid << 12);
+  }
+
+  /** Derives the ivs and keys for {@code count} consecutive microseconds.
+   *
+   * @param timeInput time input of the seed, see {@link #timeInput(long, int, int)}
+   * @param firstUsec first microsecond, 0 &lt;= firstUsec
+   * @param count number of microseconds, firstUsec + count &lt;= 10^6
+   * @param ivs receives the ivs, {@link #BLOCK_BYTES} per microsecond
+   * @param keys receives the keys, {@link #BLOCK_BYTES} per microsecond,
+   *        or {@code null} if only the ivs are needed
+   */
+  public void derive(long timeInput, int firstUsec, int count, byte[] ivs,
+      byte[] keys) {
+    checkRange(firstUsec, count);
+    Arrays.fill(seedInput[1], (int) NetscapeKeygen.mixbits(timeInput));
+
+    for (int done = 0; done < count; done += CHUNK) {
+      int n = Math.min(CHUNK, count - done);
+      System.arraycopy(MixedUsecs.TABLE, firstUsec + done, seedInput[0], 0, n);
+      md5.digest(seedInput, seedInput.length, n, seed);
+      md5.digest(seed, MultiBufferMd5.DIGEST_WORDS, n, digest);
+      store(n, ivs, done * BLOCK_BYTES);
+      if (keys != null) {
+        for (int i = 0; i < n; i++) {
+          increment(i);
+        }
+        md5.digest(seed, MultiBufferMd5.DIGEST_WORDS, n, digest);
+        store(n, keys, done * BLOCK_BYTES);
+      }
+    }
+  }
+
+  private static void checkRange(int firstUsec, int count) {
+    if (firstUsec < 0 || count < 0
+        || firstUsec + count > Constants.USECS_PER_SECOND) {
+      throw new IllegalArgumentException("Microseconds out of range: "
+          + firstUsec + " + " + count);
+    }
+  }
+
+  /** Writes the first n digests as bytes. */
+  private void store(int n, byte[] output, int offset) {
+    for (int i = 0; i < n; i++) {
+      for (int w = 0; w < MultiBufferMd5.DIGEST_WORDS; w++) {
+        int word = digest[w][i];
+        for (int b = 0; b < INT_BYTES; b++) {
+          output[offset++] = (byte) word;
+          word >>>= Constants.BITS_PER_BYTE;
+        }
+      }
+    }
+  }
+
+  /** {@link NetscapeKeygen#doInc(byte[])} on seed i in word form, where
+   * byte 15 is the most significant byte of word 3.
+   */
+  private void increment(int i) {
+    for (int w = MultiBufferMd5.DIGEST_WORDS - 1; w >= 0; w--) {
+      int word = seed[w][i];
+      for (int shift = Integer.SIZE - Constants.BITS_PER_BYTE; shift >= 0;
+          shift -= Constants.BITS_PER_BYTE) {
+        int value = (word >>> shift) & 0xFF;
+        word &= ~(0xFF << shift);
+        if (value != Byte.MAX_VALUE) {
+          seed[w][i] = word | ((value + 1) & 0xFF) << shift;
+          return;
+        }
+      }
+      seed[w][i] = word;
+    }
+  }
+
+  /** Lazily computed mixbits of every microsecond value. */
+  private static final class MixedUsecs {
+    static final int[] TABLE = new int[(int) Constants.USECS_PER_SECOND];
+
+    static {
+      for (int usecs = 0; usecs < TABLE.length; usecs++) {
+        TABLE[usecs] = (int) NetscapeKeygen.mixbits(usecs);
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package ch.zhaw.sws2.random.bydate;
+
+/** Computes the MD5 digests of many short messages at once.
+ *
+ * <p>Every message fits into a single MD5 block, i.e. it is at most
+ * {@link #MAX_MESSAGE_WORDS} words long, so each digest is exactly one
+ * run of the compression function. The messages and digests are kept
+ * word-wise in structure-of-arrays layout: {@code message[w][i]} is
+ * word w of message i. Words are little-endian, as in MD5 itself, so
+ * bytes 4w..4w+3 of a message form word w.</p>
+ *
+ * <p>{@link #create()} returns an implementation that digests one
+ * message per SIMD lane with the Java Vector API if the
+ * {@code jdk.incubator.vector} module is present (run with
+ * {@code --add-modules jdk.incubator.vector}), and a scalar one
+ * otherwise.</p>
+ *
+ * <p>Instances are not thread safe.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+public abstract class MultiBufferMd5 {
+  /** Longest message that fits into one block with its padding. */
+  public static final int MAX_MESSAGE_WORDS = 13;
+
+  /** Number of words of a digest. */
+  public static final int DIGEST_WORDS = 4;
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /**
+   * @return the fastest implementation available in this JVM
+   */
+  public static MultiBufferMd5 create() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      return new VectorMd5();
+    }
+    return scalar();
+  }
+
+  /**
+   * @return the implementation that digests one message after the other
+   */
+  public static MultiBufferMd5 scalar() {
+    return new ScalarMd5();
+  }
+
+  /** Digests {@code count} messages.
+   *
+   * @param message the messages, {@code message[w][i]} is word w of message i
+   * @param messageWords length of every message in words,
+   *        0 &lt;= messageWords &lt;= {@link #MAX_MESSAGE_WORDS}
+   * @param count number of messages
+   * @param digest receives the digests, {@code digest[w][i]} is word w of
+   *        the digest of message i, {@link #DIGEST_WORDS} words each
+   */
+  public abstract void digest(int[][] message, int messageWords, int count,
+      int[][] digest);
+
+  /**
+   * @return number of messages digested by one run of the compression
+   *         function
+   */
+  public abstract int getLanes();
+
+  static void checkMessageWords(int messageWords) {
+    if (messageWords < 0 || messageWords > MAX_MESSAGE_WORDS) {
+      throw new IllegalArgumentException("Message does not fit into one block: "
+          + messageWords + " words");
+    }
+  }
+}
@@ -23,12 +23,22 @@ public class MyFakeSystemImpl implements MySystem {
 
   /**
    * Creates a MySystem object with a specified Epoch date/time 
-   * (in microseconds), PID, and PPID.
+   * (in microseconds) and PID and PPID 0.
    */
   public MyFakeSystemImpl(long microsecondsSinceEpoch, ZoneId zone) {
+    this(microsecondsSinceEpoch, 0, 0, zone);
+  }
+
+  /**
+   * Creates a MySystem object with a specified Epoch date/time
+   * (in microseconds), PID, and PPID, e.g. to reproduce the keys
+   * of a process with real process ids.
+   */
+  public MyFakeSystemImpl(long microsecondsSinceEpoch, int pid, int ppid,
+      ZoneId zone) {
     super();
-    this.pid = 0;
-    this.ppid = 0;
+    this.pid = pid;
+    this.ppid = ppid;
     this.microSecondsSinceEpoch = microsecondsSinceEpoch;
     this.zone = zone;
   }
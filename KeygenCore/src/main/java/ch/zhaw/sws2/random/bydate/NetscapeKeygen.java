@@ -1,11 +1,11 @@
 package ch.zhaw.sws2.random.bydate;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.security.AlgorithmParameters;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidParameterSpecException;
 
-import javax.crypto.spec.SecretKeySpec;
 
 /** A previous version of the Netscape cryptographic key generator.
  *
@@ -31,7 +31,7 @@ public class NetscapeKeygen {
     this.system = system;
   }
 
-  private static long mixbits(long input) {
+  static long mixbits(long input) {
     return (314192565L * input + 2718289L) % (1L << Integer.SIZE);
   }
 
@@ -41,7 +41,7 @@ public class NetscapeKeygen {
    * @param buf
    *          a byte buffer, treated as a base-256 unsigned integer
    */
-  private static void doInc(byte[] buf) {
+  static void doInc(byte[] buf) {
     /*
      * Incrementing an integer in positional notation is perhaps best understood
      * by looking at how we increment a base-10 integer. The algorithm is very
@@ -107,6 +107,18 @@ public class NetscapeKeygen {
 
   }
 
+  /** Generates only the iv using current system info. This is
+   * cheaper than {@link #makeKey()} as the key digest is skipped;
+   * {@link #getKey()} is left untouched.
+   */
+  public void makeIv() {
+    long one = mixbits(system.getUsecs());
+    long two = mixbits(system.getpid() + system.getSecondsSinceEpoch()
+        + (system.getppid() << 12));
+
+    iv = doMD5(doMD5(one, two));
+  }
+
   private static byte[] doMD5(long one, long two) {
     byte[] input = new byte[2 * Integer.SIZE / Constants.BITS_PER_BYTE];
 
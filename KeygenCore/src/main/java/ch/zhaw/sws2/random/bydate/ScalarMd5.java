@@ -0,0 +1,67 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** {@link MultiBufferMd5} that digests one message after the other
+ * with {@link MessageDigest}, whose compression function HotSpot
+ * replaces by an intrinsic. The words are converted to and from bytes
+ * in buffers owned by the instance, so nothing is allocated.
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+final class ScalarMd5 extends MultiBufferMd5 {
+  private static final int INT_BYTES = Integer.SIZE / Constants.BITS_PER_BYTE;
+
+  private final MessageDigest md5;
+  private final byte[] input = new byte[MAX_MESSAGE_WORDS * INT_BYTES];
+  private final byte[] output = new byte[DIGEST_WORDS * INT_BYTES];
+
+  ScalarMd5() {
+    try {
+      md5 = MessageDigest.getInstance(Constants.MD5_DIGEST_NAME);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 unknown??");
+    }
+  }
+
+  @Override
+  public void digest(int[][] message, int messageWords, int count,
+      int[][] digest) {
+    digest(message, messageWords, 0, count, digest);
+  }
+
+  /** Digests the messages {@code first} to {@code first + count - 1}. */
+  void digest(int[][] message, int messageWords, int first, int count,
+      int[][] digest) {
+    checkMessageWords(messageWords);
+    for (int i = first; i < first + count; i++) {
+      for (int w = 0; w < messageWords; w++) {
+        int word = message[w][i];
+        for (int b = 0; b < INT_BYTES; b++) {
+          input[w * INT_BYTES + b] = (byte) (word >>> (b * Constants.BITS_PER_BYTE));
+        }
+      }
+      md5.update(input, 0, messageWords * INT_BYTES);
+      try {
+        md5.digest(output, 0, output.length);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      for (int w = 0; w < DIGEST_WORDS; w++) {
+        int word = 0;
+        for (int b = INT_BYTES - 1; b >= 0; b--) {
+          word = (word << Constants.BITS_PER_BYTE) | (output[w * INT_BYTES + b] & 0xFF);
+        }
+        digest[w][i] = word;
+      }
+    }
+  }
+
+  @Override
+  public int getLanes() {
+    return 1;
+  }
+}
@@ -0,0 +1,180 @@
+package ch.zhaw.sws2.random.bydate;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/** {@link MultiBufferMd5} that digests one message per SIMD lane with
+ * the Java Vector API: 8 messages at once with AVX2 and 16 with
+ * AVX-512. The messages that don't fill all lanes are digested by
+ * {@link ScalarMd5}.
+ *
+ * <p>The padding words are the same for all messages and are loaded
+ * from arrays filled with them, so every step loads its message word
+ * the same way.</p>
+ *
+ * <p>Only load this class if the {@code jdk.incubator.vector} module
+ * is present, see {@link MultiBufferMd5#create()}.</p>
+ *
+ * @version 1.0
+ * @date 2026-10-17
+ */
+final class VectorMd5 extends MultiBufferMd5 {
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  private static final int BLOCK_WORDS = 16;
+  private static final int STEPS = 64;
+
+  private static final int A0 = 0x67452301;
+  private static final int B0 = 0xefcdab89;
+  private static final int C0 = 0x98badcfe;
+  private static final int D0 = 0x10325476;
+
+  /** Additive constant of every step, floor(abs(sin(step + 1)) * 2^32). */
+  private static final int[] T = {
+      0xd76aa478, 0xe8c7b756, 0x242070db, 0xc1bdceee,
+      0xf57c0faf, 0x4787c62a, 0xa8304613, 0xfd469501,
+      0x698098d8, 0x8b44f7af, 0xffff5bb1, 0x895cd7be,
+      0x6b901122, 0xfd987193, 0xa679438e, 0x49b40821,
+      0xf61e2562, 0xc040b340, 0x265e5a51, 0xe9b6c7aa,
+      0xd62f105d, 0x02441453, 0xd8a1e681, 0xe7d3fbc8,
+      0x21e1cde6, 0xc33707d6, 0xf4d50d87, 0x455a14ed,
+      0xa9e3e905, 0xfcefa3f8, 0x676f02d9, 0x8d2a4c8a,
+      0xfffa3942, 0x8771f681, 0x6d9d6122, 0xfde5380c,
+      0xa4beea44, 0x4bdecfa9, 0xf6bb4b60, 0xbebfbc70,
+      0x289b7ec6, 0xeaa127fa, 0xd4ef3085, 0x04881d05,
+      0xd9d4d039, 0xe6db99e5, 0x1fa27cf8, 0xc4ac5665,
+      0xf4292244, 0x432aff97, 0xab9423a7, 0xfc93a039,
+      0x655b59c3, 0x8f0ccc92, 0xffeff47d, 0x85845dd1,
+      0x6fa87e4f, 0xfe2ce6e0, 0xa3014314, 0x4e0811a1,
+      0xf7537e82, 0xbd3af235, 0x2ad7d2bb, 0xeb86d391
+  };
+
+  /** Left rotation of every step. */
+  private static final int[] S = {
+      7, 12, 17, 22, 7, 12, 17, 22, 7, 12, 17, 22, 7, 12, 17, 22,
+      5, 9, 14, 20, 5, 9, 14, 20, 5, 9, 14, 20, 5, 9, 14, 20,
+      4, 11, 16, 23, 4, 11, 16, 23, 4, 11, 16, 23, 4, 11, 16, 23,
+      6, 10, 15, 21, 6, 10, 15, 21, 6, 10, 15, 21, 6, 10, 15, 21
+  };
+
+  /** Message word used by every step. */
+  private static final int[] WORD = {
+      0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+      1, 6, 11, 0, 5, 10, 15, 4, 9, 14, 3, 8, 13, 2, 7, 12,
+      5, 8, 11, 14, 1, 4, 7, 10, 13, 0, 3, 6, 9, 12, 15, 2,
+      0, 7, 14, 5, 12, 3, 10, 1, 8, 15, 6, 13, 4, 11, 2, 9
+  };
+
+  private final int lanes = SPECIES.length();
+  private final int[][] padding = new int[BLOCK_WORDS][lanes];
+  private final int[][] words = new int[BLOCK_WORDS][];
+  private final int[] offsets = new int[BLOCK_WORDS];
+  private final ScalarMd5 tail = new ScalarMd5();
+
+  @Override
+  public void digest(int[][] message, int messageWords, int count,
+      int[][] digest) {
+    checkMessageWords(messageWords);
+    for (int w = 0; w < BLOCK_WORDS; w++) {
+      if (w < messageWords) {
+        words[w] = message[w];
+      } else {
+        Arrays.fill(padding[w], paddingWord(w, messageWords));
+        words[w] = padding[w];
+        offsets[w] = 0;
+      }
+    }
+
+    int vectorCount = count - count % lanes;
+    for (int i = 0; i < vectorCount; i += lanes) {
+      for (int w = 0; w < messageWords; w++) {
+        offsets[w] = i;
+      }
+      compress(digest, i);
+    }
+    tail.digest(message, messageWords, vectorCount, count - vectorCount, digest);
+  }
+
+  /** Runs the compression function on the messages at offset i of
+   * {@link #words} and stores the digests at offset i.
+   */
+  private void compress(int[][] digest, int i) {
+    IntVector a = IntVector.broadcast(SPECIES, A0);
+    IntVector b = IntVector.broadcast(SPECIES, B0);
+    IntVector c = IntVector.broadcast(SPECIES, C0);
+    IntVector d = IntVector.broadcast(SPECIES, D0);
+
+    for (int step = 0; step < 16; step++) {
+      IntVector f = d.lanewise(VectorOperators.XOR, b.and(c.lanewise(VectorOperators.XOR, d)));
+      IntVector rotated = b.add(rotate(a.add(f).add(word(step)).add(T[step]), step));
+      a = d;
+      d = c;
+      c = b;
+      b = rotated;
+    }
+    for (int step = 16; step < 32; step++) {
+      IntVector f = c.lanewise(VectorOperators.XOR, d.and(b.lanewise(VectorOperators.XOR, c)));
+      IntVector rotated = b.add(rotate(a.add(f).add(word(step)).add(T[step]), step));
+      a = d;
+      d = c;
+      c = b;
+      b = rotated;
+    }
+    for (int step = 32; step < 48; step++) {
+      IntVector f = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.XOR, d);
+      IntVector rotated = b.add(rotate(a.add(f).add(word(step)).add(T[step]), step));
+      a = d;
+      d = c;
+      c = b;
+      b = rotated;
+    }
+    for (int step = 48; step < STEPS; step++) {
+      IntVector f = c.lanewise(VectorOperators.XOR, b.or(d.not()));
+      IntVector rotated = b.add(rotate(a.add(f).add(word(step)).add(T[step]), step));
+      a = d;
+      d = c;
+      c = b;
+      b = rotated;
+    }
+
+    a.add(A0).intoArray(digest[0], i);
+    b.add(B0).intoArray(digest[1], i);
+    c.add(C0).intoArray(digest[2], i);
+    d.add(D0).intoArray(digest[3], i);
+  }
+
+  /** Returns word w of the padded block of a message with
+   * {@code messageWords} words, for the words after the message: a
+   * single 1 bit, zeros and the message length in bits.
+   *
+   * @param word word of the block, messageWords &lt;= word &lt; 16
+   * @param messageWords length of the message in words
+   * @return the padding word
+   */
+  private static int paddingWord(int word, int messageWords) {
+    if (word == messageWords) {
+      return 0x80;
+    }
+    if (word == BLOCK_WORDS - 2) {
+      return messageWords * Integer.SIZE;
+    }
+    return 0;
+  }
+
+  private IntVector word(int step) {
+    int w = WORD[step];
+    return IntVector.fromArray(SPECIES, words[w], offsets[w]);
+  }
+
+  private static IntVector rotate(IntVector value, int step) {
+    return value.lanewise(VectorOperators.ROL, S[step]);
+  }
+
+  @Override
+  public int getLanes() {
+    return lanes;
+  }
+}
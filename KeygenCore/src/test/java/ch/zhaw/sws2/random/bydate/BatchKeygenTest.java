@@ -0,0 +1,47 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+
+public class BatchKeygenTest
+{
+    private static final long SECONDS = 1459417470L;
+
+    @Test
+    public void matchesNetscapeKeygen()
+        throws Exception
+    {
+        int firstUsec = 999000;
+        int count = 1000;
+        byte[] ivs = new byte[ count * BatchKeygen.BLOCK_BYTES ];
+        byte[] keys = new byte[ count * BatchKeygen.BLOCK_BYTES ];
+        new BatchKeygen().derive( BatchKeygen.timeInput( SECONDS, 0, 0 ), firstUsec, count, ivs, keys );
+
+        MyFakeSystemImpl system = new MyFakeSystemImpl( SECONDS * Constants.USECS_PER_SECOND + firstUsec, ZoneOffset.UTC );
+        NetscapeKeygen keygen = new NetscapeKeygen( system, "AES" );
+        for ( int i = 0; i < count; i++ ) {
+            keygen.makeKey();
+            int from = i * BatchKeygen.BLOCK_BYTES;
+            int to = from + BatchKeygen.BLOCK_BYTES;
+            assertArrayEquals( keygen.getIv(), Arrays.copyOfRange( ivs, from, to ) );
+            assertArrayEquals( keygen.getKey(), Arrays.copyOfRange( keys, from, to ) );
+            system.addMicroseconds( 1 );
+        }
+    }
+
+    @Test
+    public void ivsOnlyMatchFullDerivation()
+    {
+        byte[] ivs = new byte[ 64 * BatchKeygen.BLOCK_BYTES ];
+        byte[] expected = new byte[ ivs.length ];
+        BatchKeygen keygen = BatchKeygen.forCurrentThread();
+        keygen.derive( BatchKeygen.timeInput( SECONDS, 4711, 1 ), 0, 64, ivs, null );
+        keygen.derive( BatchKeygen.timeInput( SECONDS, 4711, 1 ), 0, 64, expected, new byte[ ivs.length ] );
+        assertArrayEquals( expected, ivs );
+    }
+}
@@ -0,0 +1,63 @@
+package ch.zhaw.sws2.random.bydate;
+
+import org.junit.Test;
+
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class MultiBufferMd5Test
+{
+    private static final int COUNT = 1000;
+
+    @Test
+    public void scalarMatchesMessageDigest()
+        throws Exception
+    {
+        assertMatchesMessageDigest( MultiBufferMd5.scalar() );
+    }
+
+    @Test
+    public void fastestMatchesMessageDigest()
+        throws Exception
+    {
+        assertMatchesMessageDigest( MultiBufferMd5.create() );
+    }
+
+    private static void assertMatchesMessageDigest( MultiBufferMd5 md5 )
+        throws Exception
+    {
+        Random random = new Random( 42 );
+        MessageDigest reference = MessageDigest.getInstance( Constants.MD5_DIGEST_NAME );
+        // the count is not a multiple of the lanes, so the tail is covered as well
+        for ( int messageWords = 0; messageWords <= MultiBufferMd5.MAX_MESSAGE_WORDS; messageWords++ ) {
+            int[][] message = new int[ messageWords ][ COUNT ];
+            for ( int[] words : message ) {
+                for ( int i = 0; i < COUNT; i++ ) {
+                    words[ i ] = random.nextInt();
+                }
+            }
+            int[][] digest = new int[ MultiBufferMd5.DIGEST_WORDS ][ COUNT ];
+            md5.digest( message, messageWords, COUNT - 1, digest );
+
+            for ( int i = 0; i < COUNT - 1; i++ ) {
+                byte[] bytes = new byte[ 4 * messageWords ];
+                for ( int w = 0; w < messageWords; w++ ) {
+                    for ( int b = 0; b < 4; b++ ) {
+                        bytes[ 4 * w + b ] = (byte)(message[ w ][ i ] >>> (8 * b));
+                    }
+                }
+                byte[] expected = reference.digest( bytes );
+                for ( int w = 0; w < MultiBufferMd5.DIGEST_WORDS; w++ ) {
+                    int word = 0;
+                    for ( int b = 3; b >= 0; b-- ) {
+                        word = (word << 8) | (expected[ 4 * w + b ] & 0xFF);
+                    }
+                    assertEquals( word, digest[ w ][ i ] );
+                }
+            }
+        }
+    }
+}